@@ -0,0 +1,424 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Class caching the complete breadth-first search trees of the sources queried
+ * most, so later queries from a cached source only follow the parents from the
+ * destination back to the source. A source is hot once it has been queried
+ * the specified number of times; its tree is then built by a full traversal
+ * and kept until the trees used least recently are evicted to stay within a
+ * budget of bytes. A source whose tree could not be built within the limit of
+ * its query is cooled down: it must be queried twice as many times again before
+ * another build, and meanwhile its queries are left to the caller. A tree holds the parent of every node reached, in an array
+ * over all the nodes, or as sorted pairs of node and parent when the source
+ * reaches few nodes, whichever is smaller. Paths read from a tree are the
+ * paths IntSearch.BFS gives, since both traversals visit the neighbors in the
+ * same order. Trees are immutable and the bookkeeping is synchronized, so any
+ * number of threads may share the cache
+ * @author Vo Linh Chi Dao
+ */
+public class BFSTreeCache{
+
+    /**
+     * Default number of queries from a source before its tree is built
+     */
+    public static final int MIN_QUERIES = 2;
+
+    /**
+     * The graph being searched
+     */
+    private final IntAdjacency graph;
+
+    /**
+     * Most bytes the cached trees may take together
+     */
+    private final long maxBytes;
+
+    /**
+     * Number of queries from a source before its tree is built
+     */
+    private final int minQueries;
+
+    /**
+     * Tree of each cached source, in order of last use
+     */
+    private final LinkedHashMap<Integer,Tree> trees;
+
+    /**
+     * Number of queries from each source that was not cached, negative after a build was cut short
+     */
+    private final int[] queries;
+
+    /**
+     * Bytes taken by the cached trees
+     */
+    private long residentBytes;
+
+    /**
+     * Number of queries answered from a cached tree
+     */
+    private long hits;
+
+    /**
+     * Number of queries whose source was not cached
+     */
+    private long misses;
+
+    /**
+     * Number of trees built
+     */
+    private long builds;
+
+    /**
+     * Constructor initializes an empty cache building the tree of a source on its second query
+     * @param graph the graph being searched
+     * @param maxBytes most bytes the cached trees may take together
+     */
+    public BFSTreeCache(IntAdjacency graph, long maxBytes){
+        this(graph, maxBytes, MIN_QUERIES);
+    }
+
+    /**
+     * Constructor initializes an empty cache
+     * @param graph the graph being searched
+     * @param maxBytes most bytes the cached trees may take together
+     * @param minQueries number of queries from a source before its tree is built, 1 to build it on the first query
+     * @throws IllegalArgumentException if the budget is negative or the number of queries is not positive
+     */
+    public BFSTreeCache(IntAdjacency graph, long maxBytes, int minQueries){
+        if(maxBytes < 0 || minQueries < 1){
+            throw new IllegalArgumentException("Invalid cache budget " + maxBytes + " or query count " + minQueries);
+        }
+        this.graph = graph;
+        this.maxBytes = maxBytes;
+        this.minQueries = minQueries;
+        this.trees = new LinkedHashMap<>(16, 0.75f, true);
+        this.queries = new int[graph.getNumNodes()];
+    }
+
+    /**
+     * Retrieve the graph the trees are built on
+     * @return the graph being searched
+     */
+    public IntAdjacency getGraph(){
+        return graph;
+    }
+
+    /**
+     * Search a shortest path between node from and to through the tree of the source
+     * @param from the source node
+     * @param to the destination node
+     * @param path the buffer receiving a shortest path between the source node and
+     * the destination node. If building the tree stops early before the destination
+     * is reached, it receives the path to the last node expanded
+     * @param limit the deadline, budget and cancellation of building the tree. A tree
+     * whose building stops early is not cached and its source is cooled down
+     * @return FOUND if a path is found, NOT_FOUND if there is none, the reason the
+     * tree could not be built, or null if the source is not hot yet, in which case
+     * the caller searches the path itself
+     */
+    public SearchStatus search(int from, int to, PathBuffer path, SearchLimit limit){
+
+        path.clear();
+
+        // Check if the two nodes exist in the graph
+        if(!contains(from) || !contains(to)){
+            return SearchStatus.NOT_FOUND;
+        }
+
+        // Follow the cached tree, or build it once the source is hot
+        Tree tree = lookup(from);
+        if(tree == null){
+            if(!admit(from)){
+                return null;
+            }
+            return build(from, to, path, limit);
+        }
+        return tree.tracePath(to, path) ? SearchStatus.FOUND : SearchStatus.NOT_FOUND;
+    }
+
+    /**
+     * Check if the tree of a source is cached, without counting a query
+     * @param source the source node
+     * @return true if queries from the source are answered from its tree
+     */
+    public synchronized boolean isCached(int source){
+        return trees.containsKey(source);
+    }
+
+    /**
+     * Retrieve the cached sources, from the least to the most recently used
+     * @return the sources whose tree is cached
+     */
+    public synchronized int[] cachedSources(){
+        int[] sources = new int[trees.size()];
+        int i = 0;
+        for(int source : trees.keySet()){
+            sources[i++] = source;
+        }
+        return sources;
+    }
+
+    /**
+     * Retrieve the bytes taken by the cached trees
+     * @return the estimated heap footprint of the cached trees
+     */
+    public synchronized long getResidentBytes(){
+        return residentBytes;
+    }
+
+    /**
+     * Retrieve the number of queries answered from a cached tree
+     * @return number of cache hits
+     */
+    public synchronized long getHits(){
+        return hits;
+    }
+
+    /**
+     * Retrieve the number of queries whose source was not cached
+     * @return number of cache misses
+     */
+    public synchronized long getMisses(){
+        return misses;
+    }
+
+    /**
+     * Retrieve the number of trees built
+     * @return number of full traversals run by the cache
+     */
+    public synchronized long getBuilds(){
+        return builds;
+    }
+
+    /**
+     * Remove every cached tree and forget the queries counted
+     */
+    public synchronized void clear(){
+        trees.clear();
+        Arrays.fill(queries, 0);
+        residentBytes = 0;
+    }
+
+    /**
+     * Find the cached tree of a source, marking it as the most recently used
+     * @param source the source node
+     * @return the tree of the source, null if it is not cached
+     */
+    private synchronized Tree lookup(int source){
+        Tree tree = trees.get(source);
+        if(tree != null){
+            hits++;
+        }
+        return tree;
+    }
+
+    /**
+     * Count a query from a source that is not cached
+     * @param source the source node
+     * @return true if the source is now hot and its tree should be built
+     */
+    private synchronized boolean admit(int source){
+        misses++;
+        if(queries[source] < minQueries){
+            queries[source]++;
+        }
+        return queries[source] >= minQueries;
+    }
+
+    /**
+     * Traverse the whole component of a source, cache its tree and follow it to the destination
+     * @param from the source node
+     * @param to the destination node
+     * @param path the buffer receiving a shortest path between the source node and the
+     * destination node, or the path to the last node expanded if the traversal stops early
+     * @param limit the deadline, budget and cancellation of the traversal
+     * @return FOUND if a path is found, NOT_FOUND if there is none, or the reason
+     * the traversal stopped early
+     */
+    private SearchStatus build(int from, int to, PathBuffer path, SearchLimit limit){
+
+        int numNodes = graph.getNumNodes();
+        int[] parent = new int[numNodes];
+        int[] queue = new int[numNodes];
+        Arrays.fill(parent, Tree.UNREACHED);
+        NeighborIterator neighbors = graph.neighborIterator();
+
+        // Visit the nodes in the order of IntSearch.BFS, without stopping at a destination
+        parent[from] = -1;
+        queue[0] = from;
+        int head = 0;
+        int tail = 1;
+        while(head < tail){
+            int current = queue[head++];
+
+            // Once the limit is reached, the tree is dropped. The destination keeps
+            // the parent it was reached from, so its path is known if it was reached
+            SearchStatus stop = limit.check(head);
+            if(stop != null){
+                cool(from);
+                Tree partial = new Tree(null, parent);
+                if(partial.tracePath(to, path)){
+                    return SearchStatus.FOUND;
+                }
+                partial.tracePath(current, path);
+                return stop;
+            }
+
+            neighbors.reset(current);
+            while(neighbors.hasNext()){
+                int next = neighbors.nextNeighbor();
+                if(parent[next] == Tree.UNREACHED){
+                    parent[next] = current;
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        // Keep the parents of the reached nodes only when that is smaller
+        Tree tree;
+        if(8L * tail < 4L * numNodes){
+            int[] nodes = Arrays.copyOf(queue, tail);
+            Arrays.sort(nodes);
+            int[] parents = new int[tail];
+            for(int i = 0; i < tail; i++){
+                parents[i] = parent[nodes[i]];
+            }
+            tree = new Tree(nodes, parents);
+        }
+        else{
+            tree = new Tree(null, parent);
+        }
+        store(from, tree);
+        return tree.tracePath(to, path) ? SearchStatus.FOUND : SearchStatus.NOT_FOUND;
+    }
+
+    /**
+     * Cool down a source whose tree could not be built, so it is queried
+     * minQueries more times than a cold source before the next attempt
+     * @param source the source node
+     */
+    private synchronized void cool(int source){
+        queries[source] = -minQueries;
+    }
+
+    /**
+     * Cache the tree of a source, evicting the trees used least recently to stay within the budget
+     * @param source the source node
+     * @param tree the tree of the source
+     */
+    private synchronized void store(int source, Tree tree){
+
+        builds++;
+        queries[source] = 0;
+
+        // A tree larger than the whole budget is used once and dropped
+        if(tree.bytes() > maxBytes){
+            return;
+        }
+
+        // Another thread may have built the same tree meanwhile
+        Tree previous = trees.remove(source);
+        if(previous != null){
+            residentBytes -= previous.bytes();
+        }
+
+        residentBytes += tree.bytes();
+        Iterator<Map.Entry<Integer,Tree>> eldest = trees.entrySet().iterator();
+        while(residentBytes > maxBytes && eldest.hasNext()){
+            residentBytes -= eldest.next().getValue().bytes();
+            eldest.remove();
+        }
+        trees.put(source, tree);
+    }
+
+    /**
+     * Check if a node id belongs to the graph
+     * @param node id of the node
+     * @return true if the id is within the range of the graph and holds a word
+     */
+    private boolean contains(int node){
+        return graph.hasNode(node);
+    }
+
+    /**
+     * Class holding the parent of every node reached from a source, -1 for the source itself
+     */
+    private static class Tree{
+
+        /**
+         * Parent of a node the source does not reach
+         */
+        private static final int UNREACHED = -2;
+
+        /**
+         * Sorted ids of the nodes reached, null if the parents cover every node
+         */
+        private final int[] nodes;
+
+        /**
+         * Parent of each node, or of each node reached when the nodes are listed
+         */
+        private final int[] parents;
+
+        /**
+         * Constructor initializes a tree from its parents
+         * @param nodes sorted ids of the nodes reached, null if the parents cover every node
+         * @param parents parent of each node, or of each node listed
+         */
+        private Tree(int[] nodes, int[] parents){
+            this.nodes = nodes;
+            this.parents = parents;
+        }
+
+        /**
+         * Find the parent of a node
+         * @param node id of the node
+         * @return the parent of the node, -1 for the source, UNREACHED if the source does not reach the node
+         */
+        private int parent(int node){
+            if(nodes == null){
+                return parents[node];
+            }
+            int index = Arrays.binarySearch(nodes, node);
+            return index < 0 ? UNREACHED : parents[index];
+        }
+
+        /**
+         * Follow the parents from the specified node back to the source
+         * @param to the last node of the path
+         * @param path the buffer receiving the path from the source to the node
+         * @return false if the source does not reach the node
+         */
+        private boolean tracePath(int to, PathBuffer path){
+
+            if(parent(to) == UNREACHED){
+                return false;
+            }
+
+            // Count the nodes on the path
+            int length = 0;
+            for(int node = to; node >= 0; node = parent(node)){
+                length++;
+            }
+
+            // Fill the path from its end
+            path.setLength(length);
+            for(int node = to; node >= 0; node = parent(node)){
+                path.set(--length, node);
+            }
+            return true;
+        }
+
+        /**
+         * Estimate the bytes taken by the tree, counting array headers as 16 bytes
+         * @return estimated heap footprint of the tree
+         */
+        private long bytes(){
+            return 16L * 2 + 4L * parents.length + (nodes == null ? 0 : 16L + 4L * nodes.length);
+        }
+    }
+
+}
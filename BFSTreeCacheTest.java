@@ -0,0 +1,160 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Testing class for BFSTreeCache
+ * @author Vo Linh Chi Dao
+ */
+public class BFSTreeCacheTest{
+
+    String file1 = "src/text4.txt";
+    String file2 = "src/LargeWordGraph";
+
+    /**
+     * Test that paths read from the trees are the paths of IntSearch
+     */
+    @Test
+    public void search(){
+
+        CompressedGraph g1 = CompressedGraph.readWordGraph(file2);
+        BFSTreeCache cache = new BFSTreeCache(g1, Long.MAX_VALUE, 1);
+        IntSearch s1 = new IntSearch(g1);
+        PathBuffer path = new PathBuffer();
+
+        for(int from = 0; from < g1.getNumNodes(); from += 4999){
+            for(int to = 0; to < g1.getNumNodes(); to += 97){
+                SearchStatus status = cache.search(from, to, path, SearchLimit.NONE);
+                int[] expected = s1.BFS(from, to);
+                assertEquals(expected.length > 0 ? SearchStatus.FOUND : SearchStatus.NOT_FOUND,status);
+                assertArrayEquals(expected,path.toArray());
+            }
+        }
+        System.out.println("Trees: " + cache.getBuilds() + ", hits: " + cache.getHits() + ", bytes: " + cache.getResidentBytes());
+        assertEquals(10,cache.getBuilds());
+        assertEquals(10,cache.getMisses());
+
+        // Non-existing nodes are not counted
+        assertEquals(SearchStatus.NOT_FOUND,cache.search(-1, 0, path, SearchLimit.NONE));
+        assertEquals(SearchStatus.NOT_FOUND,cache.search(0, g1.getNumNodes(), path, SearchLimit.NONE));
+        assertEquals(10,cache.getMisses());
+    }
+
+    /**
+     * Test that a source is cached once hot and that trees are evicted by bytes
+     */
+    @Test
+    public void eviction(){
+
+        CompressedGraph g1 = CompressedGraph.readWordGraph(file1);
+        IntSearch s1 = new IntSearch(g1);
+        PathBuffer path = new PathBuffer();
+
+        // Sources of the largest component need a tree over every node
+        int[] sources = new int[3];
+        int found = 0;
+        for(int node = 0; node < g1.getNumNodes() && found < sources.length; node++){
+            if(s1.BFS(node, 0).length > 0){
+                sources[found++] = node;
+            }
+        }
+        long treeBytes = 16L * 2 + 4L * g1.getNumNodes();
+        BFSTreeCache cache = new BFSTreeCache(g1, 2 * treeBytes);
+
+        // The first query from a source is left to the caller
+        assertNull(cache.search(sources[0], 0, path, SearchLimit.NONE));
+        assertFalse(cache.isCached(sources[0]));
+        assertEquals(SearchStatus.FOUND,cache.search(sources[0], 0, path, SearchLimit.NONE));
+        assertTrue(cache.isCached(sources[0]));
+        assertEquals(SearchStatus.FOUND,cache.search(sources[0], 1, path, SearchLimit.NONE));
+        assertEquals(1,cache.getHits());
+        assertEquals(treeBytes,cache.getResidentBytes());
+
+        // A third tree evicts the least recently used one
+        for(int i = 1; i < 3; i++){
+            cache.search(sources[i], 0, path, SearchLimit.NONE);
+            cache.search(sources[i], 0, path, SearchLimit.NONE);
+        }
+        assertArrayEquals(new int[]{sources[1], sources[2]},cache.cachedSources());
+        assertEquals(2 * treeBytes,cache.getResidentBytes());
+        assertEquals(3,cache.getBuilds());
+
+        // A budget smaller than a tree caches nothing but still answers
+        BFSTreeCache small = new BFSTreeCache(g1, 100, 1);
+        assertEquals(SearchStatus.FOUND,small.search(sources[0], 0, path, SearchLimit.NONE));
+        assertArrayEquals(s1.BFS(sources[0], 0),path.toArray());
+        assertEquals(0,small.getResidentBytes());
+
+        cache.clear();
+        assertEquals(0,cache.cachedSources().length);
+        assertEquals(0,cache.getResidentBytes());
+    }
+
+    /**
+     * Test that a limited traversal is not cached and cools its source down
+     */
+    @Test
+    public void limit(){
+
+        CompressedGraph g1 = CompressedGraph.readWordGraph(file2);
+        BFSTreeCache cache = new BFSTreeCache(g1, Long.MAX_VALUE, 1);
+        PathBuffer path = new PathBuffer();
+        int from = g1.getWords().find("cold");
+
+        // A far destination is not reached within the budget
+        int to = g1.getWords().find("warm");
+        assertEquals(SearchStatus.BUDGET_EXCEEDED,cache.search(from, to, path, new SearchLimit(0, 10)));
+        assertFalse(cache.isCached(from));
+        assertTrue(path.length() > 0);
+
+        // The source is cooled down, so the next query is left to the caller
+        NeighborIterator it = g1.neighborIterator();
+        it.reset(from);
+        int next = it.nextNeighbor();
+        assertNull(cache.search(from, next, path, new SearchLimit(0, 10)));
+        assertEquals(0,cache.getBuilds());
+
+        // A neighbor is reached before the budget runs out
+        assertEquals(SearchStatus.FOUND,cache.search(from, next, path, new SearchLimit(0, 10)));
+        assertEquals(2,path.length());
+        assertFalse(cache.isCached(from));
+
+        // Once hot again, a query without limit caches the tree
+        assertNull(cache.search(from, to, path, SearchLimit.NONE));
+        assertEquals(SearchStatus.FOUND,cache.search(from, to, path, SearchLimit.NONE));
+        assertTrue(cache.isCached(from));
+
+        try{
+            new BFSTreeCache(g1, 100, 0);
+            fail();
+        }
+        catch(IllegalArgumentException e){
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Test the cache through the engine
+     */
+    @Test
+    public void engine(){
+
+        LadderEngine engine = LadderEngine.load(file2);
+        String expected = engine.answer("cold warm");
+        engine.setTreeCache(new BFSTreeCache(engine.getGraph(), 1 << 20));
+        for(int i = 0; i < 3; i++){
+            assertEquals(expected,engine.answer("cold warm"));
+        }
+        assertEquals(1,engine.getTreeCache().getHits());
+        System.out.println("Ladder from the cached tree: " + expected);
+
+        // A cache built on another graph is refused
+        try{
+            engine.setTreeCache(new BFSTreeCache(CompressedGraph.readWordGraph(file1), 1 << 20));
+            fail();
+        }
+        catch(IllegalArgumentException e){
+            System.out.println(e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,866 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Class running measurements on the word graph representations
+ * @author Vo Linh Chi Dao
+ */
+public class Benchmark{
+
+    /**
+     * Run the specified measurement
+     * @param args name of the measurement followed by the "word graph" file
+     */
+    public static void main(String[] args){
+
+        if(args.length == 0){
+            System.out.println("Usage: java Benchmark <footprint|ordering|implicit|allocation|read|build|limit"
+                    + "|weighted|offheap|lazy|parallel|treecache|nearest|export|server> [file] [count]");
+            return;
+        }
+
+        String filename = args.length > 1 ? args[1] : "LargeWordGraph";
+
+        if(args[0].equals("footprint")){
+            footprint(filename);
+        }
+        else if(args[0].equals("ordering")){
+            ordering(filename);
+        }
+        else if(args[0].equals("implicit")){
+            implicit(filename);
+        }
+        else if(args[0].equals("allocation")){
+            allocation(filename);
+        }
+        else if(args[0].equals("read")){
+            read(filename);
+        }
+        else if(args[0].equals("build")){
+            build(filename);
+        }
+        else if(args[0].equals("limit")){
+            limit(filename);
+        }
+        else if(args[0].equals("weighted")){
+            weighted(filename);
+        }
+        else if(args[0].equals("offheap")){
+            offHeap(filename, args.length > 2 ? Integer.parseInt(args[2]) : 8);
+        }
+        else if(args[0].equals("lazy")){
+            lazy(filename, args.length > 2 ? Integer.parseInt(args[2]) : 16);
+        }
+        else if(args[0].equals("parallel")){
+            parallel(filename, args.length > 2 ? Integer.parseInt(args[2]) : 8);
+        }
+        else if(args[0].equals("treecache")){
+            treeCache(filename, args.length > 2 ? Integer.parseInt(args[2]) : 20);
+        }
+        else if(args[0].equals("nearest")){
+            nearest(filename, args.length > 2 ? Integer.parseInt(args[2]) : 50);
+        }
+        else if(args[0].equals("export")){
+            export(filename);
+        }
+        else if(args[0].equals("server")){
+            server(filename, args.length > 2 ? Integer.parseInt(args[2]) : 1000);
+        }
+        else{
+            System.out.println("Unknown measurement: " + args[0]);
+        }
+    }
+
+    /**
+     * Print the bytes per edge of the compressed adjacency against the
+     * estimated adjacency of Graph for the same file
+     * @param filename the "word graph" file
+     */
+    private static void footprint(String filename){
+
+        CompressedGraph graph = CompressedGraph.readWordGraph(filename);
+
+        System.out.println("Nodes: " + graph.getNumNodes());
+        System.out.println("Directed edges: " + graph.getNumEdges());
+        System.out.println("Compressed adjacency bytes: " + graph.adjacencyBytes());
+        System.out.printf("Compressed bytes per edge: %.2f%n", graph.bytesPerEdge());
+        System.out.printf("Graph bytes per edge (estimated): %.2f%n", graph.graphBytesPerEdge());
+
+        // Each String takes a 24 byte object and a 16 byte array header plus one byte
+        // per character, aligned to 8 bytes. WordLadders keeps one copy in the nodes of
+        // the graph and one in the Hashtable, whose entries take 32 bytes, an Integer
+        // of 16 bytes and a 4 byte slot of a table kept below 75% load
+        WordArena words = graph.getWords();
+        long stringBytes = 0;
+        for(int i = 0; i < words.size(); i++){
+            stringBytes += 24 + (16 + words.length(i) + 7) / 8 * 8;
+        }
+        long hashtableBytes = stringBytes + words.size() * (32L + 16 + 4 * 4 / 3);
+        System.out.println("Word arena bytes: " + words.footprintBytes());
+        System.out.println("Node Strings bytes (estimated): " + stringBytes);
+        System.out.println("Hashtable bytes (estimated): " + hashtableBytes);
+
+        // The trie replaces both the Hashtable and its String keys
+        WordTrie trie = WordTrie.readWordGraph(filename);
+        System.out.println("Word trie states: " + trie.numStates());
+        System.out.println("Word trie bytes: " + trie.footprintBytes());
+
+        // Time looking every word up in both indexes
+        java.util.Hashtable<String,Integer> hashtable = WordLadders.hashGraph(filename);
+        String[] keys = hashtable.keySet().toArray(new String[0]);
+        for(int run = 0; run < 5; run++){
+            long start = System.nanoTime();
+            long sum = 0;
+            for(String key : keys){
+                sum += hashtable.get(key);
+            }
+            long hashtableTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for(String key : keys){
+                sum -= trie.find(key);
+            }
+            long trieTime = System.nanoTime() - start;
+            System.out.printf("Lookup: Hashtable %.0f ns/word, trie %.0f ns/word (%d)%n",
+                    (double) hashtableTime / keys.length, (double) trieTime / keys.length, sum);
+        }
+    }
+
+    /**
+     * Print the BFS throughput on random pairs of words for each node ordering
+     * @param filename the "word graph" file
+     */
+    private static void ordering(String filename){
+
+        CompressedGraph original = CompressedGraph.readWordGraph(filename);
+        int[][] pairs = randomPairs(original.getWords(), 2000, 42);
+
+        for(NodeOrdering ordering : NodeOrdering.values()){
+            CompressedGraph graph = original.reorder(ordering);
+            IntSearch search = new IntSearch(graph);
+
+            // Warm up the search before timing it
+            runPairs(graph, search, pairs);
+            long start = System.nanoTime();
+            long found = runPairs(graph, search, pairs);
+            long elapsed = System.nanoTime() - start;
+
+            System.out.printf("%-6s %8.0f BFS/s (%d ladders found)%n", ordering,
+                    pairs.length * 1e9 / elapsed, found);
+        }
+    }
+
+    /**
+     * Print the memory and BFS throughput of the stored edges against
+     * neighbors generated from the words
+     * @param filename the "word graph" file
+     */
+    private static void implicit(String filename){
+
+        CompressedGraph stored = CompressedGraph.readWordGraph(filename);
+        ImplicitWordGraph generated = ImplicitWordGraph.readWordGraph(filename, true);
+        int[][] pairs = randomPairs(stored.getWords(), 500, 42);
+
+        System.out.println("Stored edges bytes: " + stored.adjacencyBytes() + " + words " + stored.getWords().footprintBytes());
+        System.out.println("Generated edges bytes: 0 + words " + generated.getWords().footprintBytes()
+                + " (alphabet of " + generated.getAlphabet().length + " letters)");
+
+        IntAdjacency[] graphs = {stored, generated};
+        String[] names = {"stored", "generated"};
+        for(int g = 0; g < graphs.length; g++){
+            IntSearch search = new IntSearch(graphs[g]);
+            // Warm up the search before timing it
+            long found = 0;
+            for(int[] pair : pairs){
+                search.BFS(pair[0], pair[1]);
+            }
+            long start = System.nanoTime();
+            for(int[] pair : pairs){
+                if(search.BFS(pair[0], pair[1]).length > 0){
+                    found++;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("%-9s %8.0f BFS/s (%d ladders found)%n", names[g], pairs.length * 1e9 / elapsed, found);
+        }
+    }
+
+    /**
+     * Print the bytes allocated to build a word graph and to search it with
+     * Graph and with IntGraph
+     * @param filename the "word graph" file
+     */
+    private static void allocation(String filename){
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        // Pairs connected in the graph, so Graph does not print a message
+        IntGraph<String> intGraph = IntGraph.readWordGraph(filename);
+        int[][] pairs = randomPairs(WordArena.readWords(filename), 2000, 42);
+        int numPairs = 0;
+        for(int[] pair : pairs){
+            if(intGraph.BFS(pair[0], pair[1]).length > 0){
+                pairs[numPairs++] = pair;
+            }
+        }
+
+        for(int run = 0; run < 2; run++){
+            long before = threads.getCurrentThreadAllocatedBytes();
+            Graph<Integer,String> graph = WordLadders.readWordGraph(filename);
+            long graphBuild = threads.getCurrentThreadAllocatedBytes() - before;
+
+            before = threads.getCurrentThreadAllocatedBytes();
+            intGraph = IntGraph.readWordGraph(filename);
+            long intBuild = threads.getCurrentThreadAllocatedBytes() - before;
+
+            before = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for(int i = 0; i < numPairs; i++){
+                graph.BFS(pairs[i][0], pairs[i][1]);
+            }
+            long graphTime = System.nanoTime() - start;
+            long graphSearch = threads.getCurrentThreadAllocatedBytes() - before;
+
+            before = threads.getCurrentThreadAllocatedBytes();
+            start = System.nanoTime();
+            for(int i = 0; i < numPairs; i++){
+                intGraph.BFS(pairs[i][0], pairs[i][1]);
+            }
+            long intTime = System.nanoTime() - start;
+            long intSearch = threads.getCurrentThreadAllocatedBytes() - before;
+
+            // The same searches writing into a reused buffer
+            PathBuffer path = new PathBuffer();
+            graph.BFS(pairs[0][0], pairs[0][1], path);
+            before = threads.getCurrentThreadAllocatedBytes();
+            start = System.nanoTime();
+            for(int i = 0; i < numPairs; i++){
+                graph.BFS(pairs[i][0], pairs[i][1], path);
+            }
+            long bufferTime = System.nanoTime() - start;
+            long bufferSearch = threads.getCurrentThreadAllocatedBytes() - before;
+
+            System.out.printf("Graph:    build %,d bytes, BFS %,d bytes/query, %.1f us/query%n",
+                    graphBuild, graphSearch / numPairs, graphTime / 1e3 / numPairs);
+            System.out.printf("Graph:    BFS into PathBuffer %,d bytes/query, %.1f us/query%n",
+                    bufferSearch / numPairs, bufferTime / 1e3 / numPairs);
+            System.out.printf("IntGraph: build %,d bytes, BFS %,d bytes/query, %.1f us/query%n",
+                    intBuild, intSearch / numPairs, intTime / 1e3 / numPairs);
+        }
+    }
+
+    /**
+     * Print the time Graph takes to read a text file line by line and in parallel chunks
+     * @param filename the text file
+     */
+    private static void read(String filename){
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        for(int run = 0; run < 2; run++){
+            long start = System.nanoTime();
+            int nodes = Graph.read(filename).getNumNodes();
+            long sequential = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            Graph.read(filename, threads);
+            long parallel = System.nanoTime() - start;
+
+            System.out.printf("%d nodes: read %.0f ms, read with %d threads %.0f ms%n",
+                    nodes, sequential / 1e6, threads, parallel / 1e6);
+        }
+    }
+
+    /**
+     * Print the time of BFS queries whose starting words are drawn from a few hot
+     * words, searched from scratch against read from a cache of BFS trees
+     * @param filename the "word graph" file
+     * @param numSources number of distinct starting words
+     */
+    private static void treeCache(String filename, int numSources){
+
+        CompressedGraph graph = CompressedGraph.readWordGraph(filename, NodeOrdering.BFS);
+        int[][] pairs = randomPairs(graph.getWords(), 5000, 42);
+        for(int i = 0; i < pairs.length; i++){
+            pairs[i][0] = pairs[i % numSources][0];
+        }
+        long scratch = runInternalPairs(graph, pairs);
+
+        // Budget for every source as a tree over every node
+        long budget = numSources * (4L * graph.getNumNodes() + 32);
+        BFSTreeCache cache = new BFSTreeCache(graph, budget);
+        PathBuffer path = new PathBuffer();
+        IntSearch search = new IntSearch(graph);
+        long start = System.nanoTime();
+        for(int[] pair : pairs){
+            if(cache.search(pair[0], pair[1], path, SearchLimit.NONE) == null){
+                search.BFS(pair[0], pair[1], path);
+            }
+        }
+        long cached = System.nanoTime() - start;
+
+        System.out.printf("%d sources: BFS %.3f ms/query, tree cache %.3f ms/query%n",
+                numSources, scratch / 1e6 / pairs.length, cached / 1e6 / pairs.length);
+        System.out.printf("Hits %d, misses %d, trees built %d, resident %.1f MB of %.1f MB%n",
+                cache.getHits(), cache.getMisses(), cache.getBuilds(), cache.getResidentBytes() / 1e6, budget / 1e6);
+    }
+
+    /**
+     * Print the time of reaching the nearest of a set of words with one BFS per
+     * target word against a single nearest search on Graph
+     * @param filename the "word graph" file
+     * @param numTargets number of target words
+     */
+    private static void nearest(String filename, int numTargets){
+
+        Graph<Integer,String> graph = WordLadders.readWordGraph(filename);
+        Random random = new Random(42);
+        ArrayList<Integer> targets = new ArrayList<>();
+        while(targets.size() < numTargets){
+            targets.add(random.nextInt(graph.getNumNodes()));
+        }
+        BitSet positions = graph.positions(targets);
+        PathBuffer path = new PathBuffer();
+
+        for(int run = 0; run < 2; run++){
+            long perTarget = 0;
+            long single = 0;
+            for(int i = 0; i < 50; i++){
+                int from = graph.getKey(random.nextInt(graph.getNumNodes()));
+
+                long start = System.nanoTime();
+                for(int to : targets){
+                    graph.BFS(from, to, path);
+                }
+                perTarget += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                graph.nearest(from, positions, path, SearchLimit.NONE);
+                single += System.nanoTime() - start;
+            }
+            System.out.printf("%d targets: one BFS per target %.2f ms/query, nearest %.3f ms/query%n",
+                    numTargets, perTarget / 1e6 / 50, single / 1e6 / 50);
+        }
+    }
+
+    /**
+     * Print the time of printing the adjacency list of Graph one key at a time,
+     * as printGraph did, against printGraph printing it in blocks, and the time of
+     * exporting the compressed graph in the "word graph" and DOT formats
+     * @param filename the "word graph" file
+     */
+    private static void export(String filename){
+
+        Graph<Integer,String> graph = WordLadders.readWordGraph(filename);
+        CompressedGraph compressed = CompressedGraph.readWordGraph(filename);
+        File output = new File(filename + ".export");
+        try{
+            for(int run = 0; run < 2; run++){
+
+                // One print per key and per space, on a stream without a buffer
+                long start = System.nanoTime();
+                try(PrintStream out = new PrintStream(new FileOutputStream(output))){
+                    for(ArrayList<Graph<Integer,String>.Node> nodes : graph.getAdj()){
+                        for(Graph<Integer,String>.Node node : nodes){
+                            out.print(node.getKey());
+                            out.print(" ");
+                        }
+                        out.print('\n');
+                    }
+                }
+                long unbuffered = System.nanoTime() - start;
+
+                // printGraph itself, with System.out sent to the file
+                PrintStream console = System.out;
+                start = System.nanoTime();
+                try(PrintStream out = new PrintStream(new FileOutputStream(output))){
+                    System.setOut(out);
+                    graph.printGraph();
+                }
+                finally{
+                    System.setOut(console);
+                }
+                long buffered = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                GraphWriter.writeWordGraph(compressed, compressed.getWords(), output.getPath());
+                long wordGraph = System.nanoTime() - start;
+                long bytes = output.length();
+
+                start = System.nanoTime();
+                GraphWriter.writeDot(compressed, compressed.getWords(), output.getPath());
+                long dot = System.nanoTime() - start;
+
+                System.out.printf("printGraph unbuffered %.0f ms, printGraph %.0f ms, word graph %.0f ms (%.1f MB), DOT %.0f ms (%.1f MB)%n",
+                        unbuffered / 1e6, buffered / 1e6, wordGraph / 1e6, bytes / 1e6, dot / 1e6, output.length() / 1e6);
+            }
+        }
+        catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+        finally{
+            output.delete();
+        }
+    }
+
+    /**
+     * Print the time of rebuilding the edges of the file from its words against
+     * the time of reading them, and the time per word as the dictionary grows
+     * @param filename the "word graph" file
+     */
+    private static void build(String filename){
+
+        WordArena words = WordArena.readWords(filename);
+        for(int run = 0; run < 3; run++){
+            long start = System.nanoTime();
+            CompressedGraph read = CompressedGraph.readWordGraph(filename);
+            long readTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            CompressedGraph built = CompressedGraph.fromWords(words, true);
+            long buildTime = System.nanoTime() - start;
+
+            System.out.printf("Read %,d edges in %d ms, built %,d edges in %d ms%n",
+                    read.getNumEdges(), readTime / 1000000, built.getNumEdges(), buildTime / 1000000);
+        }
+
+        // Build over growing prefixes of the dictionary
+        for(int size = words.size() / 8; size <= words.size(); size *= 2){
+            String[] prefix = new String[size];
+            for(int id = 0; id < size; id++){
+                prefix[id] = words.getWord(id);
+            }
+            WordArena part = WordArena.fromWords(prefix);
+            long start = System.nanoTime();
+            CompressedGraph.fromWords(part, true);
+            long time = System.nanoTime() - start;
+            System.out.printf("%,d words: %.2f us/word%n", size, time / 1e3 / size);
+        }
+    }
+
+    /**
+     * Print the mean and worst time of DFS queries without a limit and with a
+     * 1 ms deadline, showing the cost of checking the limit and the cap on the tail
+     * @param filename the "word graph" file
+     */
+    private static void limit(String filename){
+
+        CompressedGraph graph = CompressedGraph.readWordGraph(filename);
+        int[][] pairs = randomPairs(graph.getWords(), 500, 42);
+        IntSearch search = new IntSearch(graph);
+        PathBuffer path = new PathBuffer();
+
+        for(int run = 0; run < 3; run++){
+            for(int timeout : new int[]{0, 1}){
+                long total = 0;
+                long worst = 0;
+                int stopped = 0;
+                for(int[] pair : pairs){
+                    long start = System.nanoTime();
+                    SearchLimit limit = timeout == 0 ? SearchLimit.NONE : new SearchLimit(timeout, 0);
+                    if(search.DFS(pair[0], pair[1], path, limit).isPartial()){
+                        stopped++;
+                    }
+                    long time = System.nanoTime() - start;
+                    total += time;
+                    worst = Math.max(worst, time);
+                }
+                System.out.printf("DFS timeout %d ms: mean %.0f us, worst %.0f us, %d stopped%n",
+                        timeout, total / 1e3 / pairs.length, worst / 1e3, stopped);
+            }
+        }
+    }
+
+    /**
+     * Print the time and allocation of weighted searches against BFS on the
+     * same pairs, with uniform costs and with penalized insertions and deletions
+     * @param filename the "word graph" file
+     */
+    private static void weighted(String filename){
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        CompressedGraph graph = CompressedGraph.readWordGraph(filename);
+        int[][] pairs = randomPairs(graph.getWords(), 500, 42);
+        IntSearch search = new IntSearch(graph);
+        DijkstraSearch dijkstra = new DijkstraSearch(graph);
+        LadderCost uniform = new LadderCost(graph.getWords());
+        LadderCost indels = new LadderCost(graph.getWords());
+        indels.setIndelPenalty(3);
+
+        for(int run = 0; run < 3; run++){
+            long before = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            runPairs(graph, search, pairs);
+            long bfsTime = System.nanoTime() - start;
+            long bfsBytes = threads.getCurrentThreadAllocatedBytes() - before;
+
+            before = threads.getCurrentThreadAllocatedBytes();
+            start = System.nanoTime();
+            long found = 0;
+            for(int[] pair : pairs){
+                found += dijkstra.search(pair[0], pair[1], uniform).length;
+            }
+            long uniformTime = System.nanoTime() - start;
+            long uniformBytes = threads.getCurrentThreadAllocatedBytes() - before;
+
+            before = threads.getCurrentThreadAllocatedBytes();
+            start = System.nanoTime();
+            for(int[] pair : pairs){
+                found += dijkstra.search(pair[0], pair[1], indels).length;
+            }
+            long indelTime = System.nanoTime() - start;
+            long indelBytes = threads.getCurrentThreadAllocatedBytes() - before;
+
+            System.out.printf("BFS:               %.1f us/query, %,d bytes/query%n",
+                    bfsTime / 1e3 / pairs.length, bfsBytes / pairs.length);
+            System.out.printf("Dijkstra uniform:  %.1f us/query, %,d bytes/query%n",
+                    uniformTime / 1e3 / pairs.length, uniformBytes / pairs.length);
+            System.out.printf("Dijkstra weighted: %.1f us/query, %,d bytes/query (%d path nodes)%n",
+                    indelTime / 1e3 / pairs.length, indelBytes / pairs.length, found);
+        }
+    }
+
+    /**
+     * Print the throughput and latency of a local query server answering
+     * many concurrent clients, each sending its queries one after another
+     * @param filename the "word graph" file
+     * @param clients number of concurrent clients
+     */
+    private static void server(String filename, int clients){
+
+        LadderEngine engine = LadderEngine.load(filename);
+        WordStore words = engine.getWords();
+        int queriesPerClient = 10;
+        int[][] pairs = randomPairs(words, clients * queriesPerClient, 42);
+        // Latency of each query in nanoseconds
+        long[] latencies = new long[pairs.length];
+
+        ExecutorService executor = LadderServer.newThreadPerTaskExecutor("ladder-client");
+        try(LadderServer server = new LadderServer(engine, 0)){
+            server.start();
+            CountDownLatch ready = new CountDownLatch(clients);
+            CountDownLatch go = new CountDownLatch(1);
+
+            for(int c = 0; c < clients; c++){
+                int first = c * queriesPerClient;
+                executor.execute(() -> {
+                    boolean connected = false;
+                    try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())){
+                        PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+                        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                        // Connect every client before sending the first query
+                        connected = true;
+                        ready.countDown();
+                        go.await();
+                        for(int q = first; q < first + queriesPerClient; q++){
+                            long start = System.nanoTime();
+                            out.println(words.getWord(pairs[q][0]) + " " + words.getWord(pairs[q][1]) + " BFS");
+                            in.readLine();
+                            latencies[q] = System.nanoTime() - start;
+                        }
+                    }
+                    catch(IOException e){
+                        throw new UncheckedIOException(e);
+                    }
+                    catch(InterruptedException e){
+                        Thread.currentThread().interrupt();
+                    }
+                    finally{
+                        // A client that could not connect must not hold back the others
+                        if(!connected){
+                            ready.countDown();
+                        }
+                    }
+                });
+            }
+
+            ready.await();
+            long start = System.nanoTime();
+            go.countDown();
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.HOURS);
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            System.out.printf("%d clients, %d queries: %.0f queries/s%n", clients, pairs.length, pairs.length * 1e9 / elapsed);
+            System.out.printf("latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    latencies[latencies.length / 2] / 1e6,
+                    latencies[(int) (latencies.length * 0.99)] / 1e6,
+                    latencies[latencies.length - 1] / 1e6);
+        }
+        catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        finally{
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Print the time of the BFS queries exploring the most of the graph with
+     * IntSearch against ParallelSearch on pools of 1, 2, 4... threads
+     * @param filename the "word graph" file
+     * @param maxThreads largest number of threads of the pool
+     */
+    private static void parallel(String filename, int maxThreads){
+
+        CompressedGraph graph = CompressedGraph.readWordGraph(filename, NodeOrdering.BFS);
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
+
+        // Nodes are numbered in breadth-first order from node 0, so the last
+        // nodes reached from it are the farthest: searching them explores the component
+        int[] farthest = new int[20];
+        IntSearch sequential = new IntSearch(graph);
+        int last = graph.getNumNodes() - 1;
+        for(int found = 0; found < farthest.length && last > 0; last--){
+            if(sequential.BFS(0, last).length > 0){
+                farthest[found++] = last;
+            }
+        }
+
+        long base = timeSearches(farthest, to -> sequential.BFS(0, to).length);
+        System.out.printf("IntSearch: %.2f ms/query%n", base / 1e6 / farthest.length);
+
+        for(int threads = 1; threads <= maxThreads; threads *= 2){
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            ParallelSearch search = new ParallelSearch(graph, pool);
+            long time = timeSearches(farthest, to -> search.BFS(0, to).length);
+            System.out.printf("ParallelSearch %d threads: %.2f ms/query, speedup %.2f, %d bottom-up of %d levels, %d edges checked%n",
+                    threads, time / 1e6 / farthest.length, (double) base / time,
+                    search.getLastBottomUpSteps(), search.getLastLevels(), search.getLastEdgesChecked());
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Time searches from node 0, after two warm-up runs
+     * @param targets the destination of each search
+     * @param search the search, returning the length of the path found
+     * @return nanoseconds taken by the last of three runs
+     */
+    private static long timeSearches(int[] targets, IntUnaryOperator search){
+        long time = 0;
+        long length = 0;
+        for(int run = 0; run < 3; run++){
+            long start = System.nanoTime();
+            for(int to : targets){
+                length += search.applyAsInt(to);
+            }
+            time = System.nanoTime() - start;
+        }
+        // Use the lengths so the searches are not optimized away
+        if(length < 0){
+            System.out.println(length);
+        }
+        return time;
+    }
+
+    /**
+     * Print the startup time and the heap kept by an engine loading the whole file
+     * against an engine loading its shards on demand, after a session of queries
+     * between words of 4 to 6 letters
+     * @param filename the "word graph" file
+     * @param numShards number of shards the file is split into
+     */
+    private static void lazy(String filename, int numShards){
+
+        // Split the file by component into a temporary indexed file
+        String parts = new File(System.getProperty("java.io.tmpdir"), "benchmark.parts").getPath();
+        CompressedGraph graph = CompressedGraph.readWordGraph(filename);
+        GraphPartition.byComponent(graph, numShards).writeIndexed(parts);
+
+        // Queries of a session only using words of 4 to 6 letters
+        String[] queries = new String[200];
+        Random random = new Random(42);
+        for(int i = 0; i < queries.length; i++){
+            String from;
+            String to;
+            do{
+                from = graph.getValue(random.nextInt(graph.getNumNodes()));
+                to = graph.getValue(random.nextInt(graph.getNumNodes()));
+            }
+            while(from == null || to == null || from.length() < 4 || from.length() > 6 || to.length() != from.length());
+            queries[i] = from + " " + to;
+        }
+        graph = null;
+
+        measureSession("Whole file", () -> LadderEngine.load(filename), queries);
+        measureSession("Lazy " + numShards + " shards", () -> LazyLadderEngine.open(parts, 0), queries);
+
+        new File(parts).delete();
+        new File(parts + ".index").delete();
+    }
+
+    /**
+     * Print the startup time of an engine, then the time of a session of queries
+     * and the heap the engine keeps after it
+     * @param name name of the engine
+     * @param loader the loader of the engine
+     * @param queries the queries of the session
+     */
+    private static void measureSession(String name, Supplier<LadderService> loader, String[] queries){
+
+        long baseline = collectedHeap();
+        long start = System.nanoTime();
+        LadderService engine = loader.get();
+        long startup = System.nanoTime() - start;
+
+        // Answer the session twice, timing the second run
+        PathBuffer path = new PathBuffer();
+        StringBuilder builder = new StringBuilder();
+        long session = 0;
+        for(int run = 0; run < 2; run++){
+            start = System.nanoTime();
+            for(String query : queries){
+                builder.setLength(0);
+                engine.answer(query, path, builder, SearchLimit.NONE);
+            }
+            session = System.nanoTime() - start;
+        }
+        long heap = collectedHeap() - baseline;
+        String loads = engine instanceof LazyLadderEngine ? ", " + ((LazyLadderEngine) engine).getLoads() + " shards loaded" : "";
+        System.out.printf("%s: startup %.0f ms, session %.0f ms, heap %.2f MB%s%n",
+                name, startup / 1e6, session / 1e6, heap / 1e6, loads);
+    }
+
+    /**
+     * Print the heap kept and the time of a full collection with several copies of
+     * the dictionary loaded on the heap against the same copies stored off the heap,
+     * and the time of BFS queries on either storage
+     * @param filename the "word graph" file
+     * @param copies number of copies of the dictionary loaded
+     */
+    private static void offHeap(String filename, int copies){
+
+        long baseline = collectedHeap();
+        System.out.printf("Empty heap: %.1f MB%n", baseline / 1e6);
+
+        // Load the copies on the heap, then off the heap
+        CompressedGraph[] onHeap = new CompressedGraph[copies];
+        for(int i = 0; i < copies; i++){
+            onHeap[i] = CompressedGraph.readWordGraph(filename, NodeOrdering.BFS);
+        }
+        report("CompressedGraph", copies, baseline);
+        int[][] pairs = randomPairs(onHeap[0].getWords(), 500, 42);
+        long onHeapTime = runInternalPairs(onHeap[0], pairs);
+        onHeap = null;
+
+        baseline = collectedHeap();
+        OffHeapGraph[] offHeap = new OffHeapGraph[copies];
+        for(int i = 0; i < copies; i++){
+            offHeap[i] = OffHeapGraph.readWordGraph(filename);
+        }
+        report("OffHeapGraph", copies, baseline);
+        System.out.printf("Off-heap bytes per copy: %.1f MB%n", offHeap[0].footprintBytes() / 1e6);
+        long offHeapTime = runInternalPairs(offHeap[0], pairs);
+
+        System.out.printf("BFS on heap %.3f ms/query, off heap %.3f ms/query%n",
+                onHeapTime / 1e6 / pairs.length, offHeapTime / 1e6 / pairs.length);
+    }
+
+    /**
+     * Print the heap kept by the loaded graphs and the time of a full collection
+     * @param name name of the storage
+     * @param copies number of copies loaded
+     * @param baseline heap used before the copies were loaded
+     */
+    private static void report(String name, int copies, long baseline){
+        long start = System.nanoTime();
+        long used = collectedHeap();
+        long pause = System.nanoTime() - start;
+        System.out.printf("%s x%d: heap %.1f MB, full collection %.1f ms%n",
+                name, copies, (used - baseline) / 1e6, pause / 1e6);
+    }
+
+    /**
+     * Run a full collection and measure the heap still used
+     * @return bytes of the heap used after the collection
+     */
+    private static long collectedHeap(){
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Run a BFS between each pair of node ids, twice to warm the search up
+     * @param graph the graph searched
+     * @param pairs node ids of the two words of each query
+     * @return nanoseconds taken by the second run
+     */
+    private static long runInternalPairs(IntAdjacency graph, int[][] pairs){
+        IntSearch search = new IntSearch(graph);
+        long time = 0;
+        for(int run = 0; run < 2; run++){
+            long start = System.nanoTime();
+            for(int[] pair : pairs){
+                search.BFS(pair[0], pair[1]);
+            }
+            time = System.nanoTime() - start;
+        }
+        return time;
+    }
+
+    /**
+     * Run a BFS between each pair of ids of the file
+     * @param graph the graph searched
+     * @param search the search over the graph
+     * @param pairs ids in the file of the two words of each query
+     * @return number of pairs connected by a ladder
+     */
+    private static long runPairs(CompressedGraph graph, IntSearch search, int[][] pairs){
+        long found = 0;
+        for(int[] pair : pairs){
+            if(search.BFS(graph.toInternal(pair[0]), graph.toInternal(pair[1])).length > 0){
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Pick random pairs of used word ids of the same word length
+     * @param words the words picked from
+     * @param count number of pairs
+     * @param seed seed of the random generator
+     * @return ids of the two words of each pair
+     */
+    private static int[][] randomPairs(WordStore words, int count, long seed){
+        Random random = new Random(seed);
+        int[][] pairs = new int[count][];
+        for(int i = 0; i < count; i++){
+            int from;
+            int to;
+            // Words of different lengths are never connected, so skip them
+            do{
+                from = random.nextInt(words.size());
+                to = random.nextInt(words.size());
+            }
+            while(words.length(from) == 0 || words.length(from) != words.length(to));
+            pairs[i] = new int[]{from,to};
+        }
+        return pairs;
+    }
+
+}
@@ -0,0 +1,248 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Class splitting a UTF-8 text file into line-aligned chunks and decomposing
+ * each line into its alphanumeric words on several threads. Lines are handed
+ * back in file order on the calling thread, so the caller does not need to
+ * synchronize. Only a few chunks are held in memory at any time
+ * @author Vo Linh Chi Dao
+ */
+public class ChunkedTokenizer{
+
+    /**
+     * Default number of bytes in a chunk
+     */
+    public static final int CHUNK_SIZE = 4 << 20;
+
+    /**
+     * Indicate if each ASCII character is alphanumeric
+     */
+    private static final boolean[] ASCII_ALPHANUMERIC = new boolean[128];
+
+    static{
+        for(char c = 0; c < 128; c++){
+            ASCII_ALPHANUMERIC[c] = Character.isLetterOrDigit(c);
+        }
+    }
+
+    /**
+     * The file being read
+     */
+    private final FileChannel channel;
+
+    /**
+     * Number of bytes in a chunk
+     */
+    private final int chunkSize;
+
+    /**
+     * Constructor initializes a tokenizer of the specified file
+     * @param channel the file being read
+     * @param chunkSize number of bytes in a chunk
+     */
+    private ChunkedTokenizer(FileChannel channel, int chunkSize){
+        this.channel = channel;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Decompose each line of a file into its alphanumeric words, as
+     * Graph.read does, and pass the words of every line containing at least one
+     * word to the consumer, in file order
+     * @param filename the text file
+     * @param threads number of threads decomposing chunks
+     * @param chunkSize number of bytes in a chunk
+     * @param consumer receives the words of each line, on the calling thread
+     * @throws IOException if the file cannot be read
+     */
+    public static void tokenize(String filename, int threads, int chunkSize, Consumer<String[]> consumer) throws IOException{
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try(FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)){
+            ChunkedTokenizer tokenizer = new ChunkedTokenizer(channel, chunkSize);
+            long size = channel.size();
+
+            // Chunks being decomposed, in file order
+            ArrayDeque<Future<ArrayList<String[]>>> pending = new ArrayDeque<>();
+
+            // Position of the next chunk to submit
+            long start = 0;
+
+            while(start < size || !pending.isEmpty()){
+                // Keep every thread busy with one chunk ahead
+                if(start < size && pending.size() < 2 * threads){
+                    long chunkStart = start;
+                    pending.add(executor.submit(() -> tokenizer.chunk(chunkStart)));
+                    start += chunkSize;
+                }
+                // Hand the lines of the oldest chunk to the consumer
+                else{
+                    for(String[] line : pending.poll().get()){
+                        consumer.accept(line);
+                    }
+                }
+            }
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        catch(ExecutionException e){
+            throw new IOException(e.getCause());
+        }
+        finally{
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Decompose the lines starting in the chunk at the specified position.
+     * A line belongs to the chunk holding its first byte, so the chunk skips the
+     * end of a line started earlier and reads past its end to finish its last line
+     * @param start position of the chunk in the file
+     * @return the words of each line of the chunk containing at least one word
+     * @throws IOException if the file cannot be read
+     */
+    private ArrayList<String[]> chunk(long start) throws IOException{
+
+        // Read the chunk along with the byte before it
+        long from = Math.max(0, start - 1);
+        byte[] bytes = new byte[(int) (start + chunkSize - from)];
+        int length = read(bytes, 0, bytes.length, from);
+
+        // Skip the end of the line started in the previous chunk
+        int pos = 0;
+        if(start > 0){
+            while(pos < length && bytes[pos] != '\n'){
+                pos++;
+            }
+            pos++;
+        }
+
+        // Read past the end of the chunk until its last line is complete
+        int end = length;
+        if(length == bytes.length && pos < length){
+            while(bytes[end - 1] != '\n'){
+                if(end == bytes.length){
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+                int more = read(bytes, end, bytes.length - end, from + end);
+                if(more == 0){
+                    break;
+                }
+                // Stop at the first line terminator read
+                int last = end + more;
+                while(end < last && bytes[end] != '\n'){
+                    end++;
+                }
+                if(end < last){
+                    end++;
+                    break;
+                }
+            }
+        }
+
+        // Decompose each line starting in the chunk
+        ArrayList<String[]> lines = new ArrayList<>();
+        ArrayList<String> words = new ArrayList<>();
+        int lineLimit = (int) (start + chunkSize - from);
+        while(pos < end && pos < lineLimit){
+            int lineEnd = pos;
+            while(lineEnd < end && bytes[lineEnd] != '\n'){
+                lineEnd++;
+            }
+            addAlphaNumeric(words, bytes, pos, lineEnd);
+            if(!words.isEmpty()){
+                lines.add(words.toArray(new String[0]));
+                words.clear();
+            }
+            pos = lineEnd + 1;
+        }
+        return lines;
+    }
+
+    /**
+     * Read bytes of the file at the specified position until the array is full
+     * or the file ends
+     * @param bytes the array receiving the bytes
+     * @param offset position of the first byte in the array
+     * @param length maximum number of bytes to read
+     * @param position position of the first byte in the file
+     * @return number of bytes read
+     * @throws IOException if the file cannot be read
+     */
+    private int read(byte[] bytes, int offset, int length, long position) throws IOException{
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+        while(buffer.hasRemaining()){
+            int n = channel.read(buffer, position + buffer.position() - offset);
+            if(n < 0){
+                break;
+            }
+        }
+        return buffer.position() - offset;
+    }
+
+    /**
+     * Add every maximal run of alphanumeric characters of a UTF-8 line to the list.
+     * Words are decoded straight from the bytes, without copying characters one by one
+     * @param list the list where the alphanumeric words will be added to
+     * @param bytes the bytes holding the line
+     * @param start position of the first byte of the line
+     * @param end position following the last byte of the line
+     */
+    private static void addAlphaNumeric(ArrayList<String> list, byte[] bytes, int start, int end){
+
+        // Start of the current word, -1 outside a word
+        int wordStart = -1;
+        int pos = start;
+        while(pos < end){
+            int b = bytes[pos] & 0xFF;
+            int next = pos + 1;
+            boolean alphaNumeric;
+
+            if(b < 0x80){
+                alphaNumeric = ASCII_ALPHANUMERIC[b];
+            }
+            // A stray continuation byte is decoded as a replacement character
+            else if(b < 0xC0){
+                alphaNumeric = false;
+            }
+            else{
+                // Decode the code point of a multi-byte sequence
+                int count = b >= 0xF0 ? 3 : b >= 0xE0 ? 2 : 1;
+                int codePoint = b & (0x3F >> count);
+                for(int i = 0; i < count && next < end; i++){
+                    codePoint = (codePoint << 6) | (bytes[next++] & 0x3F);
+                }
+                // Characters outside the BMP are read as two surrogates, which are not alphanumeric
+                alphaNumeric = codePoint <= 0xFFFF && Character.isLetterOrDigit((char) codePoint);
+            }
+
+            if(alphaNumeric && wordStart < 0){
+                wordStart = pos;
+            }
+            else if(!alphaNumeric && wordStart >= 0){
+                list.add(new String(bytes, wordStart, pos - wordStart, StandardCharsets.UTF_8));
+                wordStart = -1;
+            }
+            pos = next;
+        }
+        if(wordStart >= 0){
+            list.add(new String(bytes, wordStart, end - wordStart, StandardCharsets.UTF_8));
+        }
+    }
+
+}
@@ -0,0 +1,567 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Class representing an immutable, undirected word graph whose adjacency lists
+ * are stored as sorted gaps encoded with variable-length integers (varints).
+ * Each neighbor list is sorted ascending; the first neighbor is stored as a
+ * zigzag-encoded difference to the node id and every following neighbor as the
+ * gap to the previous one, so most edges of a word graph take a single byte
+ * @author Vo Linh Chi Dao
+ */
+public class CompressedGraph implements IntAdjacency{
+
+    /**
+     * Number of node ids in the graph
+     */
+    private final int numNodes;
+
+    /**
+     * Number of directed entries in the adjacency lists, each undirected edge counts twice
+     */
+    private final int numEdges;
+
+    /**
+     * Offset of the first encoded neighbor of each node, offsets[numNodes] is the end
+     */
+    private final int[] offsets;
+
+    /**
+     * Varint encoded gaps between neighbors
+     */
+    private final byte[] edges;
+
+    /**
+     * Word stored in each node
+     */
+    private final WordArena words;
+
+    /**
+     * Id in the file of each node, null if the nodes kept the ids of the file
+     */
+    private final int[] externalIds;
+
+    /**
+     * Node of each id in the file, null if the nodes kept the ids of the file
+     */
+    private final int[] internalIds;
+
+    /**
+     * Constructor initializes a graph from its encoded adjacency lists
+     * @param offsets offset of the first encoded neighbor of each node
+     * @param edges varint encoded gaps between neighbors
+     * @param numEdges number of directed entries in the adjacency lists
+     * @param words word stored in each node
+     * @param externalIds id in the file of each node, null to keep the ids
+     */
+    private CompressedGraph(int[] offsets, byte[] edges, int numEdges, WordArena words, int[] externalIds){
+        this.numNodes = offsets.length - 1;
+        this.numEdges = numEdges;
+        this.offsets = offsets;
+        this.edges = edges;
+        this.words = words;
+        this.externalIds = externalIds;
+        this.internalIds = externalIds == null ? null : new int[externalIds.length];
+        if(externalIds != null){
+            for(int i = 0; i < externalIds.length; i++){
+                internalIds[externalIds[i]] = i;
+            }
+        }
+    }
+
+    /**
+     * Construct a graph from adjacency lists. The lists do not have to be sorted,
+     * duplicated neighbors and self loops are dropped
+     * @param adjacency neighbors of each node, adjacency[i] may be null
+     * @param values word stored in each node
+     * @return a compressed graph with the specified edges
+     * @throws IllegalArgumentException if the number of lists and values does not match
+     */
+    public static CompressedGraph fromAdjacency(int[][] adjacency, String[] values){
+        return fromAdjacency(adjacency, WordArena.fromWords(values));
+    }
+
+    /**
+     * Construct a graph from adjacency lists and the arena holding the word of each node.
+     * The lists do not have to be sorted, duplicated neighbors and self loops are dropped
+     * @param adjacency neighbors of each node, adjacency[i] may be null
+     * @param words word stored in each node
+     * @return a compressed graph with the specified edges
+     * @throws IllegalArgumentException if the number of lists and words does not match
+     */
+    public static CompressedGraph fromAdjacency(int[][] adjacency, WordArena words){
+        return fromAdjacency(adjacency, words, null);
+    }
+
+    /**
+     * Construct a graph from adjacency lists, the words and the id in the file of each node
+     * @param adjacency neighbors of each node, adjacency[i] may be null
+     * @param words word stored in each node
+     * @param externalIds id in the file of each node, null to keep the ids
+     * @return a compressed graph with the specified edges
+     * @throws IllegalArgumentException if the number of lists and words does not match
+     */
+    private static CompressedGraph fromAdjacency(int[][] adjacency, WordArena words, int[] externalIds){
+
+        // If the lists of neighbors and words do not have equal length, throw an exception
+        if(adjacency.length != words.size()){
+            throw new IllegalArgumentException("The length of adjacency and words lists does not match");
+        }
+
+        // Offset of each adjacency list in the encoded array
+        int[] offsets = new int[adjacency.length + 1];
+        // Encoded adjacency lists, grown on demand
+        byte[] edges = new byte[16];
+        // Number of encoded neighbors
+        int numEdges = 0;
+        // Current write position in the encoded array
+        int pos = 0;
+
+        for(int i = 0; i < adjacency.length; i++){
+            offsets[i] = pos;
+            if(adjacency[i] == null){
+                continue;
+            }
+
+            // Sort a copy of the neighbors so the gaps are positive
+            int[] sorted = adjacency[i].clone();
+            Arrays.sort(sorted);
+
+            // Previous neighbor written, the node itself before the first one
+            int previous = i;
+            boolean first = true;
+            for(int neighbor : sorted){
+                // Skip self loops and duplicated neighbors
+                if(neighbor == i || (!first && neighbor == previous)){
+                    continue;
+                }
+                // Make room for the largest possible varint
+                if(pos + 5 > edges.length){
+                    edges = Arrays.copyOf(edges, Math.max(edges.length * 2, pos + 5));
+                }
+                // The first gap may be negative, so it is zigzag encoded
+                int gap = first ? zigzag(neighbor - i) : neighbor - previous;
+                pos = writeVarint(edges, pos, gap);
+                previous = neighbor;
+                first = false;
+                numEdges++;
+            }
+        }
+        offsets[adjacency.length] = pos;
+
+        return new CompressedGraph(offsets, Arrays.copyOf(edges, pos), numEdges, words, externalIds);
+    }
+
+    /**
+     * Construct a graph linking the words at edit distance 1, found through
+     * their deletion neighborhoods instead of comparing every pair of words
+     * @param words word stored in each node
+     * @param indels true to also link words differing by one inserted or deleted
+     * letter, false to link only words of the same length differing by one letter
+     * @return a compressed graph over the specified words
+     */
+    public static CompressedGraph fromWords(WordArena words, boolean indels){
+        return fromAdjacency(DeletionIndex.neighbors(words, indels), words);
+    }
+
+    /**
+     * Construct a graph from the words of the specified "word graph" file,
+     * ignoring the edges listed in the file and linking the words at edit distance 1
+     * @param filename the "word graph" file
+     * @param indels true to also link words differing by one inserted or deleted letter
+     * @return a compressed graph over the words of the file
+     */
+    public static CompressedGraph buildWordGraph(String filename, boolean indels){
+        return fromWords(WordArena.readWords(filename), indels);
+    }
+
+    /**
+     * Construct a graph from the specified "word graph" file, where each line
+     * holds a node id, its word and the ids of its neighbors
+     * @param filename the "word graph" file
+     * @return a compressed graph based on the specified input file
+     */
+    public static CompressedGraph readWordGraph(String filename){
+
+        try(BufferedReader reader = new BufferedReader(new FileReader(filename))){
+            return readWordGraph(reader);
+        }
+        // Throw an error if the input file is inappropriate
+        catch(IOException e){
+            throw new RuntimeException();
+        }
+    }
+
+    /**
+     * Construct a graph from the lines of a "word graph", read until the end of the reader
+     * @param reader the reader of the "word graph" lines
+     * @return a compressed graph based on the lines read
+     * @throws IOException if the reader fails
+     */
+    static CompressedGraph readWordGraph(BufferedReader reader) throws IOException{
+
+        // Source and destination of every edge read, in both directions
+        int[] sources = new int[1024];
+        int[] targets = new int[1024];
+        int numPairs = 0;
+        // Word of each node id, grown on demand
+        String[] words = new String[1024];
+        // Largest node id seen in the file
+        int maxId = -1;
+
+        // Store the current line of the text
+        String current = reader.readLine();
+
+        // Trace through each line of the text
+        while(current != null){
+
+            // Modify the current line
+            current = current.trim();
+            String[] line = current.split(" ");
+
+            if(!current.isEmpty()){
+                // Index 0 store the node id, index 1 store the word
+                int id = Integer.parseInt(line[0]);
+                maxId = Math.max(maxId, id);
+                if(id >= words.length){
+                    words = Arrays.copyOf(words, Math.max(words.length * 2, id + 1));
+                }
+                if(line.length > 1){
+                    words[id] = line[1];
+                }
+
+                // Other index store the adjacent nodes
+                for(int i = 2; i < line.length; i++){
+                    int neighbor = Integer.parseInt(line[i]);
+                    maxId = Math.max(maxId, neighbor);
+                    if(numPairs + 2 > sources.length){
+                        sources = Arrays.copyOf(sources, sources.length * 2);
+                        targets = Arrays.copyOf(targets, targets.length * 2);
+                    }
+                    // Record the edge in both directions since the graph is undirected
+                    sources[numPairs] = id;
+                    targets[numPairs++] = neighbor;
+                    sources[numPairs] = neighbor;
+                    targets[numPairs++] = id;
+                }
+            }
+
+            // Update to the next line
+            current = reader.readLine();
+        }
+
+        return fromAdjacency(group(sources, targets, numPairs, maxId + 1), Arrays.copyOf(words, maxId + 1));
+    }
+
+    /**
+     * Construct a graph from the specified "word graph" file and renumber its
+     * nodes with the specified ordering. The ids of the file remain available
+     * through toInternal and toExternal
+     * @param filename the "word graph" file
+     * @param ordering the ordering applied to the nodes
+     * @return a compressed graph based on the specified input file
+     */
+    public static CompressedGraph readWordGraph(String filename, NodeOrdering ordering){
+        return readWordGraph(filename).reorder(ordering);
+    }
+
+    /**
+     * Renumber the nodes of the graph with the specified ordering
+     * @param ordering the ordering applied to the nodes
+     * @return a graph with the same words and edges whose nodes are renumbered,
+     * or this graph if the ordering keeps the ids
+     */
+    public CompressedGraph reorder(NodeOrdering ordering){
+
+        // Old id of each new id
+        int[] order = ordering.order(this);
+        if(order == null){
+            return this;
+        }
+
+        // New id of each old id
+        int[] position = new int[numNodes];
+        for(int i = 0; i < numNodes; i++){
+            position[order[i]] = i;
+        }
+
+        // Renumber the neighbors of each node and keep the id in the file of each node
+        int[][] adjacency = new int[numNodes][];
+        int[] external = new int[numNodes];
+        NeighborIterator it = neighborIterator();
+        for(int i = 0; i < numNodes; i++){
+            adjacency[i] = new int[degree(order[i])];
+            int count = 0;
+            it.reset(order[i]);
+            while(it.hasNext()){
+                adjacency[i][count++] = position[it.nextNeighbor()];
+            }
+            external[i] = toExternal(order[i]);
+        }
+
+        return fromAdjacency(adjacency, words.permute(order), external);
+    }
+
+    /**
+     * Copy the adjacency lists and the words of the graph outside the heap.
+     * The node ids are kept, but the ids of the file are not
+     * @return an off-heap graph with the same nodes, words and edges
+     */
+    public OffHeapGraph toOffHeap(){
+        return new OffHeapGraph(offsets, edges, numEdges, words);
+    }
+
+    /**
+     * Convert an id of the file into the id of its node
+     * @param external id of the node in the file
+     * @return the id of the node in this graph, -1 if the id is not in the graph
+     */
+    public int toInternal(int external){
+        if(external < 0 || external >= numNodes){
+            return -1;
+        }
+        return internalIds == null ? external : internalIds[external];
+    }
+
+    /**
+     * Convert the id of a node into its id in the file
+     * @param node id of the node in this graph
+     * @return the id of the node in the file
+     */
+    public int toExternal(int node){
+        return externalIds == null ? node : externalIds[node];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumNodes(){
+        return numNodes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNode(int node){
+        return node >= 0 && node < numNodes && node < words.size() && words.length(node) > 0;
+    }
+
+    /**
+     * Retrieve number of directed entries in the adjacency lists
+     * @return number of directed entries, each undirected edge counts twice
+     */
+    public int getNumEdges(){
+        return numEdges;
+    }
+
+    /**
+     * Retrieve the word stored in the specified node
+     * @param node id of the node
+     * @return the word stored in the node, null if the node id is not used
+     */
+    public String getValue(int node){
+        return words.getWord(node);
+    }
+
+    /**
+     * Retrieve the arena holding the word of each node
+     * @return the arena holding the words of the graph
+     */
+    public WordArena getWords(){
+        return words;
+    }
+
+    /**
+     * Count the neighbors of a node by decoding its adjacency list
+     * @param node id of the node
+     * @return the number of neighbors of the node
+     */
+    public int degree(int node){
+
+        // Every varint ends with a byte whose high bit is clear
+        int count = 0;
+        for(int pos = offsets[node]; pos < offsets[node + 1]; pos++){
+            if(edges[pos] >= 0){
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public NeighborIterator neighborIterator(){
+        return new VarintIterator();
+    }
+
+    /**
+     * Retrieve the number of bytes used by the encoded adjacency lists,
+     * including the offset table
+     * @return bytes used by the adjacency lists
+     */
+    public long adjacencyBytes(){
+        return edges.length + 4L * offsets.length;
+    }
+
+    /**
+     * Retrieve the average number of bytes used to store one directed edge,
+     * including the offset table
+     * @return bytes per directed edge
+     */
+    public double bytesPerEdge(){
+        return numEdges == 0 ? 0 : (double) adjacencyBytes() / numEdges;
+    }
+
+    /**
+     * Estimate the bytes per directed edge the adjacency of Graph would use for the
+     * same nodes and edges: one ArrayList per node, holding the Node itself
+     * followed by a reference to each neighbor. The estimate assumes a 64-bit
+     * JVM with compressed references and ignores keys and values
+     * @return estimated bytes per directed edge used by Graph
+     */
+    public double graphBytesPerEdge(){
+
+        // Reference in the outer list, ArrayList object and its Object[] header per node
+        long bytes = (long) numNodes * (4 + 24 + 16);
+        for(int i = 0; i < numNodes; i++){
+            // Capacity reached by an ArrayList after adding the node and its neighbors
+            int capacity = 10;
+            while(capacity < degree(i) + 1){
+                capacity += capacity >> 1;
+            }
+            // Each slot of the backing array holds a 4 byte reference, aligned to 8 bytes
+            bytes += (4L * capacity + 7) / 8 * 8;
+        }
+        return numEdges == 0 ? 0 : (double) bytes / numEdges;
+    }
+
+    /**
+     * Group edge pairs by their source node
+     * @param sources source of each edge
+     * @param targets destination of each edge
+     * @param numPairs number of edges stored in the two arrays
+     * @param numNodes number of node ids
+     * @return the destinations of each source node
+     */
+    private static int[][] group(int[] sources, int[] targets, int numPairs, int numNodes){
+
+        // Count the edges leaving each node
+        int[] counts = new int[numNodes];
+        for(int i = 0; i < numPairs; i++){
+            counts[sources[i]]++;
+        }
+
+        // Allocate the lists and fill them
+        int[][] adjacency = new int[numNodes][];
+        for(int i = 0; i < numNodes; i++){
+            adjacency[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        for(int i = 0; i < numPairs; i++){
+            adjacency[sources[i]][counts[sources[i]]++] = targets[i];
+        }
+        return adjacency;
+    }
+
+    /**
+     * Map a signed integer to an unsigned one so small magnitudes stay small
+     * @param value the signed integer
+     * @return the zigzag encoding of the value
+     */
+    private static int zigzag(int value){
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * Write a variable-length integer, seven bits per byte
+     * @param buffer the array written to
+     * @param pos the position of the first byte
+     * @param value the unsigned value to write
+     * @return the position following the last written byte
+     */
+    private static int writeVarint(byte[] buffer, int pos, int value){
+        while((value & ~0x7F) != 0){
+            buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[pos++] = (byte) value;
+        return pos;
+    }
+
+    /**
+     * Iterator decoding the varint gaps of one adjacency list at a time
+     */
+    private class VarintIterator implements NeighborIterator{
+
+        /**
+         * Position of the next byte to decode
+         */
+        private int pos;
+
+        /**
+         * Position following the last byte of the current list
+         */
+        private int end;
+
+        /**
+         * Last neighbor decoded, or the node itself before the first neighbor
+         */
+        private int previous;
+
+        /**
+         * Indicate if the next neighbor is the first of the list
+         */
+        private boolean first;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void reset(int node){
+            pos = offsets[node];
+            end = offsets[node + 1];
+            previous = node;
+            first = true;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext(){
+            return pos < end;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int nextNeighbor(){
+
+            // Decode the varint, seven bits per byte
+            int b = edges[pos++];
+            int value = b & 0x7F;
+            for(int shift = 7; b < 0; shift += 7){
+                b = edges[pos++];
+                value |= (b & 0x7F) << shift;
+            }
+
+            // Undo the zigzag encoding of the first gap
+            if(first){
+                first = false;
+                previous += (value >>> 1) ^ -(value & 1);
+            }
+            else{
+                previous += value;
+            }
+            return previous;
+        }
+    }
+
+}
@@ -0,0 +1,195 @@
+import org.junit.Test;
+import java.util.Arrays;
+import static org.junit.Assert.*;
+
+/**
+ * Testing class for CompressedGraph and IntSearch
+ * @author Vo Linh Chi Dao
+ */
+public class CompressedGraphTest{
+
+    String file1 = "src/text4.txt";
+    String file2 = "src/text5.txt";
+
+    int[][] adj = {{1,2},{0,3},{0,3},{1,2},{},{6},{5}};
+    String[] words = {"cat","cot","bat","bot","zzz","dog","dot"};
+
+    /**
+     * Test fromAdjacency method and the neighbor iterator
+     */
+    @Test
+    public void fromAdjacency(){
+
+        // Node 2 links to a node far away so its gap takes several bytes
+        int[][] adj2 = {{1,2},{0,3},{0,3,300},{1,2}};
+        int[][] list = Arrays.copyOf(adj2, 301);
+        String[] data = Arrays.copyOf(words, 301);
+        CompressedGraph g1 = CompressedGraph.fromAdjacency(list, data);
+
+        assertEquals(301,g1.getNumNodes());
+        assertEquals(9,g1.getNumEdges());
+        assertEquals(3,g1.degree(2));
+        assertEquals("bat",g1.getValue(2));
+
+        // Neighbors are decoded in ascending order
+        NeighborIterator it = g1.neighborIterator();
+        it.reset(2);
+        assertEquals(0,it.nextNeighbor());
+        assertEquals(3,it.nextNeighbor());
+        assertEquals(300,it.nextNeighbor());
+        assertFalse(it.hasNext());
+
+        // List do not have the same number of neighbors and data
+        try{
+            CompressedGraph.fromAdjacency(adj, data);
+            fail();
+        }
+        catch(IllegalArgumentException e){
+            System.out.println("Mismatched lists are rejected");
+        }
+    }
+
+    /**
+     * Test readWordGraph method
+     */
+    @Test
+    public void readWordGraph(){
+
+        CompressedGraph g1 = CompressedGraph.readWordGraph(file1);
+        CompressedGraph g2 = CompressedGraph.readWordGraph(file2);
+
+        assertEquals(908,g1.getNumNodes());
+        assertEquals("aah",g1.getValue(0));
+        assertEquals(9,g1.degree(0));
+        System.out.println("Bytes per edge in graph 1: " + g1.bytesPerEdge());
+
+        // Neighbors without a line of their own still get the edge back
+        assertNull(g2.getValue(39));
+        assertEquals(2,g2.degree(39));
+        assertEquals("any",g2.getValue(40));
+    }
+
+    /**
+     * Test BFS method
+     */
+    @Test
+    public void BFS(){
+
+        IntSearch search = new IntSearch(CompressedGraph.fromAdjacency(adj, words));
+
+        // Find path between two connected nodes
+        assertArrayEquals(new int[]{0,1,3},search.BFS(0,3));
+        assertArrayEquals(new int[]{5},search.BFS(5,5));
+        // No path that link the two nodes
+        assertEquals(0,search.BFS(0,5).length);
+        // Find path between two non-existing nodes
+        assertEquals(0,search.BFS(8,49).length);
+
+        // An id without a word is not a node, even if other nodes link to it
+        CompressedGraph g2 = CompressedGraph.readWordGraph(file2);
+        assertFalse(g2.hasNode(39));
+        assertTrue(g2.hasNode(40));
+        assertEquals(0,new IntSearch(g2).BFS(39,39).length);
+
+        // Search a file graph
+        CompressedGraph g1 = CompressedGraph.readWordGraph(file1);
+        int[] path = new IntSearch(g1).BFS(0,120);
+        System.out.println("Path between aah and cat: " + Arrays.toString(path));
+        assertEquals(0,path[0]);
+        assertEquals(120,path[path.length - 1]);
+    }
+
+    /**
+     * Test DFS method
+     */
+    @Test
+    public void DFS(){
+
+        IntSearch search = new IntSearch(CompressedGraph.fromAdjacency(adj, words));
+
+        // Find path between two connected nodes
+        assertArrayEquals(new int[]{0,1,3,2},search.DFS(0,2));
+        assertArrayEquals(new int[]{6,5},search.DFS(6,5));
+        // No path that link the two nodes
+        assertEquals(0,search.DFS(4,0).length);
+        // Find path between two non-existing nodes
+        assertEquals(0,search.DFS(-1,2).length);
+    }
+
+    /**
+     * Test reorder method
+     */
+    @Test
+    public void reorder(){
+
+        CompressedGraph g1 = CompressedGraph.readWordGraph(file1);
+
+        for(NodeOrdering ordering : NodeOrdering.values()){
+            CompressedGraph g2 = g1.reorder(ordering);
+            assertEquals(g1.getNumEdges(),g2.getNumEdges());
+
+            // Every id of the file keeps its word and its neighbors
+            NeighborIterator it = g2.neighborIterator();
+            for(int i = 0; i < g1.getNumNodes(); i++){
+                int node = g2.toInternal(i);
+                assertEquals(i,g2.toExternal(node));
+                assertEquals(g1.getValue(i),g2.getValue(node));
+                assertEquals(g1.degree(i),g2.degree(node));
+                it.reset(node);
+                while(it.hasNext()){
+                    assertTrue(g1.getWords().find(g2.getValue(it.nextNeighbor())) >= 0);
+                }
+            }
+
+            // Searches give ladders of the same length
+            int[] path1 = new IntSearch(g1).BFS(0,120);
+            int[] path2 = new IntSearch(g2).BFS(g2.toInternal(0),g2.toInternal(120));
+            assertEquals(path1.length,path2.length);
+            System.out.println(ordering + " path length: " + path2.length);
+        }
+
+        // Ids outside the graph are rejected
+        assertEquals(-1,g1.reorder(NodeOrdering.RCM).toInternal(908));
+    }
+
+    /**
+     * Test fromWords method against edges listed in files
+     */
+    @Test
+    public void fromWords(){
+
+        // Link substitutions only, or insertions and deletions as well
+        String[] list = {"cat","cart","at","act","cot","tact","a","aa"};
+        CompressedGraph g1 = CompressedGraph.fromWords(WordArena.fromWords(list), false);
+        CompressedGraph g2 = CompressedGraph.fromWords(WordArena.fromWords(list), true);
+        assertEquals(4,g1.getNumEdges());
+        assertEquals(1,g1.degree(0));
+        int[] path = new IntSearch(g2).BFS(2, 1);
+        StringBuilder builder = new StringBuilder();
+        g2.getWords().appendPath(path, " ", builder);
+        System.out.println("Ladder between at and cart: " + builder);
+        assertEquals("at cat cart",builder.toString());
+        assertEquals(3,g2.degree(0));
+        assertEquals(2,g2.degree(6));
+
+        // Rebuilt edges match the edges of the files
+        CompressedGraph g3 = CompressedGraph.readWordGraph(file1);
+        CompressedGraph g4 = CompressedGraph.buildWordGraph(file1, false);
+        CompressedGraph g5 = CompressedGraph.readWordGraph("src/LargeWordGraph");
+        CompressedGraph g6 = CompressedGraph.buildWordGraph("src/LargeWordGraph", true);
+        for(CompressedGraph[] pair : new CompressedGraph[][]{{g3, g4},{g5, g6}}){
+            assertEquals(pair[0].getNumEdges(),pair[1].getNumEdges());
+            NeighborIterator it1 = pair[0].neighborIterator();
+            NeighborIterator it2 = pair[1].neighborIterator();
+            for(int i = 0; i < pair[0].getNumNodes(); i++){
+                it1.reset(i);
+                it2.reset(i);
+                while(it1.hasNext()){
+                    assertEquals(it1.nextNeighbor(),it2.nextNeighbor());
+                }
+                assertFalse(it2.hasNext());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,247 @@
+import java.util.Arrays;
+
+/**
+ * Class finding every pair of words at edit distance 1 through their deletion
+ * neighborhoods. Each word is indexed under every string obtained by deleting
+ * one of its letters: two words of the same length differ by one substituted
+ * letter exactly when deleting the same position from both gives the same
+ * string, and a word is one deletion away from a longer word exactly when it
+ * is one of the strings indexed for the longer word. The keys are never built
+ * as strings; a key is the pair of a word and its deleted position, so the
+ * index takes a few int arrays and building it is linear in the total length
+ * of the words plus the number of edges found
+ * @author Vo Linh Chi Dao
+ */
+public class DeletionIndex{
+
+    /**
+     * Largest length of an array the virtual machine can allocate
+     */
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    /**
+     * The words being indexed
+     */
+    private final WordArena words;
+
+    /**
+     * Word of each key
+     */
+    private final int[] keyWords;
+
+    /**
+     * Deleted position of each key, -1 for the whole word
+     */
+    private final int[] keyPositions;
+
+    /**
+     * Number of keys
+     */
+    private int numKeys;
+
+    /**
+     * Open addressing table of the first key of each distinct string, -1 if the slot is empty
+     */
+    private final int[] table;
+
+    /**
+     * Distinct string of each key, as the index of its first key
+     */
+    private final int[] groups;
+
+    /**
+     * Constructor initializes the index of the specified words
+     * @param words the words being indexed
+     * @param indels true to also index each word under itself, which pairs it with longer words
+     */
+    private DeletionIndex(WordArena words, boolean indels){
+        this.words = words;
+
+        // Count the keys: one per letter, plus the word itself with indels
+        long count = 0;
+        for(int id = 0; id < words.size(); id++){
+            if(words.length(id) > 0){
+                count += words.length(id) + (indels ? 1 : 0);
+            }
+        }
+
+        // The table keeps at most half of its slots used
+        long tableSize = Math.max(2, Long.highestOneBit(count) << 2);
+        if(tableSize > MAX_ARRAY_LENGTH){
+            throw new IllegalArgumentException("Too many letters to index: " + count);
+        }
+
+        this.keyWords = new int[(int) count];
+        this.keyPositions = new int[(int) count];
+        this.groups = new int[(int) count];
+        this.table = new int[(int) tableSize];
+        Arrays.fill(table, -1);
+
+        // Index every key of every word under its string
+        for(int id = 0; id < words.size(); id++){
+            if(words.length(id) == 0){
+                continue;
+            }
+            if(indels){
+                add(id, -1);
+            }
+            for(int position = 0; position < words.length(id); position++){
+                add(id, position);
+            }
+        }
+    }
+
+    /**
+     * Find the neighbors of every word: words of the same length differing by
+     * one letter and, optionally, words differing by one inserted or deleted letter.
+     * The lists are unsorted and may hold a neighbor twice
+     * @param words the words of the graph, unused ids have no neighbors
+     * @param indels true to also link words differing by one inserted or deleted letter
+     * @return the neighbors of each word id
+     */
+    public static int[][] neighbors(WordArena words, boolean indels){
+        return new DeletionIndex(words, indels).link();
+    }
+
+    /**
+     * Add a key to the index, grouping it with the keys of the same string
+     * @param id the word of the key
+     * @param position the deleted position, -1 for the whole word
+     */
+    private void add(int id, int position){
+
+        int key = numKeys++;
+        keyWords[key] = id;
+        keyPositions[key] = position;
+
+        // Find the slot of the string, or an empty slot for a new string
+        int mask = table.length - 1;
+        int slot = hash(key) & mask;
+        while(table[slot] >= 0 && !sameString(table[slot], key)){
+            slot = (slot + 1) & mask;
+        }
+        if(table[slot] < 0){
+            table[slot] = key;
+        }
+        groups[key] = table[slot];
+    }
+
+    /**
+     * Link the words whose keys share a string
+     * @return the neighbors of each word id
+     */
+    private int[][] link(){
+
+        // Order the keys by group with a counting sort
+        int[] starts = new int[numKeys + 1];
+        for(int key = 0; key < numKeys; key++){
+            starts[groups[key] + 1]++;
+        }
+        for(int i = 0; i < numKeys; i++){
+            starts[i + 1] += starts[i];
+        }
+        int[] sorted = new int[numKeys];
+        int[] fill = Arrays.copyOf(starts, numKeys);
+        for(int key = 0; key < numKeys; key++){
+            sorted[fill[groups[key]]++] = key;
+        }
+
+        // Source and destination of every edge found, in both directions
+        int[] sources = new int[1024];
+        int[] targets = new int[1024];
+        int numPairs = 0;
+
+        for(int group = 0; group < numKeys; group++){
+            int start = starts[group];
+            int end = starts[group + 1];
+
+            // Pair the keys of the group that delete the same position, or the
+            // whole word with the deletions of the longer words
+            for(int i = start; i < end; i++){
+                for(int j = i + 1; j < end; j++){
+                    int a = sorted[i];
+                    int b = sorted[j];
+                    boolean substitution = keyPositions[a] >= 0 && keyPositions[a] == keyPositions[b];
+                    boolean indel = (keyPositions[a] < 0) != (keyPositions[b] < 0);
+                    if(!substitution && !indel){
+                        continue;
+                    }
+                    if(numPairs + 2 > sources.length){
+                        sources = Arrays.copyOf(sources, sources.length * 2);
+                        targets = Arrays.copyOf(targets, targets.length * 2);
+                    }
+                    sources[numPairs] = keyWords[a];
+                    targets[numPairs++] = keyWords[b];
+                    sources[numPairs] = keyWords[b];
+                    targets[numPairs++] = keyWords[a];
+                }
+            }
+        }
+
+        // Group the edges by their source word
+        int[] counts = new int[words.size()];
+        for(int i = 0; i < numPairs; i++){
+            counts[sources[i]]++;
+        }
+        int[][] adjacency = new int[words.size()][];
+        for(int id = 0; id < adjacency.length; id++){
+            adjacency[id] = new int[counts[id]];
+            counts[id] = 0;
+        }
+        for(int i = 0; i < numPairs; i++){
+            adjacency[sources[i]][counts[sources[i]]++] = targets[i];
+        }
+        return adjacency;
+    }
+
+    /**
+     * Compute the hash of the string of a key, without building the string
+     * @param key the key
+     * @return the hash of the word with the deleted position skipped
+     */
+    private int hash(int key){
+        int id = keyWords[key];
+        int position = keyPositions[key];
+        int h = 0;
+        for(int i = 0; i < words.length(id); i++){
+            if(i != position){
+                h = 31 * h + words.charAt(id, i);
+            }
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Check if two keys stand for the same string
+     * @param a the first key
+     * @param b the second key
+     * @return true if the two words give the same string once their positions are deleted
+     */
+    private boolean sameString(int a, int b){
+
+        int idA = keyWords[a];
+        int idB = keyWords[b];
+        int lengthA = words.length(idA) - (keyPositions[a] >= 0 ? 1 : 0);
+        int lengthB = words.length(idB) - (keyPositions[b] >= 0 ? 1 : 0);
+        if(lengthA != lengthB){
+            return false;
+        }
+
+        // Compare the letters, stepping over the deleted position of each word
+        int i = 0;
+        int j = 0;
+        for(int k = 0; k < lengthA; k++, i++, j++){
+            if(i == keyPositions[a]){
+                i++;
+            }
+            if(j == keyPositions[b]){
+                j++;
+            }
+            if(words.charAt(idA, i) != words.charAt(idB, j)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,291 @@
+import java.util.Arrays;
+
+/**
+ * Class searching the cheapest path on an IntAdjacency whose steps have small
+ * integer costs. The frontier is a bucket queue holding one list per distance
+ * modulo the number of buckets: since a step costs at most getMaxCost(), every
+ * queued node is less than that many buckets away from the current distance,
+ * so each node is queued and moved in constant time.
+ * The scratch arrays are kept between searches, so an instance must not be
+ * shared between threads
+ * @author Vo Linh Chi Dao
+ */
+public class DijkstraSearch{
+
+    /**
+     * The graph being searched
+     */
+    private final IntAdjacency graph;
+
+    /**
+     * Iterator over the neighbors of the node being settled
+     */
+    private final NeighborIterator neighbors;
+
+    /**
+     * Stamp of the last search that reached each node
+     */
+    private final int[] visited;
+
+    /**
+     * Cost of the cheapest path found so far to each node
+     */
+    private final int[] distance;
+
+    /**
+     * Node each node was reached from during the last search
+     */
+    private final int[] parent;
+
+    /**
+     * Following node in the bucket of each node, -1 at the end of the bucket
+     */
+    private final int[] next;
+
+    /**
+     * Preceding node in the bucket of each node, -1 at the start of the bucket
+     */
+    private final int[] previous;
+
+    /**
+     * First node of each bucket, -1 if the bucket is empty
+     */
+    private int[] buckets;
+
+    /**
+     * Stamp of the current search
+     */
+    private int stamp;
+
+    /**
+     * Cost of the path found by the last search, -1 if none was found
+     */
+    private int lastCost;
+
+    /**
+     * Constructor initializes the scratch space for searching the graph
+     * @param graph the graph being searched
+     */
+    public DijkstraSearch(IntAdjacency graph){
+        this.graph = graph;
+        this.neighbors = graph.neighborIterator();
+        this.visited = new int[graph.getNumNodes()];
+        this.distance = new int[graph.getNumNodes()];
+        this.parent = new int[graph.getNumNodes()];
+        this.next = new int[graph.getNumNodes()];
+        this.previous = new int[graph.getNumNodes()];
+        this.buckets = new int[0];
+        this.stamp = 0;
+        this.lastCost = -1;
+    }
+
+    /**
+     * Search the cheapest path between node from and to
+     * @param from the source node
+     * @param to the destination node
+     * @param cost the cost of each step
+     * @return an array representing a cheapest path between the source node and
+     * the destination node. Return an empty array if one of the two nodes does
+     * not exist in the graph or there is no path between two nodes
+     */
+    public int[] search(int from, int to, LadderCost cost){
+        PathBuffer path = new PathBuffer();
+        search(from, to, cost, path);
+        return path.toArray();
+    }
+
+    /**
+     * Search the cheapest path between node from and to, writing the path into
+     * a buffer supplied by the caller so the search allocates nothing
+     * @param from the source node
+     * @param to the destination node
+     * @param cost the cost of each step
+     * @param path the buffer receiving a cheapest path between the source node
+     * and the destination node. It is left empty if one of the two nodes does
+     * not exist in the graph or there is no path between two nodes
+     * @return true if a path is found
+     */
+    public boolean search(int from, int to, LadderCost cost, PathBuffer path){
+        return search(from, to, cost, path, SearchLimit.NONE) == SearchStatus.FOUND;
+    }
+
+    /**
+     * Search the cheapest path between node from and to, stopping once the limit is reached
+     * @param from the source node
+     * @param to the destination node
+     * @param cost the cost of each step
+     * @param path the buffer receiving a cheapest path between the source node and
+     * the destination node. If the search stops early, it receives the cheapest
+     * path to the last node settled, whose cost getLastCost gives
+     * @param limit the deadline, budget and cancellation of the search
+     * @return FOUND if a path is found, NOT_FOUND if there is none, or the reason
+     * the search stopped early
+     */
+    public SearchStatus search(int from, int to, LadderCost cost, PathBuffer path, SearchLimit limit){
+
+        lastCost = -1;
+        path.clear();
+
+        // Check if the two nodes exist in the graph
+        if(!contains(from) || !contains(to)){
+            return SearchStatus.NOT_FOUND;
+        }
+
+        int mark = nextStamp();
+        int mask = clearBuckets(cost.getMaxCost());
+
+        // Queue the source node at distance 0
+        visited[from] = mark;
+        distance[from] = 0;
+        parent[from] = -1;
+        insert(from, mask);
+        int queued = 1;
+        int current = 0;
+        long settled = 0;
+
+        // Settle the nodes in increasing order of distance until the queue is empty
+        while(queued > 0){
+
+            // Move to the next bucket holding a node
+            while(buckets[current & mask] < 0){
+                current++;
+            }
+            int node = buckets[current & mask];
+            unlink(node, mask);
+            queued--;
+
+            // Return the path once the destination node is settled,
+            // or the path to the node once the limit is reached
+            SearchStatus stop = node == to ? SearchStatus.FOUND : limit.check(++settled);
+            if(stop != null){
+                lastCost = current;
+                tracePath(node, path);
+                return stop;
+            }
+
+            // Queue or move the neighbors that are reached more cheaply through the node.
+            // A settled neighbor is never cheaper, since every step costs at least 1
+            neighbors.reset(node);
+            while(neighbors.hasNext()){
+                int neighbor = neighbors.nextNeighbor();
+                int reached = current + cost.cost(node, neighbor);
+                if(visited[neighbor] != mark){
+                    visited[neighbor] = mark;
+                    queued++;
+                }
+                else if(reached < distance[neighbor]){
+                    unlink(neighbor, mask);
+                }
+                else{
+                    continue;
+                }
+                distance[neighbor] = reached;
+                parent[neighbor] = node;
+                insert(neighbor, mask);
+            }
+        }
+
+        // The destination node is not reached
+        return SearchStatus.NOT_FOUND;
+    }
+
+    /**
+     * Retrieve the cost of the path found by the last search
+     * @return the cost of the last path found, partial if the search stopped early,
+     * -1 if the last search found none
+     */
+    public int getLastCost(){
+        return lastCost;
+    }
+
+    /**
+     * Check if a node id belongs to the graph
+     * @param node id of the node
+     * @return true if the id is within the range of the graph and holds a word
+     */
+    private boolean contains(int node){
+        return graph.hasNode(node);
+    }
+
+    /**
+     * Start a new search, clearing the visited marks when the stamp overflows
+     * @return the stamp of the new search
+     */
+    private int nextStamp(){
+        if(++stamp == Integer.MAX_VALUE){
+            Arrays.fill(visited, 0);
+            stamp = 1;
+        }
+        return stamp;
+    }
+
+    /**
+     * Empty the buckets, growing them to hold every distance a queued node may have
+     * @param maxCost the largest cost of a step
+     * @return the mask turning a distance into its bucket
+     */
+    private int clearBuckets(int maxCost){
+
+        // A power of two above the largest step lets a mask replace the modulo
+        int size = Integer.highestOneBit(maxCost) << 1;
+        if(buckets.length < size){
+            buckets = new int[size];
+        }
+        Arrays.fill(buckets, 0, size, -1);
+        return size - 1;
+    }
+
+    /**
+     * Add a node at the start of the bucket of its distance
+     * @param node the node being queued
+     * @param mask the mask turning a distance into its bucket
+     */
+    private void insert(int node, int mask){
+        int bucket = distance[node] & mask;
+        int head = buckets[bucket];
+        next[node] = head;
+        previous[node] = -1;
+        if(head >= 0){
+            previous[head] = node;
+        }
+        buckets[bucket] = node;
+    }
+
+    /**
+     * Remove a node from the bucket of its distance
+     * @param node the node being removed
+     * @param mask the mask turning a distance into its bucket
+     */
+    private void unlink(int node, int mask){
+        if(previous[node] >= 0){
+            next[previous[node]] = next[node];
+        }
+        else{
+            buckets[distance[node] & mask] = next[node];
+        }
+        if(next[node] >= 0){
+            previous[next[node]] = previous[node];
+        }
+    }
+
+    /**
+     * Follow the parents from the specified node back to the source of the last search
+     * @param to the last node of the path
+     * @param path the buffer receiving the path from the source to the node
+     */
+    private void tracePath(int to, PathBuffer path){
+
+        // Count the nodes on the path
+        int length = 0;
+        for(int node = to; node >= 0; node = parent[node]){
+            length++;
+        }
+
+        // Fill the path from its end
+        path.setLength(length);
+        for(int node = to; node >= 0; node = parent[node]){
+            path.set(--length, node);
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Testing class for DijkstraSearch and LadderCost
+ * @author Vo Linh Chi Dao
+ */
+public class DijkstraSearchTest{
+
+    String file1 = "src/text4.txt";
+    String file2 = "src/LargeWordGraph";
+
+    // Two ladders of three steps between cat and dog
+    String[] words = {"cat","cot","cog","dog","cag","dag"};
+    int[][] adj = {{1,4},{0,2},{1,3},{2,5},{0,5},{3,4}};
+
+    /**
+     * Test search method with uniform and weighted costs
+     */
+    @Test
+    public void search(){
+
+        CompressedGraph g1 = CompressedGraph.fromAdjacency(adj, words);
+        LadderCost c1 = new LadderCost(g1.getWords());
+        DijkstraSearch s1 = new DijkstraSearch(g1);
+
+        // Every step costs 1
+        assertEquals(1,c1.getMaxCost());
+        assertEquals(4,s1.search(0, 3, c1).length);
+        assertEquals(3,s1.getLastCost());
+        assertArrayEquals(new int[]{2},s1.search(2, 2, c1));
+        assertEquals(0,s1.getLastCost());
+
+        // An obscure word is avoided
+        assertTrue(c1.setWordWeight("cot", 5));
+        assertFalse(c1.setWordWeight("cow", 5));
+        assertArrayEquals(new int[]{0,4,5,3},s1.search(0, 3, c1));
+        assertEquals(3,s1.getLastCost());
+        assertEquals(6,c1.getMaxCost());
+
+        // Both ladders swap c for d, which now costs more
+        assertTrue(c1.setSwapPenalty('d', 'c', 10));
+        assertFalse(c1.setSwapPenalty('a', 'z', 1));
+        assertEquals(11,c1.cost(4, 5));
+        assertArrayEquals(new int[]{0,4,5,3},s1.search(0, 3, c1));
+        assertEquals(1 + 11 + 1,s1.getLastCost());
+        assertEquals(16,c1.getMaxCost());
+
+        // Find path between non-existing or unconnected nodes
+        assertEquals(0,s1.search(0, 6, c1).length);
+        assertEquals(-1,s1.getLastCost());
+        assertEquals(0,s1.search(-1, 3, c1).length);
+
+        // Weights out of range are refused
+        try{
+            c1.setIndelPenalty(256);
+            fail();
+        }
+        catch(IllegalArgumentException e){
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Test that uniform costs give ladders as short as BFS
+     */
+    @Test
+    public void uniform(){
+
+        CompressedGraph g1 = CompressedGraph.readWordGraph(file1);
+        LadderCost c1 = new LadderCost(g1.getWords());
+        DijkstraSearch s1 = new DijkstraSearch(g1);
+        IntSearch s2 = new IntSearch(g1);
+
+        for(int from = 0; from < g1.getNumNodes(); from += 37){
+            for(int to = 0; to < g1.getNumNodes(); to += 53){
+                int[] path = s1.search(from, to, c1);
+                assertEquals(s2.BFS(from, to).length,path.length);
+                assertEquals(path.length - 1,s1.getLastCost());
+            }
+        }
+    }
+
+    /**
+     * Test weighted ladders through the engine
+     */
+    @Test
+    public void engine(){
+
+        LadderEngine engine = LadderEngine.load(file2);
+
+        // Penalizing insertions and deletions keeps the ladder at one length
+        String ladder = engine.answer("cold warm DIJKSTRA");
+        System.out.println("Cheapest ladder between cold and warm: " + ladder);
+        assertEquals(engine.answer("cold warm BFS").split(" ").length,ladder.split(" ").length);
+
+        LadderCost cost = new LadderCost(engine.getWords());
+        cost.setIndelPenalty(100);
+        engine.setCost(cost);
+        ladder = engine.answer("cold warm DIJKSTRA");
+        System.out.println("Ladder between cold and warm without indels: " + ladder);
+        for(String word : ladder.split(" ")){
+            assertEquals(4,word.length());
+        }
+
+        // A cost built on other words is refused
+        try{
+            engine.setCost(new LadderCost(WordArena.fromWords(words)));
+            fail();
+        }
+        catch(IllegalArgumentException e){
+            System.out.println(e.getMessage());
+        }
+    }
+
+}
@@ -2,12 +2,19 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Queue;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
 
 /**
- * Class representing undirected, unweighted graph
+ * Class representing undirected, unweighted graph. Changing the graph is not
+ * thread-safe, but any number of threads may search a graph no thread changes
  * @param <K> reference type to the node in the graph
  * @param <V> type of data stored in the node
  * @author Vo Linh Chi Dao
@@ -64,6 +71,64 @@ public class Graph<K,V>{
         }
     }
 
+    /**
+     * Class holding the scratch space of one search at a time, kept between searches
+     */
+    private static class Scratch{
+
+        /**
+         * Stamp of the last search that visited each node
+         */
+        private int[] visited = new int[0];
+
+        /**
+         * Queue of nodes for BFS
+         */
+        private int[] queue = new int[0];
+
+        /**
+         * Position of the next neighbor to try at each depth of the DFS path
+         */
+        private int[] cursor = new int[0];
+
+        /**
+         * Node each node was reached from during a nearest search
+         */
+        private int[] parent = new int[0];
+
+        /**
+         * Stamp of the current search
+         */
+        private int stamp;
+
+        /**
+         * Start a new search, growing the scratch space to the number of nodes and
+         * clearing the visited marks when the stamp overflows
+         * @param numNodes number of nodes in the graph
+         * @return the stamp of the new search
+         */
+        private int nextStamp(int numNodes){
+            if(visited.length < numNodes){
+                int capacity = Math.max(numNodes, visited.length * 2);
+                visited = new int[capacity];
+                queue = new int[capacity];
+                cursor = new int[capacity];
+                parent = new int[capacity];
+                stamp = 0;
+            }
+            if(++stamp == Integer.MAX_VALUE){
+                Arrays.fill(visited, 0);
+                stamp = 1;
+            }
+            return stamp;
+        }
+    }
+
+    /**
+     * Number of characters printGraph gathers before printing them
+     */
+    public static final int PRINT_BLOCK = 8192;
+
     /**
      * Number of nodes in the graph
      */
@@ -74,12 +139,24 @@ public class Graph<K,V>{
      */
     private final ArrayList<ArrayList<Node>> adj;
 
+    /**
+     * Index of each node in the adjacency list, by name
+     */
+    private final HashMap<K,Integer> index;
+
+    /**
+     * Scratch space of the searches that is not used by any search, kept between searches
+     */
+    private final ConcurrentLinkedQueue<Scratch> scratches;
+
     /**
      * Constructor initialize an empty graph
      */
     public Graph(){
         this.numNodes = 0;
         this.adj = new ArrayList<>();
+        this.index = new HashMap<>();
+        this.scratches = new ConcurrentLinkedQueue<>();
     }
 
     /**
@@ -95,6 +172,7 @@ public class Graph<K,V>{
         if(getAdj().isEmpty()){
            getAdj().add(new ArrayList<>());
            getAdj().get(0).add(new Node(name,data));
+           index.put(name,0);
            // Update number of nodes
            updateNumNodes();
            return true;
@@ -109,6 +187,7 @@ public class Graph<K,V>{
             Node newNode = new Node(name,data);
             getAdj().add(new ArrayList<>());
             getAdj().get(getAdj().size() - 1).add(newNode);
+            index.put(name,getAdj().size() - 1);
             // Update number of nodes
             updateNumNodes();
             return true;
@@ -223,6 +302,11 @@ public class Graph<K,V>{
            ArrayList<Node> removed = getAdj().remove(i);
            // Update number of nodes
            updateNumNodes();
+           // Nodes after the removed one move one index down
+           index.remove(name);
+           for(int j = i; j < getAdj().size(); j++){
+               index.put(getAdj().get(j).get(0).getKey(),j);
+           }
            // Number of adjacent node with removed node, excluding the node itself
            int numAdj = removed.size() - 1;
            // Trace through adjacency list to remove the edge associated with removed node
@@ -260,20 +344,29 @@ public class Graph<K,V>{
     }
 
     /**
-     * Print the adjacency list of node names and their neighbors
+     * Print the adjacency list of node names and their neighbors.
+     * The lines are gathered in a buffer and printed in blocks of about
+     * PRINT_BLOCK characters, encoded with the charset of System.out
      */
     public void printGraph(){
 
+        StringBuilder builder = new StringBuilder(PRINT_BLOCK + 256);
         // Trace through each node in the graph
         for(ArrayList<Node> nodes : getAdj()){
             // Print the node and its edge
             for(Node node : nodes){
-                System.out.print(node.getKey());
-                System.out.print(" ");
+                builder.append(node.getKey()).append(' ');
+            }
+            builder.append('\n');
+
+            // Print the full block and reuse the buffer
+            if(builder.length() >= PRINT_BLOCK){
+                System.out.print(builder);
+                builder.setLength(0);
             }
-            System.out.print('\n');
         }
-        System.out.print('\n');
+        builder.append('\n');
+        System.out.print(builder);
     }
 
     /**
@@ -349,6 +442,312 @@ public class Graph<K,V>{
         return result.toArray((K[]) new Object[result.size()]);
     }
 
+    /**
+     * Depth-first search between nodes from and to, writing the positions of
+     * the nodes in the adjacency list into a buffer supplied by the caller.
+     * The search reuses its scratch space and prints nothing, so repeated
+     * searches produce no garbage; the nodes are read with getKey and getValue
+     * @param from the source node
+     * @param to the destination node
+     * @param path the buffer receiving the path between source node and destination
+     * node. It is left empty if one of the two nodes does not exist in the graph
+     * or there is no path between two nodes
+     * @return true if a path is found
+     */
+    public boolean DFS(K from, K to, PathBuffer path){
+        return DFS(from, to, path, SearchLimit.NONE) == SearchStatus.FOUND;
+    }
+
+    /**
+     * Depth-first search between nodes from and to that stops once the limit is
+     * reached, so a search in a huge component does not hold the thread
+     * @param from the source node
+     * @param to the destination node
+     * @param path the buffer receiving the positions of the nodes on the path. If the
+     * search stops early, it receives the path being explored
+     * @param limit the deadline, budget and cancellation of the search
+     * @return FOUND if a path is found, NOT_FOUND if there is none or one of the two
+     * nodes does not exist, or the reason the search stopped early
+     */
+    public SearchStatus DFS(K from, K to, PathBuffer path, SearchLimit limit){
+
+        path.clear();
+
+        // Check if the two nodes exist in the graph
+        int source = findNode(from);
+        int destination = findNode(to);
+        if(source < 0 || destination < 0){
+            return SearchStatus.NOT_FOUND;
+        }
+
+        // Each search takes scratch space no other search uses
+        Scratch scratch = borrow();
+        try{
+            return depthFirst(source, destination, path, limit, scratch);
+        }
+        finally{
+            scratches.add(scratch);
+        }
+    }
+
+    /**
+     * Depth-first search between two existing nodes
+     * @param source position of the source node
+     * @param destination position of the destination node
+     * @param path the empty buffer receiving the positions of the nodes on the path
+     * @param limit the deadline, budget and cancellation of the search
+     * @param scratch the scratch space of the search
+     * @return FOUND if a path is found, NOT_FOUND if there is none, or the reason the search stopped early
+     */
+    private SearchStatus depthFirst(int source, int destination, PathBuffer path, SearchLimit limit, Scratch scratch){
+
+        int mark = scratch.nextStamp(getNumNodes());
+        int[] visited = scratch.visited;
+        int[] cursor = scratch.cursor;
+
+        // The current path is kept in the buffer, with the next neighbor to try at each depth
+        visited[source] = mark;
+        path.add(source);
+        cursor[0] = 0;
+        int depth = 0;
+        long expanded = 0;
+
+        while(depth >= 0){
+            // Return the current path once the destination node is reached,
+            // or once the limit is reached
+            int current = path.get(depth);
+            SearchStatus stop = current == destination ? SearchStatus.FOUND : limit.check(++expanded);
+            if(stop != null){
+                path.setLength(depth + 1);
+                return stop;
+            }
+
+            // Descend into the next unvisited adjacent node of the deepest node
+            ArrayList<Node> list = getAdj().get(current);
+            int next = -1;
+            while(cursor[depth] < list.size() && next < 0){
+                int candidate = findNode(list.get(cursor[depth]++).getKey());
+                if(visited[candidate] != mark){
+                    next = candidate;
+                }
+            }
+
+            // If the node does not provide path to the destination, backtrack
+            if(next < 0){
+                depth--;
+            }
+            else{
+                visited[next] = mark;
+                path.setLength(++depth + 1);
+                path.set(depth, next);
+                cursor[depth] = 0;
+            }
+        }
+
+        // The destination node is not reached
+        path.clear();
+        return SearchStatus.NOT_FOUND;
+    }
+
+    /**
+     * Breadth-first search between node from and to, writing the positions of
+     * the nodes in the adjacency list into a buffer supplied by the caller.
+     * The search reuses its scratch space and prints nothing, so repeated
+     * searches produce no garbage; the nodes are read with getKey and getValue
+     * @param from the source node
+     * @param to the destination node
+     * @param path the buffer receiving the same path as BFS. It is left empty if
+     * one of the two nodes does not exist in the graph or there is no path between two nodes
+     * @return true if a path is found
+     */
+    public boolean BFS(K from, K to, PathBuffer path){
+        return BFS(from, to, path, SearchLimit.NONE) == SearchStatus.FOUND;
+    }
+
+    /**
+     * Breadth-first search between node from and to that stops once the limit is
+     * reached, so a search in a huge component does not hold the thread
+     * @param from the source node
+     * @param to the destination node
+     * @param path the buffer receiving the same path as BFS. If the search stops
+     * early, it receives the nodes visited so far
+     * @param limit the deadline, budget and cancellation of the search
+     * @return FOUND if a path is found, NOT_FOUND if there is none or one of the two
+     * nodes does not exist, or the reason the search stopped early
+     */
+    public SearchStatus BFS(K from, K to, PathBuffer path, SearchLimit limit){
+
+        path.clear();
+
+        // Check if the two nodes exist in the graph
+        int source = findNode(from);
+        int destination = findNode(to);
+        if(source < 0 || destination < 0){
+            return SearchStatus.NOT_FOUND;
+        }
+
+        // Each search takes scratch space no other search uses
+        Scratch scratch = borrow();
+        try{
+            return breadthFirst(source, destination, path, limit, scratch);
+        }
+        finally{
+            scratches.add(scratch);
+        }
+    }
+
+    /**
+     * Breadth-first search between two existing nodes
+     * @param source position of the source node
+     * @param destination position of the destination node
+     * @param path the empty buffer receiving the nodes visited up to the destination
+     * @param limit the deadline, budget and cancellation of the search
+     * @param scratch the scratch space of the search
+     * @return FOUND if a path is found, NOT_FOUND if there is none, or the reason the search stopped early
+     */
+    private SearchStatus breadthFirst(int source, int destination, PathBuffer path, SearchLimit limit, Scratch scratch){
+
+        int mark = scratch.nextStamp(getNumNodes());
+        int[] visited = scratch.visited;
+        int[] queue = scratch.queue;
+
+        // Indicate the source node has been visited and add it to the queue
+        visited[source] = mark;
+        queue[0] = source;
+        int head = 0;
+        int tail = 1;
+
+        // Trace through the graph until the queue is empty
+        while(head < tail){
+            // Add current node to the path
+            int current = queue[head++];
+            path.add(current);
+
+            // Return if the reaches the destination node
+            if(current == destination){
+                return SearchStatus.FOUND;
+            }
+
+            // Stop with the nodes visited so far once the limit is reached
+            SearchStatus stop = limit.check(head);
+            if(stop != null){
+                return stop;
+            }
+
+            // Add unvisited adjacent node of the current node to the queue
+            ArrayList<Node> list = getAdj().get(current);
+            for(int k = 0; k < list.size(); k++){
+                int node = findNode(list.get(k).getKey());
+                if(visited[node] != mark){
+                    visited[node] = mark;
+                    queue[tail++] = node;
+                }
+            }
+        }
+
+        // The destination node is not reached
+        path.clear();
+        return SearchStatus.NOT_FOUND;
+    }
+
+    /**
+     * Collect the positions of the specified nodes into a bitset, the target set of nearest
+     * @param names reference to the nodes, those not in the graph are skipped
+     * @return a bitset holding the position of each node in the adjacency list
+     */
+    public BitSet positions(Collection<K> names){
+        BitSet positions = new BitSet(getNumNodes());
+        for(K name : names){
+            int i = findNode(name);
+            if(i >= 0){
+                positions.set(i);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Breadth-first search from node from to the nearest of the specified nodes,
+     * in a single traversal whatever the number of targets
+     * @param from the source node
+     * @param targets reference to the target nodes, those not in the graph are skipped
+     * @param path the buffer receiving the positions of the nodes on a shortest path
+     * from the source node to the nearest target, the target last. It is left empty
+     * if the source node does not exist or reaches no target
+     * @return true if a target is reached
+     */
+    public boolean nearest(K from, Collection<K> targets, PathBuffer path){
+        return nearest(from, positions(targets), path, SearchLimit.NONE) == SearchStatus.FOUND;
+    }
+
+    /**
+     * Breadth-first search from node from to the nearest node whose position is
+     * in a bitset, stopping once the limit is reached
+     * @param from the source node
+     * @param targets the positions of the target nodes in the adjacency list, as given by positions
+     * @param path the buffer receiving the positions of the nodes on a shortest path
+     * from the source node to the nearest target, the target last. If the search
+     * stops early, it receives the path to the last node expanded
+     * @param limit the deadline, budget and cancellation of the search
+     * @return FOUND if a target is reached, NOT_FOUND if there is none or the source
+     * node does not exist, or the reason the search stopped early
+     */
+    public SearchStatus nearest(K from, BitSet targets, PathBuffer path, SearchLimit limit){
+        return nearest(from, targets, null, path, limit);
+    }
+
+    /**
+     * Breadth-first search from node from to the nearest node whose value matches
+     * a predicate, stopping once the limit is reached
+     * @param from the source node
+     * @param target the predicate the value of a target node matches
+     * @param path the buffer receiving the positions of the nodes on a shortest path
+     * from the source node to the nearest target, the target last. If the search
+     * stops early, it receives the path to the last node expanded
+     * @param limit the deadline, budget and cancellation of the search
+     * @return FOUND if a target is reached, NOT_FOUND if there is none or the source
+     * node does not exist, or the reason the search stopped early
+     */
+    public SearchStatus nearest(K from, Predicate<V> target, PathBuffer path, SearchLimit limit){
+        return nearest(from, null, target, path, limit);
+    }
+
+    /**
+     * Retrieve the name of the node at a position of the adjacency list.
+     * Positions stay valid until a node is removed
+     * @param position position of the node, as written by BFS and DFS into a PathBuffer
+     * @return the reference name of the node
+     */
+    public K getKey(int position){
+        return getAdj().get(position).get(0).getKey();
+    }
+
+    /**
+     * Retrieve the value of the node at a position of the adjacency list.
+     * Positions stay valid until a node is removed
+     * @param position position of the node, as written by BFS and DFS into a PathBuffer
+     * @return the value of the node
+     */
+    public V getValue(int position){
+        return getAdj().get(position).get(0).getValue();
+    }
+
+    /**
+     * Append the values of the nodes of a path to a builder, separated by the
+     * specified text, without building a list of the values
+     * @param path positions of the nodes, as written by BFS and DFS
+     * @param separator text placed between two values
+     * @param builder the builder the values are appended to
+     */
+    public void appendValues(PathBuffer path, String separator, StringBuilder builder){
+        for(int i = 0; i < path.length(); i++){
+            if(i > 0){
+                builder.append(separator);
+            }
+            builder.append(getValue(path.get(i)));
+        }
+    }
+
     /**
      * Construct a graph from the specified text file
      * @param filename the corresponding adjacency list
@@ -399,6 +798,33 @@ public class Graph<K,V>{
         }
     }
 
+    /**
+     * Construct a graph from the specified text file, decomposing large files
+     * into line-aligned chunks on several threads. The graph is the same as the
+     * one built by read, except that lines without any alphanumeric word are skipped
+     * @param filename the corresponding adjacency list
+     * @param threads number of threads decomposing the lines of the file
+     * @return a graph object based on the specified input file
+     * @param <V> type of the data stored in each node of the graph
+     */
+    public static <V> Graph<String,V> read(String filename, int threads){
+
+        try{
+            // Initialize a graph
+            Graph<String,V> result = new Graph<>();
+
+            // Add nodes and edge in the nodeList of each line, in file order
+            ChunkedTokenizer.tokenize(filename, threads, ChunkedTokenizer.CHUNK_SIZE,
+                    nodeName -> result.addEdges(nodeName[0],nodeName));
+
+            return result;
+        }
+        // Throw an error if the input file is inappropriate
+        catch(IOException e){
+            throw new RuntimeException();
+        }
+    }
+
     /**
      * Retrieve the adjacency list of the graph
      * @return the adjacency list of the graph
@@ -431,18 +857,10 @@ public class Graph<K,V>{
     protected int findNode(K name){
 
         // Store the index of the node
-        int i;
-
-        // Trace through the adjacency list
-        for(i = 0; i < getAdj().size(); i++){
-            // Return the index where the node is found
-            if(getAdj().get(i).get(0).getKey().equals(name)){
-                return i;
-            }
-        }
+        Integer i = index.get(name);
 
         // Return -1 if node does not exist
-        return -1;
+        return i == null ? -1 : i;
     }
 
     /**
@@ -482,6 +900,138 @@ public class Graph<K,V>{
         return data;
     }
 
+    /**
+     * Take scratch space from the pool, creating it if the pool is empty
+     * @return scratch space that no other search uses
+     */
+    private Scratch borrow(){
+        Scratch scratch = scratches.poll();
+        return scratch == null ? new Scratch() : scratch;
+    }
+
+    /**
+     * Breadth-first search from node from to the nearest target. A node is checked
+     * when it is first reached, so the search stops without expanding its level
+     * @param from the source node
+     * @param targets the positions of the target nodes, null to use the predicate
+     * @param target the predicate the value of a target node matches, used if the bitset is null
+     * @param path the buffer receiving the path to the nearest target
+     * @param limit the deadline, budget and cancellation of the search
+     * @return FOUND if a target is reached, NOT_FOUND if there is none or the source
+     * node does not exist, or the reason the search stopped early
+     */
+    private SearchStatus nearest(K from, BitSet targets, Predicate<V> target, PathBuffer path, SearchLimit limit){
+
+        path.clear();
+
+        // Check if the source node exists in the graph
+        int source = findNode(from);
+        if(source < 0){
+            return SearchStatus.NOT_FOUND;
+        }
+
+        // Each search takes scratch space no other search uses
+        Scratch scratch = borrow();
+        try{
+            return nearest(source, targets, target, path, limit, scratch);
+        }
+        finally{
+            scratches.add(scratch);
+        }
+    }
+
+    /**
+     * Breadth-first search from an existing node to the nearest target
+     * @param source position of the source node
+     * @param targets the positions of the target nodes, null to use the predicate
+     * @param target the predicate the value of a target node matches, used if the bitset is null
+     * @param path the empty buffer receiving the path to the nearest target
+     * @param limit the deadline, budget and cancellation of the search
+     * @param scratch the scratch space of the search
+     * @return FOUND if a target is reached, NOT_FOUND if there is none, or the reason the search stopped early
+     */
+    private SearchStatus nearest(int source, BitSet targets, Predicate<V> target, PathBuffer path,
+            SearchLimit limit, Scratch scratch){
+
+        int mark = scratch.nextStamp(getNumNodes());
+        int[] visited = scratch.visited;
+        int[] queue = scratch.queue;
+        int[] parent = scratch.parent;
+
+        // Indicate the source node has been visited and add it to the queue
+        visited[source] = mark;
+        parent[source] = -1;
+        if(isTarget(source, targets, target)){
+            tracePath(source, parent, path);
+            return SearchStatus.FOUND;
+        }
+        queue[0] = source;
+        int head = 0;
+        int tail = 1;
+
+        // Trace through the graph until the queue is empty
+        while(head < tail){
+            int current = queue[head++];
+
+            // Stop with the path to the current node once the limit is reached
+            SearchStatus stop = limit.check(head);
+            if(stop != null){
+                tracePath(current, parent, path);
+                return stop;
+            }
+
+            // Add unvisited adjacent nodes to the queue, returning the path to the first target
+            ArrayList<Node> list = getAdj().get(current);
+            for(int k = 1; k < list.size(); k++){
+                int node = findNode(list.get(k).getKey());
+                if(visited[node] != mark){
+                    visited[node] = mark;
+                    parent[node] = current;
+                    if(isTarget(node, targets, target)){
+                        tracePath(node, parent, path);
+                        return SearchStatus.FOUND;
+                    }
+                    queue[tail++] = node;
+                }
+            }
+        }
+
+        // No target is reached
+        return SearchStatus.NOT_FOUND;
+    }
+
+    /**
+     * Check if a node is a target of the nearest search
+     * @param position position of the node in the adjacency list
+     * @param targets the positions of the target nodes, null to use the predicate
+     * @param target the predicate the value of a target node matches
+     * @return true if the node is a target
+     */
+    private boolean isTarget(int position, BitSet targets, Predicate<V> target){
+        return targets != null ? targets.get(position) : target.test(getValue(position));
+    }
+
+    /**
+     * Follow the parents from the specified node back to the source of a nearest search
+     * @param to the last node of the path
+     * @param parent the node each node was reached from, -1 for the source
+     * @param path the buffer receiving the path from the source to the node
+     */
+    private void tracePath(int to, int[] parent, PathBuffer path){
+
+        // Count the nodes on the path
+        int length = 0;
+        for(int node = to; node >= 0; node = parent[node]){
+            length++;
+        }
+
+        // Fill the path from its end
+        path.setLength(length);
+        for(int node = to; node >= 0; node = parent[node]){
+            path.set(--length, node);
+        }
+    }
+
     /**
      * Helper method for DFS
      * @param result list representing the path between two nodes
@@ -570,28 +1120,32 @@ public class Graph<K,V>{
      */
     private static void addAlphaNumeric(ArrayList<String> list,String word){
 
-        // Store the result normalized word
-        StringBuilder result = new StringBuilder();
+        // Start of the current alphanumeric word, -1 outside a word
+        int start = -1;
 
         // Trace through each character of the word
         for(int i = 0; i < word.length(); i++){
             // Current character of the word
             char c = word.charAt(i);
 
-            // Only add alphabetic or numeric character
+            // Only keep alphabetic or numeric character
             if(Character.isLetterOrDigit(c)){
-                result.append(c);
+                if(start < 0){
+                    start = i;
+                }
             }
-
-            // When approach the end of the line or a space, add the alphaNumeric word
+            // When approach a non-alphanumeric character, add the alphaNumeric word
             // to the list
-            if(i + 1 == word.length() || !Character.isLetterOrDigit(c)){
-                if(result.length() != 0){
-                    list.add(result.toString());
-                    result = new StringBuilder();
-                }
+            else if(start >= 0){
+                list.add(word.substring(start,i));
+                start = -1;
             }
         }
+
+        // Add the alphaNumeric word ending the sequence
+        if(start >= 0){
+            list.add(word.substring(start));
+        }
     }
 
 }
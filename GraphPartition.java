@@ -0,0 +1,324 @@
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Class splitting a word graph into shards that never share an edge, so each
+ * shard is served by its own process and a ladder is always found within one
+ * shard. The nodes are grouped by connected component, or by word length when
+ * only words of the same length are linked. The groups are ordered by their
+ * shortest word and cut into runs of about equal nodes and edges, one run per
+ * shard, so words of close lengths share a few shards and a session querying
+ * short words only needs those
+ * @author Vo Linh Chi Dao
+ */
+public class GraphPartition{
+
+    /**
+     * The graph being split
+     */
+    private final CompressedGraph graph;
+
+    /**
+     * Shard of each node, -1 if the node id is not used
+     */
+    private final int[] shards;
+
+    /**
+     * Number of shards
+     */
+    private final int numShards;
+
+    /**
+     * Number of nodes in each shard
+     */
+    private final int[] sizes;
+
+    /**
+     * Constructor packs the groups of nodes into the shards
+     * @param graph the graph being split
+     * @param groups group of each node, -1 if the node id is not used
+     * @param numGroups number of groups
+     * @param numShards number of shards
+     */
+    private GraphPartition(CompressedGraph graph, int[] groups, int numGroups, int numShards){
+        this.graph = graph;
+        this.shards = new int[graph.getNumNodes()];
+        this.numShards = numShards;
+        this.sizes = new int[numShards];
+
+        // Weigh each group by the nodes and edges its shard will hold,
+        // and find the length of its shortest word
+        long[] loads = new long[numGroups];
+        int[] shortest = new int[numGroups];
+        Arrays.fill(shortest, Integer.MAX_VALUE);
+        long remaining = 0;
+        for(int node = 0; node < groups.length; node++){
+            if(groups[node] >= 0){
+                loads[groups[node]] += 1 + graph.degree(node);
+                remaining += 1 + graph.degree(node);
+                shortest[groups[node]] = Math.min(shortest[groups[node]], graph.getWords().length(node));
+            }
+        }
+
+        // Order the groups by their shortest word, keeping the order of their first node
+        Integer[] order = new Integer[numGroups];
+        for(int i = 0; i < numGroups; i++){
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(shortest[a], shortest[b]));
+
+        // Fill each shard until it holds its share of what is left, so a group
+        // heavier than a share takes a shard and the others share the rest
+        int[] shardOfGroup = new int[numGroups];
+        int shard = 0;
+        long load = 0;
+        for(int group : order){
+            if(load > 0 && shard < numShards - 1 && load + loads[group] / 2 > remaining / (numShards - shard)){
+                remaining -= load;
+                shard++;
+                load = 0;
+            }
+            shardOfGroup[group] = shard;
+            load += loads[group];
+        }
+
+        // Every node follows its group
+        for(int node = 0; node < groups.length; node++){
+            shards[node] = groups[node] < 0 ? -1 : shardOfGroup[groups[node]];
+            if(shards[node] >= 0){
+                sizes[shards[node]]++;
+            }
+        }
+    }
+
+    /**
+     * Split a graph by connected component, which keeps every ladder within a shard
+     * whatever the edges of the graph
+     * @param graph the graph being split
+     * @param numShards number of shards
+     * @return the partition of the graph
+     * @throws IllegalArgumentException if the number of shards is not positive
+     */
+    public static GraphPartition byComponent(CompressedGraph graph, int numShards){
+
+        checkShards(numShards);
+
+        // Label the component of each used node with a BFS
+        int[] groups = new int[graph.getNumNodes()];
+        Arrays.fill(groups, -1);
+        int[] queue = new int[graph.getNumNodes()];
+        NeighborIterator it = graph.neighborIterator();
+        int numGroups = 0;
+        for(int start = 0; start < groups.length; start++){
+            if(groups[start] >= 0 || graph.getValue(start) == null){
+                continue;
+            }
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            groups[start] = numGroups;
+            while(head < tail){
+                it.reset(queue[head++]);
+                while(it.hasNext()){
+                    int neighbor = it.nextNeighbor();
+                    if(groups[neighbor] < 0){
+                        groups[neighbor] = numGroups;
+                        queue[tail++] = neighbor;
+                    }
+                }
+            }
+            numGroups++;
+        }
+        return new GraphPartition(graph, groups, numGroups, numShards);
+    }
+
+    /**
+     * Split a graph by word length. A ladder only stays within a shard if no edge
+     * links words of different lengths, which is checked first
+     * @param graph the graph being split
+     * @param numShards number of shards
+     * @return the partition of the graph
+     * @throws IllegalArgumentException if the number of shards is not positive, or
+     * if an edge links words of different lengths
+     */
+    public static GraphPartition byLength(CompressedGraph graph, int numShards){
+
+        checkShards(numShards);
+
+        // The group of a word is its length, checking the neighbors have the same
+        WordArena words = graph.getWords();
+        int[] groups = new int[graph.getNumNodes()];
+        int numGroups = 0;
+        NeighborIterator it = graph.neighborIterator();
+        for(int node = 0; node < groups.length; node++){
+            groups[node] = graph.getValue(node) == null ? -1 : words.length(node);
+            numGroups = Math.max(numGroups, groups[node] + 1);
+            it.reset(node);
+            while(it.hasNext()){
+                if(words.length(it.nextNeighbor()) != words.length(node)){
+                    throw new IllegalArgumentException("Words of different lengths are linked, split by component instead");
+                }
+            }
+        }
+        return new GraphPartition(graph, groups, numGroups, numShards);
+    }
+
+    /**
+     * Retrieve the number of shards
+     * @return number of shards
+     */
+    public int getNumShards(){
+        return numShards;
+    }
+
+    /**
+     * Retrieve the shard of a node
+     * @param node id of the node
+     * @return the shard holding the node, -1 if the node id is not used
+     */
+    public int shardOf(int node){
+        return shards[node];
+    }
+
+    /**
+     * Retrieve the number of nodes in a shard
+     * @param shard the shard
+     * @return number of nodes held by the shard
+     */
+    public int shardSize(int shard){
+        return sizes[shard];
+    }
+
+    /**
+     * Write each shard as a "word graph" file named after the prefix and the
+     * number of the shard. The nodes of a shard are numbered from 0 in the order
+     * of their ids in the graph, so each file is read on its own
+     * @param prefix path of the files, followed by "." and the number of the shard
+     * @return the names of the files written, by shard
+     */
+    public String[] write(String prefix){
+
+        int[] local = localIds();
+        String[] filenames = new String[numShards];
+        for(int shard = 0; shard < numShards; shard++){
+            filenames[shard] = prefix + "." + shard;
+            try(BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filenames[shard]), StandardCharsets.UTF_8))){
+                writeShard(shard, local, writer);
+            }
+            // Throw an error if the output file cannot be written
+            catch(IOException e){
+                throw new RuntimeException();
+            }
+        }
+        return filenames;
+    }
+
+    /**
+     * Write every shard into one file, one after another, and an index next to it
+     * named after the file followed by ".index", which LazyLadderEngine reads to
+     * load a shard only when a query needs it. The index holds the number of
+     * shards, then the byte offset, byte length and number of words of each
+     * shard on a line, then the word and shard of every node on a line
+     * @param filename the file receiving the shards
+     */
+    public void writeIndexed(String filename){
+
+        int[] local = localIds();
+        long[] offsets = new long[numShards + 1];
+
+        // Write the shards back to back, recording where each one starts
+        try(FileOutputStream out = new FileOutputStream(filename);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))){
+            for(int shard = 0; shard < numShards; shard++){
+                writer.flush();
+                offsets[shard] = out.getChannel().position();
+                writeShard(shard, local, writer);
+            }
+            writer.flush();
+            offsets[numShards] = out.getChannel().position();
+        }
+        // Throw an error if the output file cannot be written
+        catch(IOException e){
+            throw new RuntimeException();
+        }
+
+        // Write the index of the shards and of the words
+        try(BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filename + ".index"), StandardCharsets.UTF_8))){
+            writer.write(Integer.toString(numShards));
+            writer.newLine();
+            for(int shard = 0; shard < numShards; shard++){
+                writer.write(offsets[shard] + " " + (offsets[shard + 1] - offsets[shard]) + " " + sizes[shard]);
+                writer.newLine();
+            }
+            for(int node = 0; node < shards.length; node++){
+                if(shards[node] >= 0){
+                    writer.write(graph.getValue(node));
+                    writer.write(' ');
+                    writer.write(Integer.toString(shards[node]));
+                    writer.newLine();
+                }
+            }
+        }
+        // Throw an error if the index cannot be written
+        catch(IOException e){
+            throw new RuntimeException();
+        }
+    }
+
+    /**
+     * Number the nodes of each shard from 0 in the order of their ids in the graph
+     * @return the id of each node within its shard
+     */
+    private int[] localIds(){
+        int[] local = new int[shards.length];
+        int[] counts = new int[numShards];
+        for(int node = 0; node < shards.length; node++){
+            if(shards[node] >= 0){
+                local[node] = counts[shards[node]]++;
+            }
+        }
+        return local;
+    }
+
+    /**
+     * Write the "word graph" lines of a shard: the id of each node, its word and the ids of its neighbors
+     * @param shard the shard written
+     * @param local the id of each node within its shard
+     * @param writer the writer receiving the lines
+     * @throws IOException if the writer fails
+     */
+    private void writeShard(int shard, int[] local, Writer writer) throws IOException{
+        NeighborIterator it = graph.neighborIterator();
+        for(int node = 0; node < shards.length; node++){
+            if(shards[node] != shard){
+                continue;
+            }
+            writer.write(Integer.toString(local[node]));
+            writer.write(' ');
+            writer.write(graph.getValue(node));
+            it.reset(node);
+            while(it.hasNext()){
+                writer.write(' ');
+                writer.write(Integer.toString(local[it.nextNeighbor()]));
+            }
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Check the number of shards requested
+     * @param numShards number of shards
+     * @throws IllegalArgumentException if the number of shards is not positive
+     */
+    private static void checkShards(int numShards){
+        if(numShards < 1){
+            throw new IllegalArgumentException("Number of shards must be positive: " + numShards);
+        }
+    }
+
+}
@@ -0,0 +1,169 @@
+import org.junit.Test;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import static org.junit.Assert.*;
+
+/**
+ * Testing class for GraphPartition and ShardRouter
+ * @author Vo Linh Chi Dao
+ */
+public class GraphPartitionTest{
+
+    String file1 = "src/text4.txt";
+    String file2 = "src/LargeWordGraph";
+
+    // Two components of words of length 3 and one of length 4
+    int[][] adj = {{1},{0,2},{1},{4},{3},{6},{5}};
+    String[] words = {"cat","cot","cog","dig","dog","bold","bald"};
+
+    /**
+     * Test that no edge crosses two shards
+     */
+    @Test
+    public void byComponent(){
+
+        CompressedGraph g1 = CompressedGraph.readWordGraph(file2);
+        GraphPartition p1 = GraphPartition.byComponent(g1, 3);
+        assertEquals(3,p1.getNumShards());
+
+        int total = 0;
+        for(int shard = 0; shard < 3; shard++){
+            System.out.println("Shard " + shard + ": " + p1.shardSize(shard) + " words");
+            assertTrue(p1.shardSize(shard) > 0);
+            total += p1.shardSize(shard);
+        }
+
+        NeighborIterator it = g1.neighborIterator();
+        int used = 0;
+        for(int node = 0; node < g1.getNumNodes(); node++){
+            if(g1.getValue(node) != null){
+                used++;
+            }
+            it.reset(node);
+            while(it.hasNext()){
+                assertEquals(p1.shardOf(node),p1.shardOf(it.nextNeighbor()));
+            }
+        }
+        assertEquals(used,total);
+
+        // The number of shards must be positive
+        try{
+            GraphPartition.byComponent(g1, 0);
+            fail();
+        }
+        catch(IllegalArgumentException e){
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Test byLength method
+     */
+    @Test
+    public void byLength(){
+
+        CompressedGraph g1 = CompressedGraph.fromAdjacency(adj, words);
+        GraphPartition p1 = GraphPartition.byLength(g1, 2);
+        assertEquals(p1.shardOf(0),p1.shardOf(3));
+        assertTrue(p1.shardOf(0) != p1.shardOf(5));
+        assertEquals(5,p1.shardSize(p1.shardOf(0)));
+        assertEquals(2,p1.shardSize(p1.shardOf(5)));
+
+        // Words of length 3 are only linked to each other in the small file
+        GraphPartition p2 = GraphPartition.byLength(CompressedGraph.readWordGraph(file1), 2);
+        System.out.println("Small file shards: " + p2.shardSize(0) + " and " + p2.shardSize(1) + " words");
+        assertEquals(0,Math.min(p2.shardSize(0), p2.shardSize(1)));
+
+        // Insertions and deletions link words of different lengths
+        try{
+            GraphPartition.byLength(CompressedGraph.readWordGraph(file2), 2);
+            fail();
+        }
+        catch(IllegalArgumentException e){
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Test queries routed by a coordinator to shards served on local sockets
+     */
+    @Test
+    public void route() throws IOException{
+
+        File directory = Files.createTempDirectory("shards").toFile();
+        String[] filenames = GraphPartition.byComponent(CompressedGraph.readWordGraph(file2), 3)
+                .write(new File(directory, "LargeWordGraph").getPath());
+        LadderEngine whole = LadderEngine.load(file2);
+
+        LadderServer[] shards = new LadderServer[filenames.length];
+        int[] ports = new int[filenames.length];
+        try{
+            for(int shard = 0; shard < filenames.length; shard++){
+                shards[shard] = new LadderServer(LadderEngine.load(filenames[shard]), 0);
+                shards[shard].start();
+                ports[shard] = shards[shard].getPort();
+            }
+
+            try(ShardRouter router = ShardRouter.readShards(filenames, ports);
+                LadderServer coordinator = new LadderServer(router, 0)){
+                coordinator.start();
+
+                try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), coordinator.getPort())){
+                    PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+                    BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+
+                    // Ladders are as short as on the whole graph
+                    String[] queries = {"cold warm","head tail BFS","cold warm DIJKSTRA","cat dog"};
+                    for(String query : queries){
+                        out.println(query);
+                        String ladder = in.readLine();
+                        System.out.println(query + ": " + ladder);
+                        assertEquals(whole.answer(query).split(" ").length,ladder.split(" ").length);
+                    }
+
+                    // Unknown words and malformed queries are answered by a shard
+                    out.println("cold zzzzzz");
+                    assertEquals("NONE",in.readLine());
+                    out.println("cold warm AStar");
+                    assertEquals("ERROR Unknown search method: AStar",in.readLine());
+                }
+            }
+        }
+        finally{
+            for(LadderServer shard : shards){
+                if(shard != null){
+                    shard.close();
+                }
+            }
+            for(String filename : filenames){
+                new File(filename).delete();
+            }
+            directory.delete();
+        }
+    }
+
+    /**
+     * Test that a shard which never answers is reported as unavailable
+     * @throws IOException if the local socket cannot be bound
+     */
+    @Test
+    public void hungShard() throws IOException{
+
+        // A shard accepting connections without reading them
+        try(ServerSocket hung = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())){
+            ShardRouter router = new ShardRouter(new WordStore[]{WordArena.fromWords(words)}, new int[]{hung.getLocalPort()}, 200);
+            StringBuilder answer = new StringBuilder();
+            router.answer("cat dog", new PathBuffer(), answer, SearchLimit.NONE);
+            assertEquals("ERROR shard 0 unavailable",answer.toString());
+            router.close();
+        }
+    }
+
+}
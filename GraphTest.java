@@ -1,4 +1,6 @@
 import org.junit.Test;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import static org.junit.Assert.*;
 
@@ -213,6 +215,56 @@ public class GraphTest{
         }
     }
 
+    /**
+     * Test read method with several threads
+     */
+    @Test
+    public void readThreads(){
+
+        String[] files = {"src/text1.txt","src/text2.txt","src/text3.txt","src/text4.txt"};
+
+        // Both readers build the same nodes and edges, in the same order
+        for(String file : files){
+            Graph<String,Integer> g1 = Graph.read(file);
+            Graph<String,Integer> g2 = Graph.read(file,4);
+            assertEquals(g1.getNumNodes(),g2.getNumNodes());
+            for(int i = 0; i < g1.getNumNodes(); i++){
+                assertEquals(g1.getAdj().get(i).size(),g2.getAdj().get(i).size());
+                for(int j = 0; j < g1.getAdj().get(i).size(); j++){
+                    assertEquals(g1.getAdj().get(i).get(j).getKey(),g2.getAdj().get(i).get(j).getKey());
+                }
+            }
+        }
+
+        // Add non-existing file to the graph
+        try{
+            Graph.read("text",2);
+            fail();
+        }
+        catch(RuntimeException e){
+            System.out.println("This is an error file");
+        }
+    }
+
+    /**
+     * Test the decomposition of lines split across chunks
+     */
+    @Test
+    public void tokenize() throws IOException{
+
+        // Words of each line read one chunk of one line at a time
+        ArrayList<String> expected = new ArrayList<>();
+        ChunkedTokenizer.tokenize("src/text3.txt", 1, 1 << 20, line -> expected.add(String.join(" ", line)));
+
+        // Chunks of every small size split lines and words at every position
+        for(int size = 1; size < 40; size++){
+            ArrayList<String> lines = new ArrayList<>();
+            ChunkedTokenizer.tokenize("src/text3.txt", 3, size, line -> lines.add(String.join(" ", line)));
+            assertEquals(expected,lines);
+        }
+        System.out.println("Lines of text 3: " + expected);
+    }
+
     /**
      * Test DFS method
      */
@@ -279,4 +331,144 @@ public class GraphTest{
         System.out.println("Path between 11 and 47: " + Arrays.toString(g2.BFS(11, 47)));
     }
 
-}
\ No newline at end of file
+    /**
+     * Test BFS and DFS writing into a reusable PathBuffer
+     */
+    @Test
+    public void pathBuffer(){
+
+        Graph<Integer,String> g2 = WordLadders.readWordGraph("src/text4.txt");
+        PathBuffer path = new PathBuffer(2);
+        StringBuilder builder = new StringBuilder();
+
+        // The buffer holds the same nodes as the arrays, for every pair of words
+        for(int from = 0; from < 908; from += 101){
+            for(int to = 0; to < 908; to += 67){
+                Object[] bfs = g2.BFS(from, to);
+                assertEquals(bfs.length > 0,g2.BFS(from, to, path));
+                assertEquals(bfs.length,path.length());
+                for(int i = 0; i < path.length(); i++){
+                    assertEquals(bfs[i],g2.getKey(path.get(i)));
+                }
+                Object[] dfs = g2.DFS(from, to);
+                assertEquals(dfs.length > 0,g2.DFS(from, to, path));
+                assertEquals(dfs.length,path.length());
+                for(int i = 0; i < path.length(); i++){
+                    assertEquals(dfs[i],g2.getKey(path.get(i)));
+                }
+            }
+        }
+
+        // Values are read without building a list
+        assertTrue(g2.DFS(0, 0, path));
+        g2.appendValues(path, " ", builder);
+        assertEquals("aah",builder.toString());
+
+        // Non-existing nodes leave the buffer empty
+        assertFalse(g2.BFS(0, 5000, path));
+        assertTrue(path.isEmpty());
+    }
+
+    /**
+     * Test nearest method with a set of targets and a predicate
+     */
+    @Test
+    public void nearest(){
+
+        Graph<Integer,String> g2 = WordLadders.readWordGraph("src/text4.txt");
+        CompressedGraph g3 = CompressedGraph.readWordGraph("src/text4.txt");
+        IntSearch search = new IntSearch(g3);
+        PathBuffer path = new PathBuffer();
+
+        // The ladder reaches the closest target, as one BFS per target would
+        ArrayList<Integer> targets = new ArrayList<>(Arrays.asList(5, 77, 300, 512, 907));
+        for(int from = 0; from < 908; from += 13){
+            int shortest = 0;
+            for(int to : targets){
+                int length = search.BFS(from, to).length;
+                if(length > 0 && (shortest == 0 || length < shortest)){
+                    shortest = length;
+                }
+            }
+            assertEquals(shortest > 0,g2.nearest(from, targets, path));
+            assertEquals(shortest,path.length());
+            if(shortest > 0){
+                assertEquals(from,(int) g2.getKey(path.get(0)));
+                assertTrue(targets.contains(g2.getKey(path.get(path.length() - 1))));
+                for(int i = 1; i < path.length(); i++){
+                    assertEquals(2,search.BFS(g2.getKey(path.get(i - 1)), g2.getKey(path.get(i))).length);
+                }
+            }
+        }
+
+        // A source in the set is its own nearest target
+        assertTrue(g2.nearest(77, targets, path));
+        assertEquals(1,path.length());
+
+        // Targets chosen by their word
+        assertEquals(SearchStatus.FOUND,g2.nearest(0, word -> word.endsWith("ed"), path, SearchLimit.NONE));
+        StringBuilder builder = new StringBuilder();
+        g2.appendValues(path, " ", builder);
+        System.out.println("Nearest word ending with ed: " + builder);
+        assertTrue(builder.toString().endsWith("ed"));
+        assertEquals(SearchStatus.NOT_FOUND,g2.nearest(0, word -> word.isEmpty(), path, SearchLimit.NONE));
+        assertTrue(path.isEmpty());
+
+        // Non-existing nodes are skipped
+        assertFalse(g2.nearest(5000, targets, path));
+        assertTrue(g2.positions(Arrays.asList(5000, -1)).isEmpty());
+        // The search stops at the second node expanded, a neighbor of the source
+        assertEquals(SearchStatus.BUDGET_EXCEEDED,g2.nearest(0, g2.positions(Arrays.asList(907)), path, new SearchLimit(0, 1)));
+        assertEquals(2,path.length());
+    }
+
+    /**
+     * Test that threads searching the same graph get the paths of a single thread
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void concurrentSearch() throws InterruptedException{
+
+        Graph<Integer,String> g1 = WordLadders.readWordGraph("src/text4.txt");
+        ArrayList<Integer> targets = new ArrayList<>(Arrays.asList(5, 77, 300, 512, 907));
+        PathBuffer path = new PathBuffer();
+        int[][] bfs = new int[908][];
+        int[][] dfs = new int[908][];
+        int[][] nearest = new int[908][];
+        for(int from = 0; from < 908; from++){
+            g1.BFS(from, 907 - from, path);
+            bfs[from] = path.toArray();
+            g1.DFS(from, 907 - from, path);
+            dfs[from] = path.toArray();
+            g1.nearest(from, targets, path);
+            nearest[from] = path.toArray();
+        }
+
+        // Each thread runs every search and records the paths that differ
+        int[] mismatches = new int[4];
+        Thread[] threads = new Thread[mismatches.length];
+        for(int t = 0; t < threads.length; t++){
+            int id = t;
+            threads[t] = new Thread(() -> {
+                PathBuffer buffer = new PathBuffer();
+                for(int from = 0; from < 908; from++){
+                    g1.BFS(from, 907 - from, buffer);
+                    boolean same = Arrays.equals(bfs[from], buffer.toArray());
+                    g1.DFS(from, 907 - from, buffer);
+                    same &= Arrays.equals(dfs[from], buffer.toArray());
+                    g1.nearest(from, targets, buffer);
+                    same &= Arrays.equals(nearest[from], buffer.toArray());
+                    if(!same){
+                        mismatches[id]++;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for(Thread thread : threads){
+            thread.join();
+        }
+        assertArrayEquals(new int[4],mismatches);
+    }
+
+}
@@ -0,0 +1,476 @@
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Class exporting graphs as text through a channel. Numbers, words and keys
+ * are encoded as UTF-8 straight into one reusable byte buffer, which is
+ * handed to the channel whenever it fills, so writing a graph builds no
+ * String per line, per word or per id. Graphs are written either in the
+ * "word graph" format read by readWordGraph, one "id word neighbors" line per
+ * node, or in the DOT format of Graphviz. A writer keeps its buffer between
+ * calls, so an instance must not be shared between threads
+ * @author Vo Linh Chi Dao
+ */
+public class GraphWriter implements Closeable, Flushable{
+
+    /**
+     * Default size of the byte buffer
+     */
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The channel receiving the bytes
+     */
+    private final WritableByteChannel channel;
+
+    /**
+     * Bytes waiting to be written to the channel
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Digits of the number being written, least significant first
+     */
+    private final byte[] digits;
+
+    /**
+     * High surrogate waiting for the low surrogate completing its code point, 0 if none
+     */
+    private char pending;
+
+    /**
+     * Constructor initializes a writer on the specified channel
+     * @param channel the channel receiving the text
+     */
+    public GraphWriter(WritableByteChannel channel){
+        this(channel, BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor initializes a writer on the specified channel with a buffer of the specified size
+     * @param channel the channel receiving the text
+     * @param bufferSize number of bytes gathered before each write to the channel
+     */
+    public GraphWriter(WritableByteChannel channel, int bufferSize){
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(Math.max(16, bufferSize));
+        this.digits = new byte[10];
+        this.pending = 0;
+    }
+
+    /**
+     * Constructor initializes a writer on the specified stream
+     * @param out the stream receiving the text
+     */
+    public GraphWriter(OutputStream out){
+        this(Channels.newChannel(out));
+    }
+
+    /**
+     * Open a writer on the specified file, replacing its content
+     * @param filename the file written
+     * @return a writer of the file, which must be closed
+     */
+    public static GraphWriter open(String filename){
+        try{
+            return new GraphWriter(FileChannel.open(Paths.get(filename),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+        }
+        // Throw an error if the output file cannot be opened
+        catch(IOException e){
+            throw new RuntimeException();
+        }
+    }
+
+    /**
+     * Write a graph to the specified file in the "word graph" format
+     * @param graph the graph written
+     * @param words the word of each node
+     * @param filename the file written
+     */
+    public static void writeWordGraph(IntAdjacency graph, WordStore words, String filename){
+        try(GraphWriter writer = open(filename)){
+            writer.writeWordGraph(graph, words);
+        }
+        // Throw an error if the output file cannot be written
+        catch(IOException e){
+            throw new RuntimeException();
+        }
+    }
+
+    /**
+     * Write a graph to the specified file in the "word graph" format, with the
+     * ids of the file it was read from
+     * @param graph the graph written
+     * @param filename the file written
+     */
+    public static void writeWordGraph(CompressedGraph graph, String filename){
+        try(GraphWriter writer = open(filename)){
+            writer.writeWordGraph(graph);
+        }
+        // Throw an error if the output file cannot be written
+        catch(IOException e){
+            throw new RuntimeException();
+        }
+    }
+
+    /**
+     * Write a graph to the specified file in the DOT format
+     * @param graph the graph written
+     * @param words the word of each node
+     * @param filename the file written
+     */
+    public static void writeDot(IntAdjacency graph, WordStore words, String filename){
+        try(GraphWriter writer = open(filename)){
+            writer.writeDot(graph, words);
+        }
+        // Throw an error if the output file cannot be written
+        catch(IOException e){
+            throw new RuntimeException();
+        }
+    }
+
+    /**
+     * Write a graph in the "word graph" format: one line per used id holding
+     * the id, its word and the ids of its neighbors. Ids without a word are skipped
+     * @param graph the graph written
+     * @param words the word of each node
+     * @throws IOException if the channel cannot be written
+     */
+    public void writeWordGraph(IntAdjacency graph, WordStore words) throws IOException{
+
+        NeighborIterator neighbors = graph.neighborIterator();
+        for(int node = 0; node < graph.getNumNodes(); node++){
+            if(words.length(node) == 0){
+                continue;
+            }
+            // Write the node, its word and its edges
+            writeInt(node).writeChar(' ').writeWord(words, node);
+            neighbors.reset(node);
+            while(neighbors.hasNext()){
+                writeChar(' ').writeInt(neighbors.nextNeighbor());
+            }
+            writeChar('\n');
+        }
+    }
+
+    /**
+     * Write a graph in the "word graph" format with the ids of the file it was
+     * read from, so a reordered graph is written back with its original numbering
+     * and its neighbors in increasing order
+     * @param graph the graph written
+     * @throws IOException if the channel cannot be written
+     */
+    public void writeWordGraph(CompressedGraph graph) throws IOException{
+
+        WordArena words = graph.getWords();
+        NeighborIterator neighbors = graph.neighborIterator();
+        int[] scratch = new int[16];
+
+        // Write the lines in the order of the file ids
+        for(int external = 0; external < graph.getNumNodes(); external++){
+            int node = graph.toInternal(external);
+            if(words.length(node) == 0){
+                continue;
+            }
+            writeInt(external).writeChar(' ').writeWord(words, node);
+
+            // Sort the file ids of the neighbors so the line matches the graph before reordering
+            int degree = 0;
+            neighbors.reset(node);
+            while(neighbors.hasNext()){
+                if(degree == scratch.length){
+                    scratch = Arrays.copyOf(scratch, scratch.length * 2);
+                }
+                scratch[degree++] = graph.toExternal(neighbors.nextNeighbor());
+            }
+            Arrays.sort(scratch, 0, degree);
+            for(int i = 0; i < degree; i++){
+                writeChar(' ').writeInt(scratch[i]);
+            }
+            writeChar('\n');
+        }
+    }
+
+    /**
+     * Write a graph in the DOT format: each node labelled with its word, then
+     * each undirected edge once, from its smaller id. Ids without a word are skipped
+     * @param graph the graph written
+     * @param words the word of each node
+     * @throws IOException if the channel cannot be written
+     */
+    public void writeDot(IntAdjacency graph, WordStore words) throws IOException{
+
+        writeText("graph words {\n");
+
+        // Label each node with its word
+        for(int node = 0; node < graph.getNumNodes(); node++){
+            if(words.length(node) == 0){
+                continue;
+            }
+            writeText("  ").writeInt(node).writeText(" [label=\"");
+            for(int i = 0; i < words.length(node); i++){
+                writeEscaped(words.charAt(node, i));
+            }
+            writeText("\"];\n");
+        }
+
+        // Write each edge from the node with the smaller id
+        NeighborIterator neighbors = graph.neighborIterator();
+        for(int node = 0; node < graph.getNumNodes(); node++){
+            neighbors.reset(node);
+            while(neighbors.hasNext()){
+                int neighbor = neighbors.nextNeighbor();
+                if(neighbor > node){
+                    writeText("  ").writeInt(node).writeText(" -- ").writeInt(neighbor).writeText(";\n");
+                }
+            }
+        }
+        writeText("}\n");
+    }
+
+    /**
+     * Write a graph in the "word graph" format: one line per node holding its
+     * name, its value and the names of its neighbors. A Graph read by
+     * WordLadders.readWordGraph is written back with the ids and words of its file
+     * @param graph the graph written
+     * @param <K> reference type to the node in the graph
+     * @param <V> type of data stored in the node
+     * @throws IOException if the channel cannot be written
+     */
+    public <K,V> void writeWordGraph(Graph<K,V> graph) throws IOException{
+        for(ArrayList<Graph<K,V>.Node> nodes : graph.getAdj()){
+            writeKey(nodes.get(0).getKey()).writeChar(' ').writeKey(nodes.get(0).getValue());
+            for(int i = 1; i < nodes.size(); i++){
+                writeChar(' ').writeKey(nodes.get(i).getKey());
+            }
+            writeChar('\n');
+        }
+    }
+
+    /**
+     * Write a graph in the DOT format: each node labelled with its value, then
+     * each undirected edge once. Nodes are named by their position in the adjacency list
+     * @param graph the graph written
+     * @param <K> reference type to the node in the graph
+     * @param <V> type of data stored in the node
+     * @throws IOException if the channel cannot be written
+     */
+    public <K,V> void writeDot(Graph<K,V> graph) throws IOException{
+
+        writeText("graph words {\n");
+        ArrayList<ArrayList<Graph<K,V>.Node>> adj = graph.getAdj();
+
+        // Label each node with its value
+        for(int position = 0; position < adj.size(); position++){
+            writeText("  ").writeInt(position).writeText(" [label=\"");
+            String value = String.valueOf(adj.get(position).get(0).getValue());
+            for(int i = 0; i < value.length(); i++){
+                writeEscaped(value.charAt(i));
+            }
+            writeText("\"];\n");
+        }
+
+        // Write each edge from the node with the smaller position
+        for(int position = 0; position < adj.size(); position++){
+            ArrayList<Graph<K,V>.Node> nodes = adj.get(position);
+            for(int i = 1; i < nodes.size(); i++){
+                int neighbor = graph.findNode(nodes.get(i).getKey());
+                if(neighbor > position){
+                    writeText("  ").writeInt(position).writeText(" -- ").writeInt(neighbor).writeText(";\n");
+                }
+            }
+        }
+        writeText("}\n");
+    }
+
+    /**
+     * Write an int in decimal without building a String
+     * @param value the number written
+     * @return this writer
+     * @throws IOException if the channel cannot be written
+     */
+    public GraphWriter writeInt(int value) throws IOException{
+
+        reserve(11);
+        long rest = value;
+        if(rest < 0){
+            buffer.put((byte) '-');
+            rest = -rest;
+        }
+
+        // Gather the digits from the least significant, then copy them in order
+        int count = 0;
+        do{
+            digits[count++] = (byte) ('0' + rest % 10);
+            rest /= 10;
+        } while(rest > 0);
+        while(count > 0){
+            buffer.put(digits[--count]);
+        }
+        return this;
+    }
+
+    /**
+     * Write a word of a store without building a String
+     * @param words the store holding the word
+     * @param id id of the word
+     * @return this writer
+     * @throws IOException if the channel cannot be written
+     */
+    public GraphWriter writeWord(WordStore words, int id) throws IOException{
+        for(int i = 0; i < words.length(id); i++){
+            writeChar(words.charAt(id, i));
+        }
+        return this;
+    }
+
+    /**
+     * Write text
+     * @param text the text written
+     * @return this writer
+     * @throws IOException if the channel cannot be written
+     */
+    public GraphWriter writeText(CharSequence text) throws IOException{
+        for(int i = 0; i < text.length(); i++){
+            writeChar(text.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Write a character encoded as UTF-8. A high surrogate is held until the
+     * low surrogate completing its code point is written
+     * @param c the character written
+     * @return this writer
+     * @throws IOException if the channel cannot be written
+     */
+    public GraphWriter writeChar(char c) throws IOException{
+
+        reserve(4);
+        if(c < 0x80 && pending == 0){
+            buffer.put((byte) c);
+            return this;
+        }
+
+        // Surrogate pairs are combined into their code point, lone surrogates become '?'
+        int code = c;
+        if(pending != 0){
+            char high = pending;
+            pending = 0;
+            if(!Character.isLowSurrogate(c)){
+                buffer.put((byte) '?');
+                return writeChar(c);
+            }
+            code = Character.toCodePoint(high, c);
+        }
+        else if(Character.isHighSurrogate(c)){
+            pending = c;
+            return this;
+        }
+        else if(Character.isSurrogate(c)){
+            code = '?';
+        }
+
+        if(code < 0x80){
+            buffer.put((byte) code);
+        }
+        else if(code < 0x800){
+            buffer.put((byte) (0xC0 | (code >> 6)));
+            buffer.put((byte) (0x80 | (code & 0x3F)));
+        }
+        else if(code < 0x10000){
+            buffer.put((byte) (0xE0 | (code >> 12)));
+            buffer.put((byte) (0x80 | ((code >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (code & 0x3F)));
+        }
+        else{
+            buffer.put((byte) (0xF0 | (code >> 18)));
+            buffer.put((byte) (0x80 | ((code >> 12) & 0x3F)));
+            buffer.put((byte) (0x80 | ((code >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (code & 0x3F)));
+        }
+        return this;
+    }
+
+    /**
+     * Write the buffered bytes to the channel
+     * @throws IOException if the channel cannot be written
+     */
+    @Override
+    public void flush() throws IOException{
+        buffer.flip();
+        while(buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Write the buffered bytes and close the channel
+     * @throws IOException if the channel cannot be written or closed
+     */
+    @Override
+    public void close() throws IOException{
+        try{
+            if(pending != 0){
+                pending = 0;
+                writeChar('?');
+            }
+            flush();
+        }
+        finally{
+            channel.close();
+        }
+    }
+
+    /**
+     * Write a key or value, without building a String if it is an Integer or a CharSequence
+     * @param key the key written
+     * @return this writer
+     * @throws IOException if the channel cannot be written
+     */
+    private GraphWriter writeKey(Object key) throws IOException{
+        if(key instanceof Integer){
+            return writeInt((Integer) key);
+        }
+        if(key instanceof CharSequence){
+            return writeText((CharSequence) key);
+        }
+        return writeText(String.valueOf(key));
+    }
+
+    /**
+     * Write a character inside a quoted DOT string, escaping quotes and backslashes
+     * @param c the character written
+     * @throws IOException if the channel cannot be written
+     */
+    private void writeEscaped(char c) throws IOException{
+        if(c == '"' || c == '\\'){
+            writeChar('\\');
+        }
+        writeChar(c);
+    }
+
+    /**
+     * Make room in the buffer for the specified number of bytes, writing it to the channel if needed
+     * @param bytes number of bytes about to be put
+     * @throws IOException if the channel cannot be written
+     */
+    private void reserve(int bytes) throws IOException{
+        if(buffer.remaining() < bytes){
+            flush();
+        }
+    }
+
+}
@@ -0,0 +1,188 @@
+import org.junit.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import static org.junit.Assert.*;
+
+/**
+ * Testing class for GraphWriter
+ * @author Vo Linh Chi Dao
+ */
+public class GraphWriterTest{
+
+    String file1 = "src/text4.txt";
+    String file2 = "src/LargeWordGraph";
+
+    String[] words = {"cat","cot","cog","dog"};
+    int[][] adj = {{1},{0,2},{1,3},{2}};
+
+    /**
+     * Test that a written graph is read back with the same words and edges
+     * @throws IOException if the temporary files cannot be used
+     */
+    @Test
+    public void roundTrip() throws IOException{
+
+        for(String file : new String[]{file1, file2}){
+            File first = File.createTempFile("graph", ".txt");
+            File second = File.createTempFile("graph", ".txt");
+            try{
+                CompressedGraph g1 = CompressedGraph.readWordGraph(file);
+                GraphWriter.writeWordGraph(g1, g1.getWords(), first.getPath());
+                CompressedGraph g2 = CompressedGraph.readWordGraph(first.getPath());
+                assertSameGraph(g1, g2);
+
+                // Writing the graph read back gives the same bytes, so exports can be diffed
+                GraphWriter.writeWordGraph(g2, g2.getWords(), second.getPath());
+                assertTrue(Arrays.equals(Files.readAllBytes(first.toPath()), Files.readAllBytes(second.toPath())));
+                System.out.println(file + " written in " + first.length() + " bytes");
+
+                // A reordered graph is written back with the ids of its file
+                CompressedGraph g3 = g1.reorder(NodeOrdering.BFS);
+                GraphWriter.writeWordGraph(g3, second.getPath());
+                assertTrue(Arrays.equals(Files.readAllBytes(first.toPath()), Files.readAllBytes(second.toPath())));
+            }
+            finally{
+                first.delete();
+                second.delete();
+            }
+        }
+    }
+
+    /**
+     * Test that a Graph is written in the "word graph" format and the printGraph format
+     * @throws IOException if the temporary file cannot be used
+     */
+    @Test
+    public void graph() throws IOException{
+
+        File file = File.createTempFile("graph", ".txt");
+        try{
+            Graph<Integer,String> g1 = WordLadders.readWordGraph(file1);
+            try(GraphWriter writer = GraphWriter.open(file.getPath())){
+                writer.writeWordGraph(g1);
+            }
+            assertSameGraph(CompressedGraph.readWordGraph(file1), CompressedGraph.readWordGraph(file.getPath()));
+        }
+        finally{
+            file.delete();
+        }
+
+        // printGraph keeps its output, a trailing space after every name
+        Graph<String,Integer> g2 = new Graph<>();
+        g2.addNode("a", 1);
+        g2.addNode("b", 2);
+        g2.addEdge("a", "b");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(out));
+        try{
+            g2.printGraph();
+        }
+        finally{
+            System.setOut(console);
+        }
+        assertEquals("a b \nb a \n\n",out.toString());
+
+        // printGraph encodes with the charset of System.out
+        g2.addNode("\u00e9", 3);
+        out.reset();
+        System.setOut(new PrintStream(out, true, StandardCharsets.ISO_8859_1));
+        try{
+            g2.printGraph();
+        }
+        finally{
+            System.setOut(console);
+        }
+        assertEquals("a b \nb a \n\u00e9 \n\n",out.toString(StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Test the DOT export of a small graph
+     * @throws IOException if the buffer cannot be written
+     */
+    @Test
+    public void writeDot() throws IOException{
+
+        String[] data = Arrays.copyOf(words, 5);
+        data[4] = "\"\u00e9\"";
+        CompressedGraph g1 = CompressedGraph.fromAdjacency(Arrays.copyOf(adj, 5), data);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GraphWriter writer = new GraphWriter(out);
+        writer.writeDot(g1, g1.getWords());
+        writer.flush();
+        String dot = out.toString(StandardCharsets.UTF_8);
+        System.out.print(dot);
+        assertEquals("graph words {\n"
+                + "  0 [label=\"cat\"];\n"
+                + "  1 [label=\"cot\"];\n"
+                + "  2 [label=\"cog\"];\n"
+                + "  3 [label=\"dog\"];\n"
+                + "  4 [label=\"\\\"\u00e9\\\"\"];\n"
+                + "  0 -- 1;\n"
+                + "  1 -- 2;\n"
+                + "  2 -- 3;\n"
+                + "}\n",dot);
+
+        // A Graph names its nodes by position
+        Graph<String,String> g2 = new Graph<>();
+        g2.addNode("x", "cat");
+        g2.addNode("y", "cot");
+        g2.addEdge("x", "y");
+        out.reset();
+        writer.writeDot(g2);
+        writer.flush();
+        assertEquals("graph words {\n  0 [label=\"cat\"];\n  1 [label=\"cot\"];\n  0 -- 1;\n}\n",out.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Test numbers and characters crossing the end of a small buffer
+     * @throws IOException if the buffer cannot be written
+     */
+    @Test
+    public void encoding() throws IOException{
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GraphWriter writer = new GraphWriter(Channels.newChannel(out), 16);
+        String text = " a\u00e9\u4e2d\ud83d\ude00";
+        for(int i = 0; i < 20; i++){
+            writer.writeInt(Integer.MIN_VALUE).writeChar(' ').writeInt(0).writeChar(' ').writeInt(Integer.MAX_VALUE).writeText(text);
+        }
+        writer.close();
+
+        StringBuilder expected = new StringBuilder();
+        for(int i = 0; i < 20; i++){
+            expected.append(Integer.MIN_VALUE).append(' ').append(0).append(' ').append(Integer.MAX_VALUE).append(text);
+        }
+        assertEquals(expected.toString(),out.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Check that two graphs hold the same words and neighbors for every id
+     * @param expected the graph expected
+     * @param actual the graph compared
+     */
+    private void assertSameGraph(CompressedGraph expected, CompressedGraph actual){
+        assertEquals(expected.getNumNodes(),actual.getNumNodes());
+        assertEquals(expected.getNumEdges(),actual.getNumEdges());
+        NeighborIterator a = expected.neighborIterator();
+        NeighborIterator b = actual.neighborIterator();
+        for(int node = 0; node < expected.getNumNodes(); node++){
+            assertEquals(expected.getValue(node),actual.getValue(node));
+            a.reset(node);
+            b.reset(node);
+            while(a.hasNext()){
+                assertTrue(b.hasNext());
+                assertEquals(a.nextNeighbor(),b.nextNeighbor());
+            }
+            assertFalse(b.hasNext());
+        }
+    }
+
+}
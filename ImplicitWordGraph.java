@@ -0,0 +1,308 @@
+/**
+ * Class representing a word graph without stored edges. Two words are
+ * neighbors when they have the same length and differ by exactly one letter,
+ * so the neighbors of a word are generated by substituting each of its letters
+ * with every letter of the alphabet and looking the result up in the arena.
+ * Optionally, words that differ by one inserted or deleted letter are
+ * neighbors as well
+ * @author Vo Linh Chi Dao
+ */
+public class ImplicitWordGraph implements IntAdjacency{
+
+    /**
+     * Phase of the neighbor iterator substituting letters
+     */
+    private static final int SUBSTITUTE = 0;
+
+    /**
+     * Phase of the neighbor iterator deleting letters
+     */
+    private static final int DELETE = 1;
+
+    /**
+     * Phase of the neighbor iterator inserting letters
+     */
+    private static final int INSERT = 2;
+
+    /**
+     * The words of the graph, which also serve as membership index
+     */
+    private final WordArena words;
+
+    /**
+     * Every distinct letter used by the words, in increasing order
+     */
+    private final char[] alphabet;
+
+    /**
+     * Length of the longest word
+     */
+    private final int maxLength;
+
+    /**
+     * Indicate if words differing by one inserted or deleted letter are neighbors
+     */
+    private final boolean indels;
+
+    /**
+     * Constructor initializes a graph over the specified words, linking
+     * words of the same length that differ by one letter
+     * @param words the words of the graph
+     */
+    public ImplicitWordGraph(WordArena words){
+        this(words, false);
+    }
+
+    /**
+     * Constructor initializes a graph over the specified words
+     * @param words the words of the graph
+     * @param indels true to also link words differing by one inserted or deleted letter
+     */
+    public ImplicitWordGraph(WordArena words, boolean indels){
+        this.words = words;
+        this.indels = indels;
+
+        // Collect the letters used by the words
+        boolean[] used = new boolean[Character.MAX_VALUE + 1];
+        int numLetters = 0;
+        int longest = 0;
+        for(int id = 0; id < words.size(); id++){
+            longest = Math.max(longest, words.length(id));
+            for(int i = 0; i < words.length(id); i++){
+                char c = words.charAt(id, i);
+                if(!used[c]){
+                    used[c] = true;
+                    numLetters++;
+                }
+            }
+        }
+
+        this.alphabet = new char[numLetters];
+        int count = 0;
+        for(int c = 0; c < used.length; c++){
+            if(used[c]){
+                alphabet[count++] = (char) c;
+            }
+        }
+        this.maxLength = longest;
+    }
+
+    /**
+     * Construct a graph from the words of the specified "word graph" file,
+     * ignoring the edges listed in the file
+     * @param filename the "word graph" file
+     * @return a graph generating the neighbors of the words of the file
+     */
+    public static ImplicitWordGraph readWordGraph(String filename){
+        return new ImplicitWordGraph(WordArena.readWords(filename));
+    }
+
+    /**
+     * Construct a graph from the words of the specified "word graph" file,
+     * ignoring the edges listed in the file
+     * @param filename the "word graph" file
+     * @param indels true to also link words differing by one inserted or deleted letter
+     * @return a graph generating the neighbors of the words of the file
+     */
+    public static ImplicitWordGraph readWordGraph(String filename, boolean indels){
+        return new ImplicitWordGraph(WordArena.readWords(filename), indels);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumNodes(){
+        return words.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNode(int node){
+        return node >= 0 && node < words.size() && words.length(node) > 0;
+    }
+
+    /**
+     * Retrieve the words of the graph
+     * @return the arena holding the words of the graph
+     */
+    public WordArena getWords(){
+        return words;
+    }
+
+    /**
+     * Retrieve the letters substituted to generate neighbors
+     * @return every distinct letter used by the words
+     */
+    public char[] getAlphabet(){
+        return alphabet.clone();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public NeighborIterator neighborIterator(){
+        return new EditIterator();
+    }
+
+    /**
+     * Iterator generating the neighbors of a word one edit at a time:
+     * substitutions first, then deletions and insertions
+     */
+    private class EditIterator implements NeighborIterator{
+
+        /**
+         * The current word
+         */
+        private final char[] word = new char[maxLength];
+
+        /**
+         * The current word with one edit applied
+         */
+        private final char[] edited = new char[maxLength + 1];
+
+        /**
+         * Length of the current word
+         */
+        private int length;
+
+        /**
+         * Edit being tried: SUBSTITUTE, DELETE or INSERT
+         */
+        private int phase;
+
+        /**
+         * Position of the edited letter
+         */
+        private int position;
+
+        /**
+         * Index in the alphabet of the next letter to substitute or insert
+         */
+        private int letter;
+
+        /**
+         * The neighbor found ahead of time, -1 if it is not searched yet
+         */
+        private int next;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void reset(int node){
+            length = words.length(node);
+            for(int i = 0; i < length; i++){
+                word[i] = words.charAt(node, i);
+                edited[i] = word[i];
+            }
+            phase = SUBSTITUTE;
+            position = 0;
+            letter = 0;
+            next = -1;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext(){
+            if(next < 0){
+                next = advance();
+            }
+            return next >= 0;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int nextNeighbor(){
+            hasNext();
+            int neighbor = next;
+            next = -1;
+            return neighbor;
+        }
+
+        /**
+         * Try the remaining edits until one of them is a word
+         * @return the id of the word found, -1 if all edits are tried
+         */
+        private int advance(){
+
+            // Substitute each letter with every other letter of the alphabet
+            while(phase == SUBSTITUTE && position < length){
+                while(letter < alphabet.length){
+                    char c = alphabet[letter++];
+                    if(c == word[position]){
+                        continue;
+                    }
+                    edited[position] = c;
+                    int id = words.find(edited, 0, length);
+                    if(id >= 0){
+                        edited[position] = word[position];
+                        return id;
+                    }
+                }
+                // Restore the letter and move to the next position
+                edited[position] = word[position];
+                position++;
+                letter = 0;
+            }
+            if(phase == SUBSTITUTE){
+                if(!indels){
+                    return -1;
+                }
+                phase = DELETE;
+                position = 0;
+            }
+
+            // Delete each letter, once per run of equal letters
+            while(phase == DELETE && position < length){
+                int i = position++;
+                if(i > 0 && word[i] == word[i - 1]){
+                    continue;
+                }
+                System.arraycopy(word, 0, edited, 0, i);
+                System.arraycopy(word, i + 1, edited, i, length - i - 1);
+                int id = words.find(edited, 0, length - 1);
+                if(id >= 0){
+                    return id;
+                }
+            }
+            if(phase == DELETE){
+                phase = INSERT;
+                position = 0;
+                letter = 0;
+                System.arraycopy(word, 0, edited, 1, length);
+            }
+
+            // Insert every letter of the alphabet before each position and at the end,
+            // skipping letters equal to the previous one, which give the same word
+            while(position <= length){
+                while(letter < alphabet.length){
+                    char c = alphabet[letter++];
+                    if(position > 0 && word[position - 1] == c){
+                        continue;
+                    }
+                    edited[position] = c;
+                    int id = words.find(edited, 0, length + 1);
+                    if(id >= 0){
+                        return id;
+                    }
+                }
+                // Shift the inserted letter one position to the right
+                if(position < length){
+                    edited[position] = word[position];
+                }
+                position++;
+                letter = 0;
+            }
+            return -1;
+        }
+    }
+
+}
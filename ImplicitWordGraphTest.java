@@ -0,0 +1,85 @@
+import org.junit.Test;
+import java.util.Arrays;
+import static org.junit.Assert.*;
+
+/**
+ * Testing class for ImplicitWordGraph
+ * @author Vo Linh Chi Dao
+ */
+public class ImplicitWordGraphTest{
+
+    String file1 = "src/text4.txt";
+    String file2 = "src/LargeWordGraph";
+
+    /**
+     * Test the generated neighbors against the edges of the files
+     */
+    @Test
+    public void neighbors(){
+
+        // Words of one length are linked by substitutions
+        compare(CompressedGraph.readWordGraph(file1), ImplicitWordGraph.readWordGraph(file1));
+        // Words of any length are also linked by insertions and deletions
+        compare(CompressedGraph.readWordGraph(file2), ImplicitWordGraph.readWordGraph(file2, true));
+    }
+
+    /**
+     * Compare the neighbors of each word in the two graphs
+     * @param stored graph holding the edges of a file
+     * @param generated graph generating the edges from the words of the file
+     */
+    private void compare(CompressedGraph stored, ImplicitWordGraph generated){
+
+        assertEquals(stored.getNumNodes(),generated.getNumNodes());
+        System.out.println("Alphabet: " + new String(generated.getAlphabet()));
+
+        // Each word has the same neighbors
+        NeighborIterator it1 = stored.neighborIterator();
+        NeighborIterator it2 = generated.neighborIterator();
+        for(int i = 0; i < stored.getNumNodes(); i++){
+            int[] n1 = new int[stored.degree(i)];
+            int count = 0;
+            it1.reset(i);
+            while(it1.hasNext()){
+                n1[count++] = it1.nextNeighbor();
+            }
+            int[] n2 = new int[count];
+            count = 0;
+            it2.reset(i);
+            while(it2.hasNext()){
+                n2[count++] = it2.nextNeighbor();
+            }
+            Arrays.sort(n2);
+            assertArrayEquals(n1,n2);
+        }
+    }
+
+    /**
+     * Test searches on the generated neighbors
+     */
+    @Test
+    public void search(){
+
+        WordArena words = WordArena.fromWords(new String[]{"cold","cord","card","ward","warm","word","worm","heat"});
+        IntSearch search = new IntSearch(new ImplicitWordGraph(words));
+
+        // Find path between two connected words
+        int[] path = search.BFS(words.find("cold"),words.find("warm"));
+        StringBuilder builder = new StringBuilder();
+        words.appendPath(path, " ", builder);
+        System.out.println("Ladder between cold and warm: " + builder);
+        assertEquals(5,path.length);
+        assertEquals("word",words.getWord(path[2]));
+        // No path that link the two words
+        assertEquals(0,search.BFS(words.find("cold"),words.find("heat")).length);
+        assertTrue(search.DFS(words.find("warm"),words.find("cold")).length >= 5);
+
+        // Insertions and deletions link words of different lengths
+        WordArena words2 = WordArena.fromWords(new String[]{"cat","cart","card","scar","car","cat"});
+        IntSearch search2 = new IntSearch(new ImplicitWordGraph(words2, true));
+        assertEquals(3,search2.BFS(words2.find("cat"),words2.find("card")).length);
+        assertEquals(3,search2.BFS(words2.find("scar"),words2.find("cat")).length);
+        assertEquals(0,new IntSearch(new ImplicitWordGraph(words2)).BFS(words2.find("cat"),words2.find("card")).length);
+    }
+
+}
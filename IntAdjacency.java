@@ -0,0 +1,28 @@
+/**
+ * Read-only adjacency of an undirected graph whose nodes are
+ * numbered from 0 to getNumNodes() - 1
+ * @author Vo Linh Chi Dao
+ */
+public interface IntAdjacency{
+
+    /**
+     * Retrieve the number of node ids in the graph
+     * @return the number of node ids in the graph
+     */
+    int getNumNodes();
+
+    /**
+     * Check if a node id is used by the graph. Ids without a word are within
+     * the range of the graph but are not nodes, so searches refuse them
+     * @param node id of the node
+     * @return true if the id is within the range of the graph and holds a word
+     */
+    boolean hasNode(int node);
+
+    /**
+     * Create an iterator over the neighbors of a node.
+     * The iterator is meant to be created once and reset for every node visited
+     * @return a new neighbor iterator of the graph
+     */
+    NeighborIterator neighborIterator();
+}
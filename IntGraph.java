@@ -0,0 +1,630 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Class representing undirected, unweighted graph whose nodes are referenced
+ * by int names. It offers the operations of Graph without boxing the names:
+ * each node lives in a slot of primitive arrays, its neighbors are kept as
+ * growable arrays of slots and names are mapped to slots by an open addressing
+ * table of ints. Changing the graph is not thread-safe, but any number of
+ * threads may search a graph no thread changes: each search borrows its
+ * scratch space from a pool and gives it back once it is done
+ * @param <V> type of data stored in the node
+ * @author Vo Linh Chi Dao
+ */
+public class IntGraph<V>{
+
+    /**
+     * Name of the node in each slot
+     */
+    private int[] names;
+
+    /**
+     * Value of the node in each slot
+     */
+    private Object[] values;
+
+    /**
+     * Slots of the neighbors of each slot
+     */
+    private int[][] neighbors;
+
+    /**
+     * Number of neighbors of each slot, -1 if the slot is free
+     */
+    private int[] degree;
+
+    /**
+     * Slots freed by removed nodes, reused before new slots
+     */
+    private int[] freeSlots;
+
+    /**
+     * Number of freed slots
+     */
+    private int numFree;
+
+    /**
+     * Number of slots ever used
+     */
+    private int numSlots;
+
+    /**
+     * Number of nodes in the graph
+     */
+    private int numNodes;
+
+    /**
+     * Slot of each node, by name
+     */
+    private final IntIndex index;
+
+    /**
+     * Searches over the slots that are not used by any search, dropped when the slots outgrow them
+     */
+    private final ConcurrentLinkedQueue<IntSearch> searches;
+
+    /**
+     * Constructor initialize an empty graph
+     */
+    public IntGraph(){
+        this.names = new int[16];
+        this.values = new Object[16];
+        this.neighbors = new int[16][];
+        this.degree = new int[16];
+        this.freeSlots = new int[16];
+        this.index = new IntIndex();
+        this.searches = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Add a node to the graph and check for duplicates
+     * Duplicated node can be defined as node with same name/reference.
+     * @param name reference to the new node
+     * @param data value stored in the new node
+     * @return true if the node is added to the graph
+     */
+    public boolean addNode(int name, V data){
+
+        // If node already existed in the graph, ignore
+        if(index.get(name) >= 0){
+            return false;
+        }
+
+        // Reuse a freed slot, or take a new one
+        int slot;
+        if(numFree > 0){
+            slot = freeSlots[--numFree];
+        }
+        else{
+            if(numSlots == names.length){
+                grow();
+            }
+            slot = numSlots++;
+        }
+
+        names[slot] = name;
+        values[slot] = data;
+        degree[slot] = 0;
+        index.put(name, slot);
+        numNodes++;
+        return true;
+    }
+
+    /**
+     * Add a list of nodes to the graph and check for duplicates
+     * @param names list of names of the nodes
+     * @param data list of values of the nodes
+     * @return true if all nodes in the list are added to the graph
+     * @throws IllegalArgumentException if the length of two input arrays are not equal
+     */
+    public boolean addNodes(int[] names, V[] data){
+
+        // If the lists of names and values do not have equal length, throw an exception
+        if(names.length != data.length){
+            throw new IllegalArgumentException("The length of names and data lists does not match");
+        }
+
+        // Indicate number of nodes in the list has been added to the graph
+        int numAdded = 0;
+        for(int i = 0; i < names.length; i++){
+            if(addNode(names[i], data[i])){
+                numAdded++;
+            }
+        }
+        return numAdded == names.length;
+    }
+
+    /**
+     * Add undirected edge between two specified nodes.
+     * If specified node does not exist, add it to the graph, then
+     * add the edge between them
+     * @param from the source node
+     * @param to the destination node
+     * @return true if an edge is added between two nodes
+     */
+    public boolean addEdge(int from, int to){
+
+        // Add the nodes that do not exist in the graph
+        addNode(from, null);
+        addNode(to, null);
+
+        int i = index.get(from);
+        int j = index.get(to);
+
+        // If there is already an edge between two nodes, or the nodes are the same, return false
+        if(i == j || checkEdges(i, j)){
+            return false;
+        }
+
+        // Add edge between the two nodes
+        link(i, j);
+        link(j, i);
+        return true;
+    }
+
+    /**
+     * Add undirected edges between node from and a list of "to" nodes
+     * @param from the source node
+     * @param toList list contain destination nodes
+     * @return true if source node is connected to all destination nodes in the list
+     */
+    public boolean addEdges(int from, int... toList){
+
+        // Indicate number of nodes in the list that has been connected to source node
+        int numAdded = 0;
+        for(int to : toList){
+            if(addEdge(from, to)){
+                numAdded++;
+            }
+        }
+        return numAdded == toList.length;
+    }
+
+    /**
+     * Remove a node along all connected edges
+     * @param name reference of the removed node
+     * @return true is the node is removed
+     */
+    public boolean removeNode(int name){
+
+        int slot = index.get(name);
+        if(slot < 0){
+            return false;
+        }
+
+        // Remove the node from the neighbors of each adjacent node
+        for(int k = 0; k < degree[slot]; k++){
+            unlink(neighbors[slot][k], slot);
+        }
+
+        // Free the slot
+        index.remove(name);
+        values[slot] = null;
+        degree[slot] = -1;
+        if(numFree == freeSlots.length){
+            freeSlots = Arrays.copyOf(freeSlots, numFree * 2);
+        }
+        freeSlots[numFree++] = slot;
+        numNodes--;
+        return true;
+    }
+
+    /**
+     * Remove each node in specified list of nodes and their edges from the graph
+     * @param nodeList specified list of node to be removed
+     * @return true when all nodes in the list and their edges are removed from the graph
+     */
+    public boolean removeNodes(int... nodeList){
+
+        // Number of node in the list removed
+        int numNode = 0;
+        for(int name : nodeList){
+            if(removeNode(name)){
+                numNode++;
+            }
+        }
+        return numNode == nodeList.length;
+    }
+
+    /**
+     * Retrieve number of nodes in the graph
+     * @return number of nodes in the graph
+     */
+    public int getNumNodes(){
+        return numNodes;
+    }
+
+    /**
+     * Retrieve the value of the specified node
+     * @param name reference of the node
+     * @return the value of the node, null if the node does not exist
+     */
+    @SuppressWarnings("unchecked")
+    public V getValue(int name){
+        int slot = index.get(name);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * Change the value of the specified node
+     * @param name reference of the node
+     * @param data the new value of the node
+     * @return true if the node exists and its value is changed
+     */
+    public boolean setValue(int name, V data){
+        int slot = index.get(name);
+        if(slot < 0){
+            return false;
+        }
+        values[slot] = data;
+        return true;
+    }
+
+    /**
+     * Print the adjacency list of node names and their neighbors
+     */
+    public void printGraph(){
+
+        StringBuilder builder = new StringBuilder();
+        for(int slot = 0; slot < numSlots; slot++){
+            if(degree[slot] < 0){
+                continue;
+            }
+            // Print the node and its edge
+            builder.append(names[slot]).append(' ');
+            for(int k = 0; k < degree[slot]; k++){
+                builder.append(names[neighbors[slot][k]]).append(' ');
+            }
+            builder.append('\n');
+        }
+        builder.append('\n');
+        System.out.print(builder);
+    }
+
+    /**
+     * Depth-first search between nodes from and to
+     * @param from the source node
+     * @param to the destination node
+     * @return an array representing the path between source node and
+     * destination node. Return an empty array if one of the two nodes does
+     * not exist in the graph or there is no path between two nodes
+     */
+    public int[] DFS(int from, int to){
+        IntSearch search = borrow();
+        try{
+            return toNames(search.DFS(index.get(from), index.get(to)));
+        }
+        finally{
+            searches.add(search);
+        }
+    }
+
+    /**
+     * Breadth-first search between node from and to
+     * @param from the source node
+     * @param to the destination node
+     * @return an array representing a shortest path between source node
+     * and destination node. Return an empty array if one of the two nodes does
+     * not exist in the graph or there is no path between two nodes
+     */
+    public int[] BFS(int from, int to){
+        IntSearch search = borrow();
+        try{
+            return toNames(search.BFS(index.get(from), index.get(to)));
+        }
+        finally{
+            searches.add(search);
+        }
+    }
+
+    /**
+     * Construct a graph from the specified "word graph" file, where each line
+     * holds a node name, its word and the names of its neighbors
+     * @param filename the "word graph" file
+     * @return a graph based on the specified input file
+     */
+    public static IntGraph<String> readWordGraph(String filename){
+
+        try(BufferedReader reader = new BufferedReader(new FileReader(filename))){
+
+            // Initialize a graph
+            IntGraph<String> result = new IntGraph<>();
+
+            // Store the current line of the text
+            String current = reader.readLine();
+
+            // Trace through each line of the text
+            while(current != null){
+
+                // Index 0 store the name of the node, index 1 its data
+                String[] line = current.trim().split(" ");
+                int name = Integer.parseInt(line[0]);
+                // The node may already exist as the neighbor of an earlier line
+                result.addNode(name, null);
+                result.setValue(name, line.length > 1 ? line[1] : null);
+
+                // Other index store the adjacent nodes
+                for(int i = 2; i < line.length; i++){
+                    result.addEdge(name, Integer.parseInt(line[i]));
+                }
+
+                // Update to the next line
+                current = reader.readLine();
+            }
+            return result;
+        }
+        // Throw an error if the input file is inappropriate
+        catch(IOException e){
+            throw new RuntimeException();
+        }
+    }
+
+    /**
+     * Check if an edge already existed between two slots
+     * @param i the source slot
+     * @param j the destination slot
+     * @return true if the edge already existed between the two slots
+     */
+    private boolean checkEdges(int i, int j){
+        for(int k = 0; k < degree[i]; k++){
+            if(neighbors[i][k] == j){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add a slot to the neighbors of another slot, growing its array if needed
+     * @param i the slot whose neighbors grow
+     * @param j the slot added
+     */
+    private void link(int i, int j){
+        if(neighbors[i] == null){
+            neighbors[i] = new int[4];
+        }
+        else if(degree[i] == neighbors[i].length){
+            neighbors[i] = Arrays.copyOf(neighbors[i], degree[i] * 2);
+        }
+        neighbors[i][degree[i]++] = j;
+    }
+
+    /**
+     * Remove a slot from the neighbors of another slot, moving the last neighbor in its place
+     * @param i the slot whose neighbors shrink
+     * @param j the slot removed
+     */
+    private void unlink(int i, int j){
+        for(int k = 0; k < degree[i]; k++){
+            if(neighbors[i][k] == j){
+                neighbors[i][k] = neighbors[i][--degree[i]];
+                return;
+            }
+        }
+    }
+
+    /**
+     * Double the capacity of the slot arrays
+     */
+    private void grow(){
+        int capacity = names.length * 2;
+        names = Arrays.copyOf(names, capacity);
+        values = Arrays.copyOf(values, capacity);
+        neighbors = Arrays.copyOf(neighbors, capacity);
+        degree = Arrays.copyOf(degree, capacity);
+    }
+
+    /**
+     * Take a search from the pool, creating one if the pool holds none covering every slot
+     * @return a search covering every slot that no other search uses
+     */
+    private IntSearch borrow(){
+        IntSearch search = searches.poll();
+        while(search != null && search.getGraph().getNumNodes() < numSlots){
+            // Searches made before the slots grew are dropped
+            search = searches.poll();
+        }
+        if(search == null){
+            // Adjacency fixed to the current number of slots
+            int size = numSlots;
+            search = new IntSearch(new IntAdjacency(){
+                @Override
+                public int getNumNodes(){
+                    return size;
+                }
+
+                @Override
+                public boolean hasNode(int node){
+                    return node >= 0 && node < size && degree[node] >= 0;
+                }
+
+                @Override
+                public NeighborIterator neighborIterator(){
+                    return new SlotIterator();
+                }
+            });
+        }
+        return search;
+    }
+
+    /**
+     * Replace each slot of a path with the name of its node
+     * @param path slots of the path, changed in place
+     * @return the names of the nodes on the path
+     */
+    private int[] toNames(int[] path){
+        for(int i = 0; i < path.length; i++){
+            path[i] = names[path[i]];
+        }
+        return path;
+    }
+
+    /**
+     * Iterator over the neighbor slots of a slot
+     */
+    private class SlotIterator implements NeighborIterator{
+
+        /**
+         * The slot whose neighbors are iterated
+         */
+        private int slot;
+
+        /**
+         * Index of the next neighbor
+         */
+        private int next;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void reset(int node){
+            slot = node;
+            next = 0;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext(){
+            return next < degree[slot];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int nextNeighbor(){
+            return neighbors[slot][next++];
+        }
+    }
+
+    /**
+     * Open addressing table mapping int names to slots, removing
+     * entries by shifting back the entries that follow them
+     */
+    private static class IntIndex{
+
+        /**
+         * Name stored in each entry
+         */
+        private int[] keys = new int[32];
+
+        /**
+         * Slot stored in each entry, -1 for an empty entry
+         */
+        private int[] slots = filled(32);
+
+        /**
+         * Number of names stored
+         */
+        private int size;
+
+        /**
+         * Retrieve the slot of a name
+         * @param key the name
+         * @return the slot of the name, -1 if the name is not stored
+         */
+        int get(int key){
+            int mask = keys.length - 1;
+            for(int e = hash(key) & mask; slots[e] >= 0; e = (e + 1) & mask){
+                if(keys[e] == key){
+                    return slots[e];
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Store the slot of a name that is not stored yet
+         * @param key the name
+         * @param slot the slot of the name
+         */
+        void put(int key, int slot){
+            if(2 * (size + 1) > keys.length){
+                rehash(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int e = hash(key) & mask;
+            while(slots[e] >= 0){
+                e = (e + 1) & mask;
+            }
+            keys[e] = key;
+            slots[e] = slot;
+            size++;
+        }
+
+        /**
+         * Remove a name, shifting back the following entries of its probe sequence
+         * @param key the name
+         */
+        void remove(int key){
+            int mask = keys.length - 1;
+            int e = hash(key) & mask;
+            while(slots[e] >= 0 && keys[e] != key){
+                e = (e + 1) & mask;
+            }
+            if(slots[e] < 0){
+                return;
+            }
+            size--;
+
+            // Move back each following entry that may no longer be reached
+            int gap = e;
+            for(int next = (gap + 1) & mask; slots[next] >= 0; next = (next + 1) & mask){
+                int home = hash(keys[next]) & mask;
+                // The entry can fill the gap if its home is not between the gap and itself
+                if(((next - home) & mask) >= ((next - gap) & mask)){
+                    keys[gap] = keys[next];
+                    slots[gap] = slots[next];
+                    gap = next;
+                }
+            }
+            slots[gap] = -1;
+        }
+
+        /**
+         * Move every entry into tables of the specified capacity
+         * @param capacity the new capacity, a power of two
+         */
+        private void rehash(int capacity){
+            int[] oldKeys = keys;
+            int[] oldSlots = slots;
+            keys = new int[capacity];
+            slots = filled(capacity);
+            size = 0;
+            for(int e = 0; e < oldKeys.length; e++){
+                if(oldSlots[e] >= 0){
+                    put(oldKeys[e], oldSlots[e]);
+                }
+            }
+        }
+
+        /**
+         * Spread the bits of a name
+         * @param key the name
+         * @return the hash of the name
+         */
+        private static int hash(int key){
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        /**
+         * Create an array of empty entries
+         * @param capacity number of entries
+         * @return an array filled with -1
+         */
+        private static int[] filled(int capacity){
+            int[] array = new int[capacity];
+            Arrays.fill(array, -1);
+            return array;
+        }
+    }
+
+}
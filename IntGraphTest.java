@@ -0,0 +1,197 @@
+import org.junit.Test;
+import java.util.Arrays;
+import static org.junit.Assert.*;
+
+/**
+ * Testing class for IntGraph
+ * @author Vo Linh Chi Dao
+ */
+public class IntGraphTest{
+
+    String[] s2 = {"233","csds","ta","ahs","abcd-ef","chi","stats"};
+    int[] t1 = {5,1,20,14,35,77,100};
+
+    /**
+     * Build the graph used by the search tests
+     * @return a graph of two components and an isolated node
+     */
+    private IntGraph<String> sample(){
+        IntGraph<String> g2 = new IntGraph<>();
+        g2.addNodes(t1,s2);
+        g2.addNode(47,"thi");
+        g2.addEdge(20,1);
+        g2.addEdge(20,5);
+        g2.addEdge(20,100);
+        g2.addEdge(14,20);
+        g2.addEdge(14,35);
+        g2.addEdge(14,77);
+        g2.addEdge(93,5);
+        g2.addEdge(93,0);
+        g2.addEdge(93,11);
+        return g2;
+    }
+
+    /**
+     * Test addNode and addNodes methods
+     */
+    @Test
+    public void addNode(){
+
+        IntGraph<String> g2 = new IntGraph<>();
+
+        // Add nodes to the graph
+        assertTrue(g2.addNode(5,"233"));
+        assertTrue(g2.addNode(-1,"CSDS"));
+        // Add duplicate node into graph
+        assertFalse(g2.addNode(5,"abc-def"));
+        assertEquals("233",g2.getValue(5));
+        assertEquals(2,g2.getNumNodes());
+
+        // Some nodes are duplicated in the list
+        assertFalse(g2.addNodes(t1,s2));
+        assertEquals(8,g2.getNumNodes());
+
+        // List do not have the same number of reference and data
+        try{
+            g2.addNodes(new int[]{1,2},s2);
+            fail();
+        }
+        catch(IllegalArgumentException e){
+            System.out.println("Mismatched lists are rejected");
+        }
+
+        // Many nodes grow the slots and the index
+        for(int i = 1000; i < 3000; i++){
+            assertTrue(g2.addNode(i * 7919,null));
+        }
+        assertEquals(2008,g2.getNumNodes());
+        assertTrue(g2.setValue(7919 * 2999,"last"));
+        assertEquals("last",g2.getValue(7919 * 2999));
+    }
+
+    /**
+     * Test addEdge and addEdges methods
+     */
+    @Test
+    public void addEdge(){
+
+        IntGraph<String> g1 = new IntGraph<>();
+        g1.addNodes(t1,s2);
+
+        // Add edge between two existing nodes
+        assertTrue(g1.addEdge(5,20));
+        // Add edge between existing and non-existing nodes
+        assertTrue(g1.addEdge(5,500));
+        // Add duplicated edge and self loop
+        assertFalse(g1.addEdge(20,5));
+        assertFalse(g1.addEdge(1,1));
+        // Add edges between connected and unconnected nodes
+        assertFalse(g1.addEdges(14,20,5,14));
+        assertTrue(g1.addEdges(77,100,35));
+        assertEquals(8,g1.getNumNodes());
+        assertNull(g1.getValue(500));
+        g1.printGraph();
+    }
+
+    /**
+     * Test removeNode and removeNodes methods
+     */
+    @Test
+    public void removeNode(){
+
+        IntGraph<String> g2 = sample();
+        assertEquals(11,g2.getNumNodes());
+
+        // Remove existing nodes in the graph
+        assertTrue(g2.removeNode(20));
+        assertTrue(g2.removeNodes(93,47));
+        // Remove non-existing node in the graph
+        assertFalse(g2.removeNode(20));
+        assertFalse(g2.removeNodes(0,8));
+        assertEquals(7,g2.getNumNodes());
+        assertNull(g2.getValue(20));
+
+        // Edges of removed nodes are gone, and freed slots are reused
+        assertEquals(0,g2.BFS(14,1).length);
+        assertTrue(g2.addEdge(1,20));
+        assertTrue(g2.addEdge(20,14));
+        assertArrayEquals(new int[]{1,20,14,77},g2.BFS(1,77));
+        g2.printGraph();
+    }
+
+    /**
+     * Test DFS method
+     */
+    @Test
+    public void DFS(){
+
+        IntGraph<String> g2 = sample();
+
+        // Find path between two connected nodes
+        System.out.println("Path between 14 and 77: " + Arrays.toString(g2.DFS(14,77)));
+        assertArrayEquals(new int[]{11,93,5,20,100},g2.DFS(11,100));
+        // Find path between two non-existing nodes
+        assertEquals(0,g2.DFS(8,49).length);
+        // No path that link the two nodes
+        assertEquals(0,g2.DFS(11,47).length);
+    }
+
+    /**
+     * Test BFS method
+     */
+    @Test
+    public void BFS(){
+
+        IntGraph<String> g2 = sample();
+
+        // Find path between two connected nodes
+        assertArrayEquals(new int[]{14,77},g2.BFS(14,77));
+        assertArrayEquals(new int[]{0,93,5,20,1},g2.BFS(0,1));
+        // Find path between two non-existing nodes
+        assertEquals(0,g2.BFS(8,49).length);
+        // No path that link the two nodes
+        assertEquals(0,g2.BFS(11,47).length);
+
+        // Search a file graph
+        IntGraph<String> g3 = IntGraph.readWordGraph("src/text4.txt");
+        assertEquals(908,g3.getNumNodes());
+        assertEquals("cat",g3.getValue(120));
+        int[] path = g3.BFS(0,120);
+        System.out.println("Path between aah and cat: " + Arrays.toString(path));
+        assertEquals(new IntSearch(CompressedGraph.readWordGraph("src/text4.txt")).BFS(0,120).length,path.length);
+    }
+
+    /**
+     * Test that threads searching the same graph get the paths of a single thread
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void concurrentBFS() throws InterruptedException{
+
+        IntGraph<String> g1 = IntGraph.readWordGraph("src/LargeWordGraph");
+        int[][] expected = new int[500][];
+        for(int i = 0; i < expected.length; i++){
+            expected[i] = g1.BFS(i * 23 % 48953, i * 191 % 48953);
+        }
+
+        // Each thread runs every search and records the paths that differ
+        int[] mismatches = new int[4];
+        Thread[] threads = new Thread[mismatches.length];
+        for(int t = 0; t < threads.length; t++){
+            int id = t;
+            threads[t] = new Thread(() -> {
+                for(int i = 0; i < expected.length; i++){
+                    if(!Arrays.equals(expected[i], g1.BFS(i * 23 % 48953, i * 191 % 48953))){
+                        mismatches[id]++;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for(Thread thread : threads){
+            thread.join();
+        }
+        assertArrayEquals(new int[4],mismatches);
+    }
+
+}
@@ -0,0 +1,302 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Class performing path searches on an IntAdjacency.
+ * The scratch arrays are kept between searches, so an instance must not be
+ * shared between threads
+ * @author Vo Linh Chi Dao
+ */
+public class IntSearch{
+
+    /**
+     * The graph being searched
+     */
+    private final IntAdjacency graph;
+
+    /**
+     * Stamp of the last search that visited each node
+     */
+    private final int[] visited;
+
+    /**
+     * Node each node was reached from during the last BFS
+     */
+    private final int[] parent;
+
+    /**
+     * Queue of nodes for BFS, or current path for DFS
+     */
+    private final int[] queue;
+
+    /**
+     * Neighbor iterator of each depth of the DFS path
+     */
+    private final ArrayList<NeighborIterator> iterators;
+
+    /**
+     * Stamp of the current search
+     */
+    private int stamp;
+
+    /**
+     * Constructor initializes the scratch space for searching the graph
+     * @param graph the graph being searched
+     */
+    public IntSearch(IntAdjacency graph){
+        this.graph = graph;
+        this.visited = new int[graph.getNumNodes()];
+        this.parent = new int[graph.getNumNodes()];
+        this.queue = new int[graph.getNumNodes()];
+        this.iterators = new ArrayList<>();
+        this.stamp = 0;
+    }
+
+    /**
+     * Breadth-first search between node from and to
+     * @param from the source node
+     * @param to the destination node
+     * @return an array representing a shortest path between the source node and
+     * the destination node. Return an empty array if one of the two nodes does
+     * not exist in the graph or there is no path between two nodes
+     */
+    public int[] BFS(int from, int to){
+        PathBuffer path = new PathBuffer();
+        BFS(from, to, path);
+        return path.toArray();
+    }
+
+    /**
+     * Breadth-first search between node from and to, writing the path into a
+     * buffer supplied by the caller so the search allocates nothing
+     * @param from the source node
+     * @param to the destination node
+     * @param path the buffer receiving a shortest path between the source node
+     * and the destination node. It is left empty if one of the two nodes does
+     * not exist in the graph or there is no path between two nodes
+     * @return true if a path is found
+     */
+    public boolean BFS(int from, int to, PathBuffer path){
+        return BFS(from, to, path, SearchLimit.NONE) == SearchStatus.FOUND;
+    }
+
+    /**
+     * Breadth-first search between node from and to that stops once the limit is reached
+     * @param from the source node
+     * @param to the destination node
+     * @param path the buffer receiving a shortest path between the source node and
+     * the destination node. If the search stops early, it receives the path to the
+     * last node expanded, which is as far from the source as the search went
+     * @param limit the deadline, budget and cancellation of the search
+     * @return FOUND if a path is found, NOT_FOUND if there is none, or the reason
+     * the search stopped early
+     */
+    public SearchStatus BFS(int from, int to, PathBuffer path, SearchLimit limit){
+
+        path.clear();
+
+        // Check if the two nodes exist in the graph
+        if(!contains(from) || !contains(to)){
+            return SearchStatus.NOT_FOUND;
+        }
+
+        int mark = nextStamp();
+        NeighborIterator neighbors = iterator(0);
+
+        // Indicate the source node has been visited and add it to the queue
+        visited[from] = mark;
+        parent[from] = -1;
+        queue[0] = from;
+        int head = 0;
+        int tail = 1;
+
+        // Trace through the graph until the queue is empty
+        while(head < tail){
+            int current = queue[head++];
+
+            // Return the path once the destination node is reached
+            if(current == to){
+                tracePath(to, path);
+                return SearchStatus.FOUND;
+            }
+
+            // Stop with the path to the current node once the limit is reached
+            SearchStatus stop = limit.check(head);
+            if(stop != null){
+                tracePath(current, path);
+                return stop;
+            }
+
+            // Add unvisited adjacent nodes of the current node to the queue
+            neighbors.reset(current);
+            while(neighbors.hasNext()){
+                int next = neighbors.nextNeighbor();
+                if(visited[next] != mark){
+                    visited[next] = mark;
+                    parent[next] = current;
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        // The destination node is not reached
+        return SearchStatus.NOT_FOUND;
+    }
+
+    /**
+     * Depth-first search between node from and to
+     * @param from the source node
+     * @param to the destination node
+     * @return an array representing the first path found between the source node
+     * and the destination node. Return an empty array if one of the two nodes does
+     * not exist in the graph or there is no path between two nodes
+     */
+    public int[] DFS(int from, int to){
+        PathBuffer path = new PathBuffer();
+        DFS(from, to, path);
+        return path.toArray();
+    }
+
+    /**
+     * Depth-first search between node from and to, writing the path into a
+     * buffer supplied by the caller so the search allocates nothing once
+     * the iterators of the deepest path are created
+     * @param from the source node
+     * @param to the destination node
+     * @param path the buffer receiving the first path found between the source
+     * node and the destination node. It is left empty if one of the two nodes
+     * does not exist in the graph or there is no path between two nodes
+     * @return true if a path is found
+     */
+    public boolean DFS(int from, int to, PathBuffer path){
+        return DFS(from, to, path, SearchLimit.NONE) == SearchStatus.FOUND;
+    }
+
+    /**
+     * Depth-first search between node from and to that stops once the limit is reached
+     * @param from the source node
+     * @param to the destination node
+     * @param path the buffer receiving the first path found between the source node
+     * and the destination node. If the search stops early, it receives the path
+     * being explored
+     * @param limit the deadline, budget and cancellation of the search
+     * @return FOUND if a path is found, NOT_FOUND if there is none, or the reason
+     * the search stopped early
+     */
+    public SearchStatus DFS(int from, int to, PathBuffer path, SearchLimit limit){
+
+        path.clear();
+
+        // Check if the two nodes exist in the graph
+        if(!contains(from) || !contains(to)){
+            return SearchStatus.NOT_FOUND;
+        }
+
+        int mark = nextStamp();
+
+        // The current path is kept in queue, with one iterator per depth
+        visited[from] = mark;
+        queue[0] = from;
+        iterator(0).reset(from);
+        int depth = 0;
+        long expanded = 0;
+
+        while(depth >= 0){
+            // Return the current path once the destination node is reached,
+            // or once the limit is reached
+            SearchStatus stop = queue[depth] == to ? SearchStatus.FOUND : limit.check(++expanded);
+            if(stop != null){
+                path.setLength(depth + 1);
+                for(int i = 0; i <= depth; i++){
+                    path.set(i, queue[i]);
+                }
+                return stop;
+            }
+
+            // Descend into the next unvisited neighbor of the deepest node
+            NeighborIterator neighbors = iterators.get(depth);
+            int next = -1;
+            while(neighbors.hasNext() && next < 0){
+                int candidate = neighbors.nextNeighbor();
+                if(visited[candidate] != mark){
+                    next = candidate;
+                }
+            }
+
+            // If the node does not provide path to the destination, backtrack
+            if(next < 0){
+                depth--;
+            }
+            else{
+                visited[next] = mark;
+                queue[++depth] = next;
+                iterator(depth).reset(next);
+            }
+        }
+
+        // The destination node is not reached
+        return SearchStatus.NOT_FOUND;
+    }
+
+    /**
+     * Retrieve the graph being searched
+     * @return the graph being searched
+     */
+    protected IntAdjacency getGraph(){
+        return graph;
+    }
+
+    /**
+     * Check if a node id belongs to the graph
+     * @param node id of the node
+     * @return true if the id is within the range of the graph and holds a word
+     */
+    protected boolean contains(int node){
+        return graph.hasNode(node);
+    }
+
+    /**
+     * Start a new search, clearing the visited marks when the stamp overflows
+     * @return the stamp of the new search
+     */
+    protected int nextStamp(){
+        if(++stamp == Integer.MAX_VALUE){
+            Arrays.fill(visited, 0);
+            stamp = 1;
+        }
+        return stamp;
+    }
+
+    /**
+     * Retrieve the neighbor iterator of the specified depth, creating it on first use
+     * @param depth depth of the iterator
+     * @return the neighbor iterator of the depth
+     */
+    private NeighborIterator iterator(int depth){
+        while(iterators.size() <= depth){
+            iterators.add(graph.neighborIterator());
+        }
+        return iterators.get(depth);
+    }
+
+    /**
+     * Follow the parents from the specified node back to the source of the last BFS
+     * @param to the last node of the path
+     * @param path the buffer receiving the path from the source to the node
+     */
+    private void tracePath(int to, PathBuffer path){
+
+        // Count the nodes on the path
+        int length = 0;
+        for(int node = to; node >= 0; node = parent[node]){
+            length++;
+        }
+
+        // Fill the path from its end
+        path.setLength(length);
+        for(int node = to; node >= 0; node = parent[node]){
+            path.set(--length, node);
+        }
+    }
+
+}
@@ -0,0 +1,225 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Class giving the small integer cost of each step of a word ladder.
+ * A step costs 1, plus the weight of the word it reaches (to penalize obscure
+ * words), plus the penalty of the edit it makes: the swap of two letters, or
+ * the insertion or deletion of a letter
+ * @author Vo Linh Chi Dao
+ */
+public class LadderCost{
+
+    /**
+     * Largest weight or penalty accepted
+     */
+    public static final int MAX_WEIGHT = 255;
+
+    /**
+     * The words of the graph
+     */
+    private final WordStore words;
+
+    /**
+     * Weight of each word
+     */
+    private final byte[] wordWeights;
+
+    /**
+     * Every distinct letter used by the words, in increasing order
+     */
+    private final char[] alphabet;
+
+    /**
+     * Penalty of swapping each pair of letters, by index in the alphabet
+     */
+    private final byte[][] swapPenalties;
+
+    /**
+     * Penalty of inserting or deleting a letter
+     */
+    private int indelPenalty;
+
+    /**
+     * Largest weight ever given to a word
+     */
+    private int maxWordWeight;
+
+    /**
+     * Largest penalty ever given to an edit
+     */
+    private int maxPenalty;
+
+    /**
+     * Indicate if a swap was ever given a penalty
+     */
+    private boolean swapPenalized;
+
+    /**
+     * Constructor initializes costs where every step costs 1
+     * @param words the words of the graph
+     */
+    public LadderCost(WordStore words){
+        this.words = words;
+        this.wordWeights = new byte[words.size()];
+
+        // Collect the letters used by the words
+        StringBuilder letters = new StringBuilder();
+        boolean[] used = new boolean[Character.MAX_VALUE + 1];
+        for(int id = 0; id < words.size(); id++){
+            for(int i = 0; i < words.length(id); i++){
+                used[words.charAt(id, i)] = true;
+            }
+        }
+        for(int c = 0; c < used.length; c++){
+            if(used[c]){
+                letters.append((char) c);
+            }
+        }
+        this.alphabet = letters.toString().toCharArray();
+        this.swapPenalties = new byte[alphabet.length][alphabet.length];
+    }
+
+    /**
+     * Retrieve the words the cost is built on
+     * @return the words of the graph
+     */
+    public WordStore getWords(){
+        return words;
+    }
+
+    /**
+     * Change the weight of a word, added to the cost of every step reaching it
+     * @param word the word
+     * @param weight the new weight of the word
+     * @return true if the word exists and its weight is changed
+     * @throws IllegalArgumentException if the weight is negative or above MAX_WEIGHT
+     */
+    public boolean setWordWeight(CharSequence word, int weight){
+        checkWeight(weight);
+        int id = words.find(word);
+        if(id < 0){
+            return false;
+        }
+        wordWeights[id] = (byte) weight;
+        maxWordWeight = Math.max(maxWordWeight, weight);
+        return true;
+    }
+
+    /**
+     * Change the penalty of swapping two letters, in either direction
+     * @param a the first letter
+     * @param b the second letter
+     * @param penalty the new penalty of the swap
+     * @return true if both letters are used by the words and the penalty is changed
+     * @throws IllegalArgumentException if the penalty is negative or above MAX_WEIGHT
+     */
+    public boolean setSwapPenalty(char a, char b, int penalty){
+        checkWeight(penalty);
+        int i = Arrays.binarySearch(alphabet, a);
+        int j = Arrays.binarySearch(alphabet, b);
+        if(i < 0 || j < 0){
+            return false;
+        }
+        swapPenalties[i][j] = (byte) penalty;
+        swapPenalties[j][i] = (byte) penalty;
+        maxPenalty = Math.max(maxPenalty, penalty);
+        swapPenalized |= penalty > 0;
+        return true;
+    }
+
+    /**
+     * Change the penalty of inserting or deleting a letter
+     * @param penalty the new penalty of an insertion or deletion
+     * @throws IllegalArgumentException if the penalty is negative or above MAX_WEIGHT
+     */
+    public void setIndelPenalty(int penalty){
+        checkWeight(penalty);
+        indelPenalty = penalty;
+        maxPenalty = Math.max(maxPenalty, penalty);
+    }
+
+    /**
+     * Read word weights from a file where each line holds a word and its weight.
+     * Words that are not in the graph are ignored
+     * @param filename the weights file
+     * @return number of words whose weight is changed
+     */
+    public int readWordWeights(String filename){
+
+        try(BufferedReader reader = new BufferedReader(new FileReader(filename))){
+
+            int numChanged = 0;
+            String current = reader.readLine();
+
+            // Trace through each line of the text
+            while(current != null){
+                String[] line = current.trim().split("\\s+");
+                if(line.length == 2 && setWordWeight(line[0], Integer.parseInt(line[1]))){
+                    numChanged++;
+                }
+                current = reader.readLine();
+            }
+            return numChanged;
+        }
+        // Throw an error if the input file is inappropriate
+        catch(IOException e){
+            throw new RuntimeException();
+        }
+    }
+
+    /**
+     * Compute the cost of the step between two neighbor words
+     * @param from id of the word the step leaves
+     * @param to id of the word the step reaches
+     * @return the cost of the step, between 1 and getMaxCost()
+     */
+    public int cost(int from, int to){
+
+        int cost = 1 + (wordWeights[to] & 0xFF);
+        int length = words.length(from);
+
+        // Words of different lengths differ by an insertion or deletion
+        if(length != words.length(to)){
+            return cost + indelPenalty;
+        }
+
+        // Without swap penalties, the swapped letters do not need to be found
+        if(!swapPenalized){
+            return cost;
+        }
+
+        // Words of the same length differ by the swap of one letter
+        for(int i = 0; i < length; i++){
+            char a = words.charAt(from, i);
+            char b = words.charAt(to, i);
+            if(a != b){
+                return cost + (swapPenalties[Arrays.binarySearch(alphabet, a)][Arrays.binarySearch(alphabet, b)] & 0xFF);
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Retrieve the upper bound of the cost of a step. The bound follows the
+     * largest weights ever set, so it never decreases
+     * @return the largest cost a step may have
+     */
+    public int getMaxCost(){
+        return 1 + maxWordWeight + maxPenalty;
+    }
+
+    /**
+     * Check that a weight or penalty is within range
+     * @param weight the weight checked
+     * @throws IllegalArgumentException if the weight is negative or above MAX_WEIGHT
+     */
+    private static void checkWeight(int weight){
+        if(weight < 0 || weight > MAX_WEIGHT){
+            throw new IllegalArgumentException("Weight must be between 0 and " + MAX_WEIGHT + ": " + weight);
+        }
+    }
+
+}
@@ -0,0 +1,361 @@
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * Class answering word ladder queries on a word graph.
+ * The engine is shared by all threads; each query borrows the scratch space
+ * of a search from a pool and gives it back once it is done
+ * @author Vo Linh Chi Dao
+ */
+public class LadderEngine implements LadderService{
+
+    /**
+     * The word graph being searched
+     */
+    private final IntAdjacency graph;
+
+    /**
+     * The word of each node of the graph
+     */
+    private final WordStore words;
+
+    /**
+     * Searches that are not used by any query
+     */
+    private final ConcurrentLinkedQueue<IntSearch> searches;
+
+    /**
+     * Weighted searches that are not used by any query
+     */
+    private final ConcurrentLinkedQueue<DijkstraSearch> weightedSearches;
+
+    /**
+     * Cost of each step of a weighted ladder
+     */
+    private volatile LadderCost cost;
+
+    /**
+     * Cache of the BFS trees of hot starting words, null if BFS ladders are not cached
+     */
+    private volatile BFSTreeCache treeCache;
+
+    /**
+     * Constructor initializes an engine on the specified graph
+     * @param graph the word graph being searched
+     */
+    public LadderEngine(CompressedGraph graph){
+        this(graph, graph.getWords());
+    }
+
+    /**
+     * Constructor initializes an engine on a graph whose edges are generated from its words
+     * @param graph the word graph being searched
+     */
+    public LadderEngine(ImplicitWordGraph graph){
+        this(graph, graph.getWords());
+    }
+
+    /**
+     * Constructor initializes an engine on a graph stored outside the heap
+     * @param graph the word graph being searched
+     */
+    public LadderEngine(OffHeapGraph graph){
+        this(graph, graph.getWords());
+    }
+
+    /**
+     * Constructor initializes an engine on the specified graph and words
+     * @param graph the word graph being searched
+     * @param words the word of each node of the graph
+     */
+    private LadderEngine(IntAdjacency graph, WordStore words){
+        this.graph = graph;
+        this.words = words;
+        this.searches = new ConcurrentLinkedQueue<>();
+        this.weightedSearches = new ConcurrentLinkedQueue<>();
+        this.cost = new LadderCost(words);
+    }
+
+    /**
+     * Construct an engine from the specified "word graph" file.
+     * The nodes are stored in breadth-first order, which keeps the words of a ladder close
+     * @param filename the "word graph" file
+     * @return an engine answering queries on the file
+     */
+    public static LadderEngine load(String filename){
+        return new LadderEngine(CompressedGraph.readWordGraph(filename, NodeOrdering.BFS));
+    }
+
+    /**
+     * Construct an engine from the words of the specified "word graph" file, which
+     * generates the neighbors of each word instead of storing the edges of the file
+     * @param filename the "word graph" file
+     * @param indels true to also link words differing by one inserted or deleted letter
+     * @return an engine answering queries on the words of the file
+     */
+    public static LadderEngine loadImplicit(String filename, boolean indels){
+        return new LadderEngine(ImplicitWordGraph.readWordGraph(filename, indels));
+    }
+
+    /**
+     * Construct an engine from the specified "word graph" file whose graph and
+     * words are stored outside the heap, in breadth-first order as load does
+     * @param filename the "word graph" file
+     * @return an engine answering queries on the file
+     */
+    public static LadderEngine loadOffHeap(String filename){
+        return new LadderEngine(OffHeapGraph.readWordGraph(filename));
+    }
+
+    /**
+     * Retrieve the word graph being searched
+     * @return the word graph being searched
+     */
+    public IntAdjacency getGraph(){
+        return graph;
+    }
+
+    /**
+     * Retrieve the word of each node of the graph
+     * @return the words of the graph
+     */
+    public WordStore getWords(){
+        return words;
+    }
+
+    /**
+     * Retrieve the cost of each step of a weighted ladder
+     * @return the cost used by the DIJKSTRA method
+     */
+    public LadderCost getCost(){
+        return cost;
+    }
+
+    /**
+     * Replace the cost of each step of a weighted ladder. Changing a cost
+     * while queries run is not safe, so a new cost should be built aside and
+     * swapped in with this method
+     * @param cost the cost used by the DIJKSTRA method, built on the words of the engine
+     * @throws IllegalArgumentException if the cost is built on other words
+     */
+    public void setCost(LadderCost cost){
+        if(cost.getWords() != words){
+            throw new IllegalArgumentException("Cost is built on other words");
+        }
+        this.cost = cost;
+    }
+
+    /**
+     * Retrieve the cache of BFS trees answering ladders from hot starting words
+     * @return the cache, null if BFS ladders are searched from scratch
+     */
+    public BFSTreeCache getTreeCache(){
+        return treeCache;
+    }
+
+    /**
+     * Change the cache of BFS trees answering ladders from hot starting words
+     * @param treeCache the new cache, null to search every BFS ladder from scratch
+     * @throws IllegalArgumentException if the cache is built on another graph
+     */
+    public void setTreeCache(BFSTreeCache treeCache){
+        if(treeCache != null && treeCache.getGraph() != graph){
+            throw new IllegalArgumentException("Tree cache is built on another graph");
+        }
+        this.treeCache = treeCache;
+    }
+
+    /**
+     * Search a ladder between two words
+     * @param from the first word
+     * @param to the last word
+     * @param method the search method: BFS or DFS, or DIJKSTRA for the cheapest ladder
+     * @return the ids of the words on the ladder. Return an empty array if one of
+     * the two words does not exist in the graph or there is no ladder between them
+     * @throws IllegalArgumentException if the search method is unknown
+     */
+    public int[] ladder(CharSequence from, CharSequence to, String method){
+        PathBuffer path = new PathBuffer();
+        ladder(from, to, method, path);
+        return path.toArray();
+    }
+
+    /**
+     * Search a ladder between two words, writing the ids of its words into a
+     * buffer supplied by the caller so the search allocates nothing
+     * @param from the first word
+     * @param to the last word
+     * @param method the search method: BFS or DFS, or DIJKSTRA for the cheapest ladder
+     * @param path the buffer receiving the ids of the words on the ladder. It is left
+     * empty if one of the two words does not exist in the graph or there is no ladder
+     * @return true if a ladder is found
+     * @throws IllegalArgumentException if the search method is unknown
+     */
+    public boolean ladder(CharSequence from, CharSequence to, String method, PathBuffer path){
+        return ladder(from, to, method, path, SearchLimit.NONE) == SearchStatus.FOUND;
+    }
+
+    /**
+     * Search a ladder between two words, stopping once the limit is reached
+     * @param from the first word
+     * @param to the last word
+     * @param method the search method: BFS or DFS, or DIJKSTRA for the cheapest ladder
+     * @param path the buffer receiving the ids of the words on the ladder, or on the
+     * partial ladder explored if the search stops early
+     * @param limit the deadline, budget and cancellation of the search
+     * @return FOUND if a ladder is found, NOT_FOUND if there is none or one of the
+     * two words does not exist, or the reason the search stopped early
+     * @throws IllegalArgumentException if the search method is unknown
+     */
+    public SearchStatus ladder(CharSequence from, CharSequence to, String method, PathBuffer path, SearchLimit limit){
+
+        // Check the method before borrowing a search
+        boolean breadthFirst = method.equals("BFS");
+        boolean weighted = method.equals("DIJKSTRA");
+        if(!breadthFirst && !weighted && !method.equals("DFS")){
+            throw new IllegalArgumentException("Unknown search method: " + method);
+        }
+
+        // Ids of the two words
+        int node1 = words.find(from);
+        int node2 = words.find(to);
+
+        // Weighted ladders use their own pool of searches
+        if(weighted){
+            DijkstraSearch search = weightedSearches.poll();
+            if(search == null){
+                search = new DijkstraSearch(graph);
+            }
+            try{
+                return search.search(node1, node2, cost, path, limit);
+            }
+            finally{
+                weightedSearches.add(search);
+            }
+        }
+
+        // Ladders from a hot starting word are read from its cached BFS tree
+        BFSTreeCache cache = treeCache;
+        if(breadthFirst && cache != null){
+            SearchStatus status = cache.search(node1, node2, path, limit);
+            if(status != null){
+                return status;
+            }
+        }
+
+        IntSearch search = borrow();
+        try{
+            return breadthFirst ? search.BFS(node1, node2, path, limit) : search.DFS(node1, node2, path, limit);
+        }
+        finally{
+            searches.add(search);
+        }
+    }
+
+    /**
+     * Search a ladder between two words on the specified executor. Cancelling the
+     * returned future stops the search at its next expanded node
+     * @param from the first word
+     * @param to the last word
+     * @param method the search method: BFS or DFS, or DIJKSTRA for the cheapest ladder
+     * @param timeout time in milliseconds the search may take, 0 for no deadline
+     * @param maxExpansions number of nodes the search may expand, 0 for no budget
+     * @param executor the executor running the search
+     * @return a future completed with the status and the ladder of the search, or
+     * completed exceptionally with IllegalArgumentException if the method is unknown
+     */
+    public CompletableFuture<SearchResult> ladderAsync(CharSequence from, CharSequence to, String method,
+                                                       long timeout, long maxExpansions, Executor executor){
+
+        // The deadline starts now, and the words are copied before the caller reuses them
+        SearchLimit limit = new SearchLimit(timeout, maxExpansions);
+        String first = from.toString();
+        String last = to.toString();
+
+        CompletableFuture<SearchResult> future = CompletableFuture.supplyAsync(() -> {
+            PathBuffer path = new PathBuffer();
+            SearchStatus status = ladder(first, last, method, path, limit);
+            return new SearchResult(status, path.toArray());
+        }, executor);
+
+        // Cancelling the future cancels the search it runs
+        future.whenComplete((result, error) -> {
+            if(error instanceof CancellationException){
+                limit.cancel();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Answer a query line of the form "from to method", where the method is
+     * optional and BFS by default. DIJKSTRA gives the cheapest ladder
+     * @param query the query line
+     * @return the words of the ladder separated by spaces, "NONE" if there is
+     * no ladder, or "ERROR" followed by the reason if the query is malformed
+     */
+    public String answer(String query){
+        StringBuilder builder = new StringBuilder();
+        answer(query, new PathBuffer(), builder);
+        return builder.toString();
+    }
+
+    /**
+     * Answer a query line as answer(String) does, appending the answer to a
+     * builder and using a path buffer supplied by the caller, so a caller
+     * reusing both produces no garbage for the ladder
+     * @param query the query line
+     * @param path the buffer receiving the ids of the words on the ladder
+     * @param builder the builder the answer is appended to
+     */
+    public void answer(String query, PathBuffer path, StringBuilder builder){
+        answer(query, path, builder, SearchLimit.NONE);
+    }
+
+    /**
+     * Answer a query line as answer(String, PathBuffer, StringBuilder) does, stopping
+     * the search once the limit is reached. A search stopped early is answered by
+     * "TIMEOUT" followed by the reason
+     * @param query the query line
+     * @param path the buffer receiving the ids of the words on the ladder
+     * @param builder the builder the answer is appended to
+     * @param limit the deadline, budget and cancellation of the search
+     */
+    @Override
+    public void answer(String query, PathBuffer path, StringBuilder builder, SearchLimit limit){
+
+        String[] tokens = query.trim().split("\\s+");
+        if(tokens.length < 2 || tokens.length > 3){
+            builder.append("ERROR expected: from to [BFS|DFS|DIJKSTRA]");
+            return;
+        }
+
+        try{
+            SearchStatus status = ladder(tokens[0], tokens[1], tokens.length == 3 ? tokens[2] : "BFS", path, limit);
+            if(status == SearchStatus.FOUND){
+                words.appendPath(path, " ", builder);
+            }
+            else if(status == SearchStatus.NOT_FOUND){
+                builder.append("NONE");
+            }
+            else{
+                builder.append("TIMEOUT ").append(status);
+            }
+        }
+        catch(IllegalArgumentException e){
+            builder.append("ERROR ").append(e.getMessage());
+        }
+    }
+
+    /**
+     * Take a search from the pool, creating one if the pool is empty
+     * @return a search that no other query uses
+     */
+    private IntSearch borrow(){
+        IntSearch search = searches.poll();
+        return search == null ? new IntSearch(graph) : search;
+    }
+
+}
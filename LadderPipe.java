@@ -0,0 +1,223 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Class answering a stream of query lines with a stream of answer lines, one
+ * answer per query in the same order, for scripted use from shell pipelines.
+ * Queries have the form of LadderService queries, "from to [method]", and
+ * malformed lines are answered by "ERROR" so the answers stay aligned with
+ * the queries. Answers are gathered in a buffer and written whenever no more
+ * query is waiting on the input, so a producer sending queries one at a time
+ * gets each answer at once and a file piped in is answered in large blocks.
+ * With several threads, the calling thread reads batches of queries and
+ * writes their answers while the other threads search and format them
+ * @author Vo Linh Chi Dao
+ */
+public class LadderPipe{
+
+    /**
+     * Most queries searched as one batch by a thread
+     */
+    public static final int BATCH_SIZE = 256;
+
+    /**
+     * Number of characters buffered when reading the queries
+     */
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The service answering the queries
+     */
+    private final LadderService service;
+
+    /**
+     * Number of threads searching the queries, 1 to search them on the calling thread
+     */
+    private final int threads;
+
+    /**
+     * Time in milliseconds a query may search, 0 for no limit
+     */
+    private final long queryTimeout;
+
+    /**
+     * Number of nodes a query may expand, 0 for no budget
+     */
+    private final long maxExpansions;
+
+    /**
+     * Constructor initializes a pipe answering the queries on the calling thread without limit
+     * @param service the service answering the queries
+     */
+    public LadderPipe(LadderService service){
+        this(service, 1, 0, 0);
+    }
+
+    /**
+     * Constructor initializes a pipe
+     * @param service the service answering the queries
+     * @param threads number of threads searching the queries, 1 to search them on the calling thread
+     * @param queryTimeout time in milliseconds a query may search, 0 for no limit
+     * @param maxExpansions number of nodes a query may expand, 0 for no budget
+     * @throws IllegalArgumentException if the number of threads is not positive or a limit is negative
+     */
+    public LadderPipe(LadderService service, int threads, long queryTimeout, long maxExpansions){
+        if(threads < 1 || queryTimeout < 0 || maxExpansions < 0){
+            throw new IllegalArgumentException("Invalid pipe settings: " + threads + " threads, timeout "
+                    + queryTimeout + ", budget " + maxExpansions);
+        }
+        this.service = service;
+        this.threads = threads;
+        this.queryTimeout = queryTimeout;
+        this.maxExpansions = maxExpansions;
+    }
+
+    /**
+     * Answer every query line of the input until its end. The streams are left open
+     * @param in the stream the queries are read from, encoded as UTF-8
+     * @param out the stream the answers are written to, encoded as UTF-8
+     * @return number of queries answered
+     * @throws IOException if a stream cannot be read or written
+     */
+    public long run(InputStream in, OutputStream out) throws IOException{
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+        GraphWriter writer = new GraphWriter(out);
+        if(threads == 1){
+            return runSequential(reader, writer);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try{
+            // Answers of the batches being searched, in input order
+            ArrayDeque<Future<StringBuilder>> pending = new ArrayDeque<>();
+            long count = 0;
+
+            while(true){
+                // Write every answer before waiting for more queries
+                if(!reader.ready()){
+                    while(!pending.isEmpty()){
+                        writer.writeText(pending.poll().get());
+                    }
+                    writer.flush();
+                }
+
+                String[] batch = readBatch(reader);
+                if(batch == null){
+                    break;
+                }
+                count += batch.length;
+                pending.add(executor.submit(() -> answer(batch)));
+
+                // Keep every thread busy with one batch ahead
+                while(pending.size() >= 2 * threads){
+                    writer.writeText(pending.poll().get());
+                }
+            }
+
+            // Write the answers of the last batches
+            while(!pending.isEmpty()){
+                writer.writeText(pending.poll().get());
+            }
+            writer.flush();
+            return count;
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        catch(ExecutionException e){
+            throw new IOException(e.getCause());
+        }
+        finally{
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Answer every query line on the calling thread, reusing one path and one answer
+     * @param reader the reader of the queries
+     * @param writer the writer of the answers
+     * @return number of queries answered
+     * @throws IOException if a stream cannot be read or written
+     */
+    private long runSequential(BufferedReader reader, GraphWriter writer) throws IOException{
+
+        PathBuffer path = new PathBuffer();
+        StringBuilder answer = new StringBuilder();
+        long count = 0;
+
+        // Answer each line until the end of the input
+        String query = reader.readLine();
+        while(query != null){
+            answer.setLength(0);
+            service.answer(query, path, answer, limit());
+            answer.append('\n');
+            writer.writeText(answer);
+            count++;
+
+            // Write the answers once all waiting queries are answered
+            if(!reader.ready()){
+                writer.flush();
+            }
+            query = reader.readLine();
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Read the next batch of queries: the next line, waiting for it if needed,
+     * followed by the lines already waiting on the input, up to BATCH_SIZE
+     * @param reader the reader of the queries
+     * @return the lines of the batch, null at the end of the input
+     * @throws IOException if the input cannot be read
+     */
+    private String[] readBatch(BufferedReader reader) throws IOException{
+
+        String line = reader.readLine();
+        if(line == null){
+            return null;
+        }
+        ArrayList<String> batch = new ArrayList<>();
+        batch.add(line);
+        while(batch.size() < BATCH_SIZE && reader.ready() && (line = reader.readLine()) != null){
+            batch.add(line);
+        }
+        return batch.toArray(new String[0]);
+    }
+
+    /**
+     * Answer a batch of queries
+     * @param batch the query lines
+     * @return the answer lines of the batch, each ending with a line break
+     */
+    private StringBuilder answer(String[] batch){
+        PathBuffer path = new PathBuffer();
+        StringBuilder answers = new StringBuilder(32 * batch.length);
+        for(String query : batch){
+            service.answer(query, path, answers, limit());
+            answers.append('\n');
+        }
+        return answers;
+    }
+
+    /**
+     * Create the limit of a query, starting now
+     * @return the limit of the next query, the shared NONE limit if the pipe has no limit
+     */
+    private SearchLimit limit(){
+        return queryTimeout == 0 && maxExpansions == 0 ? SearchLimit.NONE : new SearchLimit(queryTimeout, maxExpansions);
+    }
+
+}
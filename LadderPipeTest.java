@@ -0,0 +1,77 @@
+import org.junit.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import static org.junit.Assert.*;
+
+/**
+ * Testing class for LadderPipe
+ * @author Vo Linh Chi Dao
+ */
+public class LadderPipeTest{
+
+    String file2 = "src/LargeWordGraph";
+
+    /**
+     * Test that each query line gets its answer line, in order, with one thread or several
+     * @throws IOException if the streams cannot be used
+     */
+    @Test
+    public void run() throws IOException{
+
+        LadderEngine engine = LadderEngine.load(file2);
+        String[] queries = LoadGenerator.randomQueries(engine.getWords(), 2000, 42, "BFS");
+        queries[7] = "cold";
+        queries[11] = "cold warm DIJKSTRA";
+        queries[13] = "cold warm SIDEWAYS";
+
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for(String query : queries){
+            input.append(query).append('\n');
+            expected.append(engine.answer(query)).append('\n');
+        }
+        byte[] bytes = input.toString().getBytes(StandardCharsets.UTF_8);
+
+        for(int threads : new int[]{1, 4}){
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            long count = new LadderPipe(engine, threads, 0, 0).run(new ByteArrayInputStream(bytes), out);
+            assertEquals(queries.length,count);
+            assertEquals(expected.toString(),out.toString(StandardCharsets.UTF_8));
+        }
+
+        // Malformed lines keep the answers aligned
+        String[] answers = expected.toString().split("\n");
+        System.out.println(answers[7] + " / " + answers[13]);
+        assertTrue(answers[7].startsWith("ERROR"));
+        assertTrue(answers[13].startsWith("ERROR"));
+
+        // An empty input gives no answer
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(0,new LadderPipe(engine).run(new ByteArrayInputStream(new byte[0]), out));
+        assertEquals(0,out.size());
+    }
+
+    /**
+     * Test the limits of the queries and the settings of the pipe
+     * @throws IOException if the streams cannot be used
+     */
+    @Test
+    public void limit() throws IOException{
+
+        LadderEngine engine = LadderEngine.load(file2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new LadderPipe(engine, 2, 0, 5).run(new ByteArrayInputStream("cold warm\n".getBytes(StandardCharsets.UTF_8)), out);
+        assertEquals("TIMEOUT BUDGET_EXCEEDED\n",out.toString(StandardCharsets.UTF_8));
+
+        try{
+            new LadderPipe(engine, 0, 0, 0);
+            fail();
+        }
+        catch(IllegalArgumentException e){
+            System.out.println(e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,397 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class serving word ladder queries on a local socket.
+ * Each line sent by a client is a query "from to method" answered by one line,
+ * see LadderEngine.answer, by a LadderEngine or a ShardRouter forwarding it to a shard. The line "QUIT" closes the connection.
+ * Every connection is handled on its own thread: a virtual thread on JDK 21
+ * and later, otherwise a pooled platform thread, so the server also runs on JDK 17
+ * @author Vo Linh Chi Dao
+ */
+public class LadderServer implements Closeable{
+
+    /**
+     * Default maximum number of connections served at the same time
+     */
+    public static final int MAX_CONNECTIONS = 10000;
+
+    /**
+     * Default maximum number of bytes in a query line
+     */
+    public static final int MAX_LINE_LENGTH = 256;
+
+    /**
+     * Default time in milliseconds a connection may stay idle before it is closed
+     */
+    public static final int IDLE_TIMEOUT = 60000;
+
+    /**
+     * Default time in milliseconds a query may search before it is answered by TIMEOUT
+     */
+    public static final int QUERY_TIMEOUT = 1000;
+
+    /**
+     * Default number of nodes a query may expand, 0 for no budget
+     */
+    public static final int MAX_EXPANSIONS = 0;
+
+    /**
+     * Longest pause in milliseconds between two attempts to accept a connection after a failure
+     */
+    public static final int MAX_ACCEPT_BACKOFF = 1000;
+
+    /**
+     * The service answering the queries
+     */
+    private final LadderService service;
+
+    /**
+     * The socket accepting connections on the loopback address
+     */
+    private final ServerSocket serverSocket;
+
+    /**
+     * Permits for the connections served at the same time
+     */
+    private final Semaphore connections;
+
+    /**
+     * Maximum number of bytes in a query line
+     */
+    private final int maxLineLength;
+
+    /**
+     * Time in milliseconds a connection may stay idle before it is closed
+     */
+    private final int idleTimeout;
+
+    /**
+     * Time in milliseconds a query may search, 0 for no limit
+     */
+    private final int queryTimeout;
+
+    /**
+     * Number of nodes a query may expand, 0 for no budget
+     */
+    private final int maxExpansions;
+
+    /**
+     * Executor running one thread per connection
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Connections being served
+     */
+    private final Set<Socket> sockets;
+
+    /**
+     * Indicate if the server was closed
+     */
+    private volatile boolean closed;
+
+    /**
+     * Constructor binds a server with the default limits on the loopback address
+     * @param service the service answering the queries
+     * @param port the port to listen on, 0 to pick a free port
+     * @throws IOException if the port cannot be bound
+     */
+    public LadderServer(LadderService service, int port) throws IOException{
+        this(service, port, MAX_CONNECTIONS, MAX_LINE_LENGTH, IDLE_TIMEOUT);
+    }
+
+    /**
+     * Constructor binds a server on the loopback address
+     * @param service the service answering the queries
+     * @param port the port to listen on, 0 to pick a free port
+     * @param maxConnections maximum number of connections served at the same time
+     * @param maxLineLength maximum number of bytes in a query line
+     * @param idleTimeout time in milliseconds a connection may stay idle, 0 for no limit
+     * @throws IOException if the port cannot be bound
+     */
+    public LadderServer(LadderService service, int port, int maxConnections, int maxLineLength, int idleTimeout) throws IOException{
+        this(service, port, maxConnections, maxLineLength, idleTimeout, QUERY_TIMEOUT, MAX_EXPANSIONS);
+    }
+
+    /**
+     * Constructor binds a server on the loopback address whose queries are bounded,
+     * so one pathological query cannot hold its connection
+     * @param service the service answering the queries
+     * @param port the port to listen on, 0 to pick a free port
+     * @param maxConnections maximum number of connections served at the same time
+     * @param maxLineLength maximum number of bytes in a query line
+     * @param idleTimeout time in milliseconds a connection may stay idle, 0 for no limit
+     * @param queryTimeout time in milliseconds a query may search, 0 for no limit
+     * @param maxExpansions number of nodes a query may expand, 0 for no budget
+     * @throws IOException if the port cannot be bound
+     */
+    public LadderServer(LadderService service, int port, int maxConnections, int maxLineLength, int idleTimeout,
+                        int queryTimeout, int maxExpansions) throws IOException{
+        this.service = service;
+        this.serverSocket = new ServerSocket(port, maxConnections, InetAddress.getLoopbackAddress());
+        this.connections = new Semaphore(maxConnections);
+        this.maxLineLength = maxLineLength;
+        this.idleTimeout = idleTimeout;
+        this.queryTimeout = queryTimeout;
+        this.maxExpansions = maxExpansions;
+        this.executor = newThreadPerTaskExecutor("ladder-connection");
+        this.sockets = ConcurrentHashMap.newKeySet();
+        this.closed = false;
+    }
+
+    /**
+     * Create an executor running each task on its own thread: a virtual thread
+     * when the JDK provides them, from JDK 21, otherwise a daemon platform thread
+     * from a pool that reuses idle threads
+     * @param name prefix of the names of the platform threads
+     * @return an executor starting a thread for every task
+     */
+    static ExecutorService newThreadPerTaskExecutor(String name){
+        try{
+            // Looked up at run time so the class still compiles and runs on JDK 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch(ReflectiveOperationException e){
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Start accepting connections in the background
+     */
+    public void start(){
+        Thread thread = new Thread(this::run, "ladder-accept");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Retrieve the port the server listens on
+     * @return the local port of the server
+     */
+    public int getPort(){
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Stop accepting connections and close the server socket. Connections being
+     * served stop reading: each one sends the answers of the queries it already
+     * read, then is closed
+     */
+    @Override
+    public void close() throws IOException{
+        closed = true;
+        serverSocket.close();
+
+        // End the input of every connection, so a read waiting for the next query returns
+        for(Socket socket : sockets){
+            try{
+                socket.shutdownInput();
+            }
+            catch(IOException e){
+                // The client closed the connection already
+            }
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Accept connections on the calling thread until the server socket is closed.
+     * A failure to accept while the socket is open, such as running out of file
+     * descriptors, is reported and retried after a pause that doubles up to
+     * MAX_ACCEPT_BACKOFF milliseconds
+     */
+    public void run(){
+        int backoff = 0;
+        while(!serverSocket.isClosed()){
+            try{
+                Socket socket = serverSocket.accept();
+                // Refuse the connection if too many are being served
+                if(!connections.tryAcquire()){
+                    refuse(socket);
+                    continue;
+                }
+                executor.execute(() -> {
+                    try{
+                        serve(socket);
+                    }
+                    finally{
+                        connections.release();
+                    }
+                });
+                backoff = 0;
+            }
+            catch(IOException e){
+                // The server socket was closed
+                if(serverSocket.isClosed()){
+                    return;
+                }
+                // Otherwise report the failure and wait before accepting again
+                backoff = Math.min(MAX_ACCEPT_BACKOFF, Math.max(10, backoff * 2));
+                System.err.println("Failed to accept a connection, retrying in " + backoff + " ms: " + e);
+                try{
+                    Thread.sleep(backoff);
+                }
+                catch(InterruptedException interrupted){
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Tell a client the server is busy and close its connection
+     * @param socket the connection of the client
+     */
+    private void refuse(Socket socket){
+        try(socket){
+            socket.getOutputStream().write("ERROR server busy\n".getBytes(StandardCharsets.UTF_8));
+        }
+        catch(IOException e){
+            // The client is gone already
+        }
+    }
+
+    /**
+     * Answer the queries of one connection until the client closes it
+     * @param socket the connection of the client
+     */
+    private void serve(Socket socket){
+
+        sockets.add(socket);
+        try(socket){
+            // A connection accepted while the server was closing is not served
+            if(closed){
+                return;
+            }
+            socket.setSoTimeout(idleTimeout);
+            socket.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            // Ladder and answer of the current query, reused for every query of the connection
+            PathBuffer path = new PathBuffer();
+            StringBuilder answer = new StringBuilder();
+
+            // Answer each line until the end of the stream or until the server is closed
+            while(!closed && readLine(in, line)){
+                // Close connections sending lines longer than the limit
+                if(line.size() > maxLineLength){
+                    out.write("ERROR line too long\n".getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    return;
+                }
+                String query = line.toString(StandardCharsets.UTF_8);
+                if(query.trim().equals("QUIT")){
+                    break;
+                }
+                answer.setLength(0);
+                service.answer(query, path, answer, new SearchLimit(queryTimeout, maxExpansions));
+                answer.append('\n');
+                writeUtf8(answer, out);
+                // Send the answers once all pipelined queries are answered
+                if(in.available() == 0){
+                    out.flush();
+                }
+            }
+            out.flush();
+        }
+        catch(SocketTimeoutException e){
+            // The connection stayed idle for too long
+        }
+        catch(IOException e){
+            // The client closed the connection
+        }
+        finally{
+            sockets.remove(socket);
+        }
+    }
+
+    /**
+     * Write text encoded as UTF-8 without building a String or a byte array
+     * @param text the text written
+     * @param out the stream written to
+     * @throws IOException if the stream cannot be written
+     */
+    private static void writeUtf8(CharSequence text, OutputStream out) throws IOException{
+        for(int i = 0; i < text.length(); i++){
+            int c = text.charAt(i);
+            if(c < 0x80){
+                out.write(c);
+                continue;
+            }
+            // Surrogate pairs are combined into their code point
+            if(Character.isHighSurrogate((char) c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))){
+                c = Character.toCodePoint((char) c, text.charAt(++i));
+            }
+            else if(Character.isSurrogate((char) c)){
+                c = '?';
+            }
+            if(c < 0x80){
+                out.write(c);
+            }
+            else if(c < 0x800){
+                out.write(0xC0 | (c >> 6));
+                out.write(0x80 | (c & 0x3F));
+            }
+            else if(c < 0x10000){
+                out.write(0xE0 | (c >> 12));
+                out.write(0x80 | ((c >> 6) & 0x3F));
+                out.write(0x80 | (c & 0x3F));
+            }
+            else{
+                out.write(0xF0 | (c >> 18));
+                out.write(0x80 | ((c >> 12) & 0x3F));
+                out.write(0x80 | ((c >> 6) & 0x3F));
+                out.write(0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Read one line, without its line terminator. Reading stops one byte past
+     * the maximum line length so long lines are detected without being buffered
+     * @param in the stream read from
+     * @param line the buffer receiving the line
+     * @return false if the stream ended before a line was read
+     * @throws IOException if the stream cannot be read
+     */
+    private boolean readLine(InputStream in, ByteArrayOutputStream line) throws IOException{
+        line.reset();
+        int b = in.read();
+        if(b < 0){
+            return false;
+        }
+        while(b >= 0 && b != '\n' && line.size() <= maxLineLength){
+            if(b != '\r'){
+                line.write(b);
+            }
+            b = in.read();
+        }
+        return true;
+    }
+
+}
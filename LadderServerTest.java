@@ -0,0 +1,82 @@
+import org.junit.Test;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import static org.junit.Assert.*;
+
+/**
+ * Testing class for LadderEngine and LadderServer
+ * @author Vo Linh Chi Dao
+ */
+public class LadderServerTest{
+
+    String file1 = "src/text4.txt";
+
+    /**
+     * Test answer method
+     */
+    @Test
+    public void answer(){
+
+        LadderEngine engine = LadderEngine.load(file1);
+
+        // Find ladder between two connected words
+        String ladder = engine.answer("aah cat BFS");
+        System.out.println("Ladder between aah and cat: " + ladder);
+        assertTrue(ladder.startsWith("aah "));
+        assertTrue(ladder.endsWith(" cat"));
+        assertEquals("cat",engine.answer("cat cat"));
+        assertTrue(engine.answer(" aah  cat DFS ").endsWith(" cat"));
+        // Find ladder between non-existing words
+        assertEquals("NONE",engine.answer("aah zzzz"));
+        // Malformed queries
+        assertEquals("ERROR Unknown search method: AStar",engine.answer("aah cat AStar"));
+        assertTrue(engine.answer("aah").startsWith("ERROR"));
+    }
+
+    /**
+     * Test queries sent through a socket
+     */
+    @Test
+    public void serve() throws IOException{
+
+        LadderEngine engine = LadderEngine.load(file1);
+
+        try(LadderServer server = new LadderServer(engine, 0, 2, 16, 5000)){
+            server.start();
+
+            try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())){
+                PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+
+                // Pipelined queries are answered in order
+                out.print("aah cat\ncat aah DFS\n");
+                out.flush();
+                assertEquals(engine.answer("aah cat"),in.readLine());
+                assertEquals(engine.answer("cat aah DFS"),in.readLine());
+
+                // Lines longer than the limit close the connection
+                out.println("aah cat BFS and more");
+                assertEquals("ERROR line too long",in.readLine());
+                assertNull(in.readLine());
+            }
+        }
+
+        // Closing the server ends the connections it serves after their answers
+        LadderServer server = new LadderServer(engine, 0);
+        server.start();
+        try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())){
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            out.println("aah cat");
+            assertEquals(engine.answer("aah cat"),in.readLine());
+            socket.setSoTimeout(5000);
+            server.close();
+            assertNull(in.readLine());
+        }
+    }
+
+}
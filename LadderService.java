@@ -0,0 +1,17 @@
+/**
+ * Service answering word ladder query lines, see LadderEngine.answer.
+ * LadderServer serves any implementation on a local socket
+ * @author Vo Linh Chi Dao
+ */
+public interface LadderService{
+
+    /**
+     * Answer a query line of the form "from to method", appending the answer to a builder
+     * @param query the query line
+     * @param path the buffer receiving the ids of the words on the ladder, if the
+     * service searches the ladder itself
+     * @param builder the builder the answer is appended to
+     * @param limit the deadline, budget and cancellation of the search
+     */
+    void answer(String query, PathBuffer path, StringBuilder builder, SearchLimit limit);
+}
@@ -0,0 +1,331 @@
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Class answering word ladder queries on a graph written by
+ * GraphPartition.writeIndexed, loading a shard only when a query first
+ * touches one of its words. Opening the engine only reads the index of the
+ * words. Loaded shards are kept from the least to the most recently used, and
+ * the least recently used are dropped once they hold more than a byte budget;
+ * a dropped shard is read again by the next query that needs it. A shard is
+ * read outside the lock of the engine, so queries of loaded shards never wait
+ * for a load, and concurrent queries of the same cold shard share one load
+ * @author Vo Linh Chi Dao
+ */
+public class LazyLadderEngine implements LadderService{
+
+    /**
+     * The file holding the shards one after another
+     */
+    private final String filename;
+
+    /**
+     * Byte offset of each shard in the file
+     */
+    private final long[] offsets;
+
+    /**
+     * Byte length of each shard in the file
+     */
+    private final int[] lengths;
+
+    /**
+     * Index of the words of every shard
+     */
+    private final WordArena index;
+
+    /**
+     * Shard of each word of the index
+     */
+    private final int[] shardOfWord;
+
+    /**
+     * Engine answering the queries whose words are in no shard
+     */
+    private final LadderEngine empty;
+
+    /**
+     * Bytes the loaded shards may hold before the least recently used are dropped
+     */
+    private final long maxBytes;
+
+    /**
+     * Loaded shards, from the least to the most recently used
+     */
+    private final LinkedHashMap<Integer,LadderEngine> loaded;
+
+    /**
+     * Load of each shard being read, completed with its engine
+     */
+    private final HashMap<Integer,CompletableFuture<LadderEngine>> loading;
+
+    /**
+     * Bytes held by each shard while it is loaded
+     */
+    private final long[] shardBytes;
+
+    /**
+     * Bytes held by the loaded shards
+     */
+    private long residentBytes;
+
+    /**
+     * Number of times a shard was read from the file
+     */
+    private int loads;
+
+    /**
+     * Constructor initializes an engine from the index of its shards
+     * @param filename the file holding the shards one after another
+     * @param offsets byte offset of each shard in the file
+     * @param lengths byte length of each shard in the file
+     * @param index index of the words of every shard
+     * @param shardOfWord shard of each word of the index
+     * @param maxBytes bytes the loaded shards may hold, 0 for no limit
+     */
+    private LazyLadderEngine(String filename, long[] offsets, int[] lengths, WordArena index, int[] shardOfWord, long maxBytes){
+        this.filename = filename;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.index = index;
+        this.shardOfWord = shardOfWord;
+        this.empty = new LadderEngine(CompressedGraph.fromAdjacency(new int[0][], new String[0]));
+        this.maxBytes = maxBytes <= 0 ? Long.MAX_VALUE : maxBytes;
+        this.loaded = new LinkedHashMap<>(16, 0.75f, true);
+        this.loading = new HashMap<>();
+        this.shardBytes = new long[offsets.length];
+    }
+
+    /**
+     * Open a graph written by GraphPartition.writeIndexed, reading only its index
+     * @param filename the file holding the shards, whose index is the file followed by ".index"
+     * @param maxBytes bytes the loaded shards may hold before the least recently used
+     * are dropped, 0 for no limit. The shard used by a query is kept even if it
+     * alone holds more
+     * @return an engine loading the shards on demand
+     */
+    public static LazyLadderEngine open(String filename, long maxBytes){
+
+        try(BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(filename + ".index"), StandardCharsets.UTF_8))){
+
+            // Byte range of each shard
+            int numShards = Integer.parseInt(reader.readLine().trim());
+            long[] offsets = new long[numShards];
+            int[] lengths = new int[numShards];
+            int numWords = 0;
+            for(int shard = 0; shard < numShards; shard++){
+                String[] line = reader.readLine().trim().split(" ");
+                offsets[shard] = Long.parseLong(line[0]);
+                lengths[shard] = Integer.parseInt(line[1]);
+                numWords += Integer.parseInt(line[2]);
+            }
+
+            // Index 0 store the word, index 1 store its shard
+            String[] words = new String[numWords];
+            int[] ids = new int[numWords];
+            for(int i = 0; i < numWords; i++){
+                String[] line = reader.readLine().trim().split(" ");
+                words[i] = line[0];
+                ids[i] = Integer.parseInt(line[1]);
+            }
+
+            return new LazyLadderEngine(filename, offsets, lengths, WordArena.fromWords(words), ids, maxBytes);
+        }
+        // Throw an error if the input file is inappropriate
+        catch(IOException e){
+            throw new RuntimeException();
+        }
+    }
+
+    /**
+     * Retrieve the number of shards
+     * @return number of shards in the file
+     */
+    public int getNumShards(){
+        return offsets.length;
+    }
+
+    /**
+     * Retrieve the shard holding a word
+     * @param word the word
+     * @return the shard of the word, -1 if no shard holds it
+     */
+    public int shardOf(CharSequence word){
+        int id = index.find(word);
+        return id < 0 ? -1 : shardOfWord[id];
+    }
+
+    /**
+     * Retrieve the engine of a shard, reading the shard if it is not loaded
+     * and dropping the least recently used shards above the byte budget
+     * @param shard the shard
+     * @return the engine answering the queries of the shard
+     */
+    public LadderEngine shard(int shard){
+
+        // Find the loaded engine, or join the load of the shard, or start it
+        CompletableFuture<LadderEngine> load;
+        boolean reader = false;
+        synchronized(this){
+            LadderEngine engine = loaded.get(shard);
+            if(engine != null){
+                return engine;
+            }
+            load = loading.get(shard);
+            if(load == null){
+                load = new CompletableFuture<>();
+                loading.put(shard, load);
+                reader = true;
+            }
+        }
+
+        // Wait for the thread reading the shard
+        if(!reader){
+            try{
+                return load.join();
+            }
+            catch(CompletionException e){
+                throw (RuntimeException) e.getCause();
+            }
+        }
+
+        // Read the shard without holding the lock
+        try{
+            CompressedGraph graph = read(shard);
+            LadderEngine engine = new LadderEngine(graph);
+            store(shard, engine, graph.adjacencyBytes() + graph.getWords().footprintBytes());
+            load.complete(engine);
+            return engine;
+        }
+        catch(RuntimeException e){
+            synchronized(this){
+                loading.remove(shard);
+            }
+            load.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Read the bytes of a shard and build its graph
+     * @param shard the shard
+     * @return the graph of the shard
+     */
+    private CompressedGraph read(int shard){
+
+        // Read the bytes of the shard and build its graph
+        CompressedGraph graph;
+        try(RandomAccessFile file = new RandomAccessFile(filename, "r")){
+            byte[] bytes = new byte[lengths[shard]];
+            file.seek(offsets[shard]);
+            file.readFully(bytes);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8));
+            graph = CompressedGraph.readWordGraph(reader).reorder(NodeOrdering.BFS);
+        }
+        // Throw an error if the input file is inappropriate
+        catch(IOException e){
+            throw new RuntimeException();
+        }
+        return graph;
+    }
+
+    /**
+     * Keep the engine of a shard just read, dropping the least recently used
+     * shards until it fits
+     * @param shard the shard
+     * @param engine the engine of the shard
+     * @param bytes bytes held by the shard while it is loaded
+     */
+    private synchronized void store(int shard, LadderEngine engine, long bytes){
+
+        loads++;
+        loading.remove(shard);
+
+        // Drop the least recently used shards until the new one fits
+        shardBytes[shard] = bytes;
+        residentBytes += shardBytes[shard];
+        Iterator<Map.Entry<Integer,LadderEngine>> eldest = loaded.entrySet().iterator();
+        while(residentBytes > maxBytes && eldest.hasNext()){
+            residentBytes -= shardBytes[eldest.next().getKey()];
+            eldest.remove();
+        }
+        loaded.put(shard, engine);
+    }
+
+    /**
+     * Retrieve the shards currently loaded
+     * @return the loaded shards, from the least to the most recently used
+     */
+    public synchronized int[] loadedShards(){
+        int[] shards = new int[loaded.size()];
+        int i = 0;
+        for(int shard : loaded.keySet()){
+            shards[i++] = shard;
+        }
+        return shards;
+    }
+
+    /**
+     * Retrieve the bytes held by the loaded shards
+     * @return bytes of the adjacency lists and words of the loaded shards
+     */
+    public synchronized long getResidentBytes(){
+        return residentBytes;
+    }
+
+    /**
+     * Retrieve the number of times a shard was read from the file
+     * @return number of shard loads, counting each reload after a drop
+     */
+    public synchronized int getLoads(){
+        return loads;
+    }
+
+    /**
+     * Answer a query line as LadderEngine.answer does, on the shard holding its two words
+     * @param query the query line
+     * @param path the buffer receiving the ids of the words on the ladder
+     * @param builder the builder the answer is appended to
+     * @param limit the deadline, budget and cancellation of the search
+     */
+    @Override
+    public void answer(String query, PathBuffer path, StringBuilder builder, SearchLimit limit){
+
+        // Shards share no edge, so only a query whose two words are in the same shard
+        // may have a ladder. The others, and malformed queries, are answered without
+        // loading any shard
+        String[] tokens = query.trim().split("\\s+");
+        int shard = -1;
+        if(tokens.length == 2 || tokens.length == 3){
+            shard = shardOf(tokens[0]);
+            if(shard != shardOf(tokens[1])){
+                shard = -1;
+            }
+        }
+        (shard < 0 ? empty : shard(shard)).answer(query, path, builder, limit);
+    }
+
+    /**
+     * Answer a query line as LadderEngine.answer does
+     * @param query the query line
+     * @return the words of the ladder separated by spaces, "NONE" if there is
+     * no ladder, or "ERROR" followed by the reason if the query is malformed
+     */
+    public String answer(String query){
+        StringBuilder builder = new StringBuilder();
+        answer(query, new PathBuffer(), builder, SearchLimit.NONE);
+        return builder.toString();
+    }
+
+}
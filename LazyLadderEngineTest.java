@@ -0,0 +1,99 @@
+import org.junit.Test;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import static org.junit.Assert.*;
+
+/**
+ * Testing class for LazyLadderEngine and GraphPartition.writeIndexed
+ * @author Vo Linh Chi Dao
+ */
+public class LazyLadderEngineTest{
+
+    String file2 = "src/LargeWordGraph";
+
+    /**
+     * Test that shards are loaded on first use and dropped above the budget
+     */
+    @Test
+    public void answer() throws IOException, InterruptedException{
+
+        File directory = Files.createTempDirectory("parts").toFile();
+        File parts = new File(directory, "LargeWordGraph.parts");
+        try{
+            CompressedGraph graph = CompressedGraph.readWordGraph(file2);
+            GraphPartition partition = GraphPartition.byComponent(graph, 4);
+            partition.writeIndexed(parts.getPath());
+            LadderEngine whole = LadderEngine.load(file2);
+
+            LazyLadderEngine e1 = LazyLadderEngine.open(parts.getPath(), 0);
+            assertEquals(4,e1.getNumShards());
+            assertEquals(0,e1.getLoads());
+
+            // Words of no shard and malformed queries load nothing
+            assertEquals("NONE",e1.answer("zzzzzz qqqqqq"));
+            assertEquals("NONE",e1.answer("cold zzzzzz"));
+            assertTrue(e1.answer("cold").startsWith("ERROR"));
+            assertEquals(0,e1.getLoads());
+
+            // The first query of a shard loads it, the next ones reuse it
+            String[] queries = {"cold warm","head tail DIJKSTRA","cold warm DFS"};
+            for(String query : queries){
+                String ladder = e1.answer(query);
+                System.out.println(query + ": " + ladder.split(" ").length + " words");
+                assertEquals(whole.answer(query).split(" ").length,ladder.split(" ").length);
+            }
+            assertEquals(1,e1.getLoads());
+            assertEquals(e1.shardOf("cold"),partition.shardOf(graph.getWords().find("cold")));
+
+            // Find a word in each of two other shards
+            String[] others = new String[2];
+            for(int node = 0, found = 0; node < graph.getNumNodes() && found < 2; node++){
+                int shard = partition.shardOf(node);
+                if(shard >= 0 && shard != e1.shardOf("cold") && (found == 0 || shard != e1.shardOf(others[0]))){
+                    others[found++] = graph.getValue(node);
+                }
+            }
+            // Words of two shards cannot be linked, so neither is loaded
+            assertEquals("NONE",e1.answer("cold " + others[0]));
+            assertEquals(1,e1.getLoads());
+            e1.answer(others[0] + " " + others[0]);
+            e1.answer(others[1] + " " + others[1]);
+            assertEquals(3,e1.getLoads());
+            assertEquals(3,e1.loadedShards().length);
+
+            // A budget of one byte keeps only the shard in use
+            LazyLadderEngine e2 = LazyLadderEngine.open(parts.getPath(), 1);
+            e2.answer("cold warm");
+            e2.answer(others[0] + " " + others[0]);
+            e2.answer("cold warm");
+            assertEquals(3,e2.getLoads());
+            assertArrayEquals(new int[]{e2.shardOf("cold")},e2.loadedShards());
+            System.out.println("Resident bytes of one shard: " + e2.getResidentBytes());
+
+            // Threads asking for the same cold shard share one load
+            LazyLadderEngine e3 = LazyLadderEngine.open(parts.getPath(), 0);
+            int shard = e3.shardOf("cold");
+            LadderEngine[] engines = new LadderEngine[4];
+            Thread[] threads = new Thread[engines.length];
+            for(int t = 0; t < threads.length; t++){
+                int id = t;
+                threads[t] = new Thread(() -> engines[id] = e3.shard(shard));
+                threads[t].start();
+            }
+            for(Thread thread : threads){
+                thread.join();
+            }
+            assertEquals(1,e3.getLoads());
+            for(LadderEngine engine : engines){
+                assertSame(engines[0],engine);
+            }
+        }
+        finally{
+            parts.delete();
+            new File(parts.getPath() + ".index").delete();
+            directory.delete();
+        }
+    }
+
+}
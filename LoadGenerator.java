@@ -0,0 +1,342 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Class replaying word ladder queries against a LadderService from many
+ * threads at a target rate, and measuring the throughput and the latency
+ * percentiles. Each query is due at a fixed time after the start of the run,
+ * and its latency is measured from that time rather than from when a thread
+ * got to send it, so a slow service is charged for the queries it delays
+ * @author Vo Linh Chi Dao
+ */
+public class LoadGenerator{
+
+    /**
+     * The service answering the queries
+     */
+    private final LadderService service;
+
+    /**
+     * The query lines replayed, in order and over again
+     */
+    private final String[] queries;
+
+    /**
+     * Constructor initializes a generator replaying the specified queries
+     * @param service the service answering the queries
+     * @param queries the query lines replayed
+     * @throws IllegalArgumentException if there is no query
+     */
+    public LoadGenerator(LadderService service, String[] queries){
+        if(queries.length == 0){
+            throw new IllegalArgumentException("No query to replay");
+        }
+        this.service = service;
+        this.queries = queries.clone();
+    }
+
+    /**
+     * Run the generator from the command line
+     * @param args the "word graph" file, then optionally the rate in queries per
+     *             second (0 for as fast as possible), the number of threads, the number of
+     *             queries, a query log file or "random", and the port of a LadderServer
+     *             answering the queries instead of an engine loaded in this process
+     */
+    public static void main(String[] args){
+
+        String filename = args[0];
+        double rate = args.length > 1 ? Double.parseDouble(args[1]) : 0;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int count = args.length > 3 ? Integer.parseInt(args[3]) : 10000;
+        String log = args.length > 4 ? args[4] : "random";
+
+        // Answer the queries in this process unless a server port is given
+        LadderService service = args.length > 5 ? ShardRouter.connect(Integer.parseInt(args[5])) : LadderEngine.load(filename);
+        String[] queries = log.equals("random") ? randomQueries(WordArena.readWords(filename), 1000, 42, "BFS") : readQueries(log);
+
+        System.out.println(new LoadGenerator(service, queries).run(rate, threads, count));
+    }
+
+    /**
+     * Read a query log holding one query line per line, skipping blank lines
+     * @param filename the query log
+     * @return the query lines of the log
+     */
+    public static String[] readQueries(String filename){
+
+        try(BufferedReader reader = new BufferedReader(new FileReader(filename))){
+
+            // Query lines, grown on demand
+            String[] queries = new String[1024];
+            int numQueries = 0;
+
+            // Store the current line of the text
+            String current = reader.readLine();
+
+            // Trace through each line of the text
+            while(current != null){
+                if(!current.trim().isEmpty()){
+                    if(numQueries == queries.length){
+                        queries = Arrays.copyOf(queries, queries.length * 2);
+                    }
+                    queries[numQueries++] = current.trim();
+                }
+
+                // Update to the next line
+                current = reader.readLine();
+            }
+
+            return Arrays.copyOf(queries, numQueries);
+        }
+        // Throw an error if the input file is inappropriate
+        catch(IOException e){
+            throw new RuntimeException();
+        }
+    }
+
+    /**
+     * Generate queries between random pairs of words of the same length
+     * @param words the words picked from
+     * @param count number of queries
+     * @param seed seed of the random generator
+     * @param method the search method of every query
+     * @return the query lines
+     */
+    public static String[] randomQueries(WordStore words, int count, long seed, String method){
+        Random random = new Random(seed);
+        String[] queries = new String[count];
+        for(int i = 0; i < count; i++){
+            int from;
+            int to;
+            // Words of different lengths are rarely connected, so skip them
+            do{
+                from = random.nextInt(words.size());
+                to = random.nextInt(words.size());
+            }
+            while(words.length(from) == 0 || words.length(from) != words.length(to));
+            queries[i] = words.getWord(from) + " " + words.getWord(to) + " " + method;
+        }
+        return queries;
+    }
+
+    /**
+     * Replay the queries until the specified number is answered
+     * @param rate queries started per second, 0 to start each query as soon as a thread is free
+     * @param threads number of threads sending queries
+     * @param count number of queries answered, the queries are replayed over again if needed
+     * @return the measurements of the run
+     * @throws IllegalArgumentException if the rate is negative or there is no thread
+     */
+    public Report run(double rate, int threads, int count){
+
+        if(rate < 0 || threads < 1){
+            throw new IllegalArgumentException("Rate must not be negative and threads must be positive");
+        }
+
+        // Latency of each query in nanoseconds, and the number of each kind of answer
+        long[] latencies = new long[count];
+        LongAdder none = new LongAdder();
+        LongAdder timeouts = new LongAdder();
+        LongAdder errors = new LongAdder();
+        AtomicLong next = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for(int t = 0; t < threads; t++){
+            executor.execute(() -> {
+                // Ladder and answer of the current query, reused by the thread
+                PathBuffer path = new PathBuffer();
+                StringBuilder answer = new StringBuilder();
+                for(long i = next.getAndIncrement(); i < count; i = next.getAndIncrement()){
+
+                    // Wait until the query is due
+                    long due = rate > 0 ? start + (long) (i * 1e9 / rate) : System.nanoTime();
+                    for(long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()){
+                        LockSupport.parkNanos(wait);
+                    }
+
+                    // A query failing with an exception counts as an error, and the thread goes on
+                    answer.setLength(0);
+                    boolean failed = false;
+                    try{
+                        service.answer(queries[(int) (i % queries.length)], path, answer, SearchLimit.NONE);
+                    }
+                    catch(RuntimeException e){
+                        failed = true;
+                    }
+                    latencies[(int) i] = System.nanoTime() - due;
+
+                    // Count the answers that are not ladders
+                    if(failed){
+                        errors.increment();
+                    }
+                    else if(startsWith(answer, "NONE")){
+                        none.increment();
+                    }
+                    else if(startsWith(answer, "TIMEOUT")){
+                        timeouts.increment();
+                    }
+                    else if(startsWith(answer, "ERROR")){
+                        errors.increment();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        try{
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        catch(InterruptedException e){
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Report(latencies, elapsed, none.sum(), timeouts.sum(), errors.sum());
+    }
+
+    /**
+     * Check if an answer starts with the specified word
+     * @param answer the answer
+     * @param prefix the word
+     * @return true if the answer starts with the word
+     */
+    private static boolean startsWith(StringBuilder answer, String prefix){
+        if(answer.length() < prefix.length()){
+            return false;
+        }
+        for(int i = 0; i < prefix.length(); i++){
+            if(answer.charAt(i) != prefix.charAt(i)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Measurements of a run: the throughput, the latency of every query and the number of each kind of answer
+     */
+    public static class Report{
+
+        /**
+         * Latency of every query in nanoseconds, sorted
+         */
+        private final long[] latencies;
+
+        /**
+         * Nanoseconds taken by the run
+         */
+        private final long elapsed;
+
+        /**
+         * Number of queries answered by NONE
+         */
+        private final long none;
+
+        /**
+         * Number of queries answered by TIMEOUT
+         */
+        private final long timeouts;
+
+        /**
+         * Number of queries answered by ERROR or failed with an exception
+         */
+        private final long errors;
+
+        /**
+         * Constructor initializes the measurements of a run
+         * @param latencies latency of every query in nanoseconds, sorted
+         * @param elapsed nanoseconds taken by the run
+         * @param none number of queries answered by NONE
+         * @param timeouts number of queries answered by TIMEOUT
+         * @param errors number of queries answered by ERROR or failed with an exception
+         */
+        Report(long[] latencies, long elapsed, long none, long timeouts, long errors){
+            this.latencies = latencies;
+            this.elapsed = elapsed;
+            this.none = none;
+            this.timeouts = timeouts;
+            this.errors = errors;
+        }
+
+        /**
+         * Retrieve the number of queries answered
+         * @return number of queries of the run
+         */
+        public int getCount(){
+            return latencies.length;
+        }
+
+        /**
+         * Retrieve the number of queries answered per second
+         * @return the throughput of the run
+         */
+        public double throughput(){
+            return elapsed == 0 ? 0 : latencies.length * 1e9 / elapsed;
+        }
+
+        /**
+         * Retrieve a latency percentile, the smallest latency at least the specified fraction of the queries did not exceed
+         * @param fraction the fraction of the queries, between 0 and 1
+         * @return the latency in nanoseconds, 0 if no query was answered
+         * @throws IllegalArgumentException if the fraction is not between 0 and 1
+         */
+        public long percentile(double fraction){
+            if(fraction < 0 || fraction > 1){
+                throw new IllegalArgumentException("Fraction must be between 0 and 1: " + fraction);
+            }
+            if(latencies.length == 0){
+                return 0;
+            }
+            int rank = (int) Math.ceil(fraction * latencies.length);
+            return latencies[Math.max(rank, 1) - 1];
+        }
+
+        /**
+         * Retrieve the number of queries answered by NONE
+         * @return number of queries without ladder
+         */
+        public long getNone(){
+            return none;
+        }
+
+        /**
+         * Retrieve the number of queries answered by TIMEOUT
+         * @return number of queries stopped early
+         */
+        public long getTimeouts(){
+            return timeouts;
+        }
+
+        /**
+         * Retrieve the number of queries answered by ERROR or failed with an exception
+         * @return number of malformed or failed queries
+         */
+        public long getErrors(){
+            return errors;
+        }
+
+        /**
+         * Describe the run on two lines
+         * @return the throughput, the answers and the latency percentiles
+         */
+        @Override
+        public String toString(){
+            return String.format("%d queries: %.0f queries/s, %d NONE, %d TIMEOUT, %d ERROR%n"
+                            + "latency p50 %.3f ms, p99 %.3f ms, p999 %.3f ms, max %.3f ms",
+                    latencies.length, throughput(), none, timeouts, errors,
+                    percentile(0.5) / 1e6, percentile(0.99) / 1e6, percentile(0.999) / 1e6, percentile(1) / 1e6);
+        }
+    }
+
+}
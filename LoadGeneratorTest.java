@@ -0,0 +1,84 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Testing class for LoadGenerator
+ * @author Vo Linh Chi Dao
+ */
+public class LoadGeneratorTest{
+
+    String file1 = "src/text4.txt";
+
+    /**
+     * Test run method with and without a target rate
+     */
+    @Test
+    public void run(){
+
+        LadderEngine engine = LadderEngine.load(file1);
+        String[] queries = {"aah cat","cat dog DFS","aah zzzz","aah cat AStar"};
+        LoadGenerator g1 = new LoadGenerator(engine, queries);
+
+        // As fast as possible, every query is answered once per replay
+        LoadGenerator.Report r1 = g1.run(0, 4, 400);
+        System.out.println(r1);
+        assertEquals(400,r1.getCount());
+        assertEquals(100,r1.getNone());
+        assertEquals(100,r1.getErrors());
+        assertEquals(0,r1.getTimeouts());
+        assertTrue(r1.percentile(0.5) <= r1.percentile(0.99));
+        assertTrue(r1.percentile(0.99) <= r1.percentile(1));
+
+        // At 500 queries per second, 100 queries take about 200 ms
+        LoadGenerator.Report r2 = g1.run(500, 2, 100);
+        System.out.println(r2);
+        assertTrue(r2.throughput() <= 520);
+
+        // Random pairs of the same length
+        String[] random = LoadGenerator.randomQueries(engine.getWords(), 50, 42, "BFS");
+        assertEquals(50,random.length);
+        assertTrue(random[0].endsWith(" BFS"));
+        LoadGenerator.Report r3 = new LoadGenerator(engine, random).run(0, 1, 50);
+        assertEquals(0,r3.getErrors());
+
+        // Queries failing with an exception are counted as errors and timed
+        LoadGenerator g4 = new LoadGenerator((query, path, builder, limit) -> {
+            if(query.startsWith("aah")){
+                throw new IllegalStateException("failed " + query);
+            }
+            engine.answer(query, path, builder, limit);
+        }, queries);
+        LoadGenerator.Report r4 = g4.run(0, 2, 40);
+        assertEquals(40,r4.getCount());
+        assertEquals(30,r4.getErrors());
+        assertTrue(r4.percentile(0) > 0);
+
+        try{
+            r3.percentile(1.5);
+            fail();
+        }
+        catch(IllegalArgumentException e){
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Test percentile method on known latencies
+     */
+    @Test
+    public void percentile(){
+
+        long[] latencies = new long[1000];
+        for(int i = 0; i < latencies.length; i++){
+            latencies[i] = i + 1;
+        }
+        LoadGenerator.Report r1 = new LoadGenerator.Report(latencies, 1000000000L, 0, 0, 0);
+        assertEquals(500,r1.percentile(0.5));
+        assertEquals(990,r1.percentile(0.99));
+        assertEquals(999,r1.percentile(0.999));
+        assertEquals(1000,r1.percentile(1));
+        assertEquals(1,r1.percentile(0));
+        assertEquals(1000,r1.throughput(),1e-9);
+    }
+
+}
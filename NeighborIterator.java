@@ -0,0 +1,24 @@
+/**
+ * Reusable iterator over the neighbors of a node in an IntAdjacency
+ * @author Vo Linh Chi Dao
+ */
+public interface NeighborIterator{
+
+    /**
+     * Position the iterator at the first neighbor of the specified node
+     * @param node id of the node whose neighbors will be iterated
+     */
+    void reset(int node);
+
+    /**
+     *
+     * @return true if there are neighbors left to visit
+     */
+    boolean hasNext();
+
+    /**
+     *
+     * @return id of the next neighbor
+     */
+    int nextNeighbor();
+}
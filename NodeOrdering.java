@@ -0,0 +1,195 @@
+import java.util.Arrays;
+
+/**
+ * Orderings of the nodes of a graph applied when it is loaded, so that nodes
+ * visited together by a search are stored close to each other
+ * @author Vo Linh Chi Dao
+ */
+public enum NodeOrdering{
+
+    /**
+     * Keep the ids of the file
+     */
+    NONE,
+
+    /**
+     * Number the nodes in breadth-first order, one component after another
+     */
+    BFS,
+
+    /**
+     * Reverse Cuthill-McKee: breadth-first order starting from a node of lowest
+     * degree and visiting neighbors by increasing degree, then reversed
+     */
+    RCM,
+
+    /**
+     * Number the nodes by decreasing degree so the hubs share a few cache lines
+     */
+    DEGREE;
+
+    /**
+     * Compute the order of the nodes of a graph
+     * @param graph the graph being reordered
+     * @return the old id of each new id, or null to keep the ids of the graph
+     */
+    public int[] order(CompressedGraph graph){
+
+        switch(this){
+            case BFS:
+                return breadthFirst(graph, false);
+            case RCM:
+                int[] order = breadthFirst(graph, true);
+                // Reverse the Cuthill-McKee order
+                for(int i = 0, j = order.length - 1; i < j; i++, j--){
+                    int swap = order[i];
+                    order[i] = order[j];
+                    order[j] = swap;
+                }
+                return order;
+            case DEGREE:
+                return byDegree(graph);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Number the nodes in breadth-first order, one component after another
+     * @param graph the graph being reordered
+     * @param byDegree true to start each component at its lowest degree node and
+     *                 visit neighbors by increasing degree
+     * @return the old id of each new id
+     */
+    private static int[] breadthFirst(CompressedGraph graph, boolean byDegree){
+
+        int n = graph.getNumNodes();
+        // Degree of each node
+        int[] degree = new int[n];
+        for(int i = 0; i < n; i++){
+            degree[i] = graph.degree(i);
+        }
+
+        // Candidate start nodes, by increasing degree if requested
+        int[] starts = byDegree ? sortByDegree(degree, true) : identity(n);
+
+        // The order doubles as the BFS queue
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        // Neighbors of the current node, sorted by degree
+        int[] neighbors = new int[16];
+        NeighborIterator it = graph.neighborIterator();
+        int tail = 0;
+
+        for(int start : starts){
+            if(visited[start]){
+                continue;
+            }
+            visited[start] = true;
+            int head = tail;
+            order[tail++] = start;
+
+            // Trace through the component of the start node
+            while(head < tail){
+                int current = order[head++];
+
+                // Collect the unvisited neighbors of the current node
+                int count = 0;
+                it.reset(current);
+                while(it.hasNext()){
+                    int next = it.nextNeighbor();
+                    if(!visited[next]){
+                        visited[next] = true;
+                        if(count == neighbors.length){
+                            neighbors = Arrays.copyOf(neighbors, count * 2);
+                        }
+                        neighbors[count++] = next;
+                    }
+                }
+
+                // Visit neighbors of lower degree first
+                if(byDegree){
+                    insertionSortByDegree(neighbors, count, degree);
+                }
+                System.arraycopy(neighbors, 0, order, tail, count);
+                tail += count;
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Number the nodes by decreasing degree, keeping the id order among equal degrees
+     * @param graph the graph being reordered
+     * @return the old id of each new id
+     */
+    private static int[] byDegree(CompressedGraph graph){
+        int[] degree = new int[graph.getNumNodes()];
+        for(int i = 0; i < degree.length; i++){
+            degree[i] = graph.degree(i);
+        }
+        return sortByDegree(degree, false);
+    }
+
+    /**
+     * Sort the node ids by degree with a counting sort, which keeps the id order
+     * among nodes of equal degree
+     * @param degree degree of each node
+     * @param ascending true to sort by increasing degree
+     * @return the node ids sorted by degree
+     */
+    private static int[] sortByDegree(int[] degree, boolean ascending){
+
+        int max = 0;
+        for(int d : degree){
+            max = Math.max(max, d);
+        }
+
+        // Count the nodes of each degree and turn the counts into starting positions
+        int[] start = new int[max + 2];
+        for(int d : degree){
+            start[(ascending ? d : max - d) + 1]++;
+        }
+        for(int i = 1; i < start.length; i++){
+            start[i] += start[i - 1];
+        }
+
+        int[] sorted = new int[degree.length];
+        for(int i = 0; i < degree.length; i++){
+            sorted[start[ascending ? degree[i] : max - degree[i]]++] = i;
+        }
+        return sorted;
+    }
+
+    /**
+     * Sort the first nodes of an array by increasing degree
+     * @param nodes the nodes being sorted
+     * @param count number of nodes to sort
+     * @param degree degree of each node
+     */
+    private static void insertionSortByDegree(int[] nodes, int count, int[] degree){
+        for(int i = 1; i < count; i++){
+            int node = nodes[i];
+            int j = i - 1;
+            while(j >= 0 && degree[nodes[j]] > degree[node]){
+                nodes[j + 1] = nodes[j];
+                j--;
+            }
+            nodes[j + 1] = node;
+        }
+    }
+
+    /**
+     * Create the identity order
+     * @param n number of nodes
+     * @return the ids from 0 to n - 1
+     */
+    private static int[] identity(int n){
+        int[] ids = new int[n];
+        for(int i = 0; i < n; i++){
+            ids[i] = i;
+        }
+        return ids;
+    }
+
+}
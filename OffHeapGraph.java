@@ -0,0 +1,209 @@
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Class representing an immutable, undirected word graph stored outside the
+ * Java heap. The adjacency lists keep the varint encoding of CompressedGraph,
+ * copied into direct buffers together with their offset table, and the words
+ * are held by OffHeapWords. The heap only keeps a few small objects per graph,
+ * so loading large dictionaries neither grows the heap nor lengthens the
+ * pauses of the garbage collector, which never scans the buffers
+ * @author Vo Linh Chi Dao
+ */
+public class OffHeapGraph implements IntAdjacency{
+
+    /**
+     * Number of node ids in the graph
+     */
+    private final int numNodes;
+
+    /**
+     * Number of directed entries in the adjacency lists, each undirected edge counts twice
+     */
+    private final int numEdges;
+
+    /**
+     * Offset of the first encoded neighbor of each node, offsets[numNodes] is the end
+     */
+    private final IntBuffer offsets;
+
+    /**
+     * Varint encoded gaps between neighbors
+     */
+    private final ByteBuffer edges;
+
+    /**
+     * Word stored in each node
+     */
+    private final OffHeapWords words;
+
+    /**
+     * Constructor copies the encoded adjacency lists and the words of a graph outside the heap
+     * @param offsets offset of the first encoded neighbor of each node
+     * @param edges varint encoded gaps between neighbors
+     * @param numEdges number of directed entries in the adjacency lists
+     * @param words word stored in each node
+     */
+    OffHeapGraph(int[] offsets, byte[] edges, int numEdges, WordArena words){
+        this.numNodes = offsets.length - 1;
+        this.numEdges = numEdges;
+        this.offsets = OffHeapWords.allocate(4L * offsets.length).asIntBuffer().put(offsets);
+        this.edges = OffHeapWords.allocate(edges.length).put(edges);
+        this.words = new OffHeapWords(words);
+    }
+
+    /**
+     * Construct an off-heap graph from the specified "word graph" file.
+     * The nodes are stored in breadth-first order, as LadderEngine.load does
+     * @param filename the "word graph" file
+     * @return a graph based on the specified input file, stored outside the heap
+     */
+    public static OffHeapGraph readWordGraph(String filename){
+        return CompressedGraph.readWordGraph(filename, NodeOrdering.BFS).toOffHeap();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumNodes(){
+        return numNodes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNode(int node){
+        return node >= 0 && node < numNodes && node < words.size() && words.length(node) > 0;
+    }
+
+    /**
+     * Retrieve number of directed entries in the adjacency lists
+     * @return number of directed entries, each undirected edge counts twice
+     */
+    public int getNumEdges(){
+        return numEdges;
+    }
+
+    /**
+     * Retrieve the word stored in the specified node
+     * @param node id of the node
+     * @return the word stored in the node, null if the node id is not used
+     */
+    public String getValue(int node){
+        return words.getWord(node);
+    }
+
+    /**
+     * Retrieve the words of the graph
+     * @return the words of the graph, stored outside the heap
+     */
+    public OffHeapWords getWords(){
+        return words;
+    }
+
+    /**
+     * Count the neighbors of a node by decoding its adjacency list
+     * @param node id of the node
+     * @return the number of neighbors of the node
+     */
+    public int degree(int node){
+
+        // Every varint ends with a byte whose high bit is clear
+        int count = 0;
+        for(int pos = offsets.get(node); pos < offsets.get(node + 1); pos++){
+            if(edges.get(pos) >= 0){
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public NeighborIterator neighborIterator(){
+        return new VarintIterator();
+    }
+
+    /**
+     * Retrieve the number of bytes held outside the heap by the adjacency lists and the words
+     * @return bytes used by the graph outside the heap
+     */
+    public long footprintBytes(){
+        return edges.capacity() + 4L * offsets.capacity() + words.footprintBytes();
+    }
+
+    /**
+     * Iterator decoding the varint gaps of one adjacency list at a time
+     */
+    private class VarintIterator implements NeighborIterator{
+
+        /**
+         * Position of the next byte to decode
+         */
+        private int pos;
+
+        /**
+         * Position following the last byte of the current list
+         */
+        private int end;
+
+        /**
+         * Last neighbor decoded, or the node itself before the first neighbor
+         */
+        private int previous;
+
+        /**
+         * Indicate if the next neighbor is the first of the list
+         */
+        private boolean first;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void reset(int node){
+            pos = offsets.get(node);
+            end = offsets.get(node + 1);
+            previous = node;
+            first = true;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext(){
+            return pos < end;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int nextNeighbor(){
+
+            // Decode the varint, seven bits per byte
+            int b = edges.get(pos++);
+            int value = b & 0x7F;
+            for(int shift = 7; b < 0; shift += 7){
+                b = edges.get(pos++);
+                value |= (b & 0x7F) << shift;
+            }
+
+            // Undo the zigzag encoding of the first gap
+            if(first){
+                first = false;
+                previous += (value >>> 1) ^ -(value & 1);
+            }
+            else{
+                previous += value;
+            }
+            return previous;
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+import org.junit.Test;
+import java.util.Arrays;
+import static org.junit.Assert.*;
+
+/**
+ * Testing class for OffHeapGraph and OffHeapWords
+ * @author Vo Linh Chi Dao
+ */
+public class OffHeapGraphTest{
+
+    String file1 = "src/text4.txt";
+    String file2 = "src/LargeWordGraph";
+
+    int[][] adj = {{1,2},{0,3},{0,3,300},{1,2}};
+    String[] words = {"cat","cot","bat","bot"};
+
+    /**
+     * Test that the off-heap copy holds the same edges and words
+     */
+    @Test
+    public void toOffHeap(){
+
+        // Node 2 links to a node far away so its gap takes several bytes
+        String[] data = Arrays.copyOf(words, 301);
+        data[300] = "cat";
+        CompressedGraph g1 = CompressedGraph.fromAdjacency(Arrays.copyOf(adj, 301), data);
+        OffHeapGraph g2 = g1.toOffHeap();
+
+        assertEquals(301,g2.getNumNodes());
+        assertEquals(g1.getNumEdges(),g2.getNumEdges());
+        assertEquals(3,g2.degree(2));
+        assertEquals("bat",g2.getValue(2));
+        assertNull(g2.getValue(4));
+
+        NeighborIterator it = g2.neighborIterator();
+        it.reset(2);
+        assertEquals(0,it.nextNeighbor());
+        assertEquals(3,it.nextNeighbor());
+        assertEquals(300,it.nextNeighbor());
+        assertFalse(it.hasNext());
+
+        // A word given twice maps to its last id, as in the arena
+        OffHeapWords w2 = g2.getWords();
+        assertEquals(300,w2.find("cat"));
+        assertEquals(1,w2.find(new StringBuilder("cot")));
+        assertEquals(3,w2.find("xbotx".toCharArray(), 1, 3));
+        assertEquals(-1,w2.find("dog"));
+        assertEquals(-1,w2.find("ca"));
+
+        StringBuilder builder = new StringBuilder();
+        w2.appendPath(new int[]{0,1,3}, " ", builder);
+        assertEquals("cat cot bot",builder.toString());
+        System.out.println("Off-heap bytes: " + g2.footprintBytes());
+    }
+
+    /**
+     * Test that a large graph is decoded the same way on and off the heap
+     */
+    @Test
+    public void readWordGraph(){
+
+        CompressedGraph g1 = CompressedGraph.readWordGraph(file1, NodeOrdering.BFS);
+        OffHeapGraph g2 = OffHeapGraph.readWordGraph(file1);
+        assertEquals(g1.getNumNodes(),g2.getNumNodes());
+
+        NeighborIterator it1 = g1.neighborIterator();
+        NeighborIterator it2 = g2.neighborIterator();
+        for(int node = 0; node < g1.getNumNodes(); node++){
+            assertEquals(g1.getValue(node),g2.getValue(node));
+            if(g1.getValue(node) != null){
+                assertEquals(g1.getWords().find(g1.getValue(node)),g2.getWords().find(g1.getValue(node)));
+            }
+            it1.reset(node);
+            it2.reset(node);
+            while(it1.hasNext()){
+                assertEquals(it1.nextNeighbor(),it2.nextNeighbor());
+            }
+            assertFalse(it2.hasNext());
+        }
+    }
+
+    /**
+     * Test that an engine answers the same ladders off the heap
+     */
+    @Test
+    public void engine(){
+
+        LadderEngine e1 = LadderEngine.load(file2);
+        LadderEngine e2 = LadderEngine.loadOffHeap(file2);
+
+        String[] queries = {"cold warm BFS","cold warm DFS","cold warm DIJKSTRA","head tail","abc xyzzy"};
+        for(String query : queries){
+            String answer = e2.answer(query);
+            System.out.println(query + ": " + answer.split(" ").length + " words");
+            assertEquals(e1.answer(query),answer);
+        }
+    }
+
+}
@@ -0,0 +1,291 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Class storing the words of a word graph outside the Java heap, laid out
+ * like WordArena: the characters back to back, an offset table giving where
+ * each word starts and an open addressing table of ids, each in a direct
+ * buffer. The garbage collector never scans or copies the buffers, so a large
+ * dictionary adds nothing to the pauses of the process. The buffers are only
+ * read once built, so any number of threads may share the words
+ * @author Vo Linh Chi Dao
+ */
+public final class OffHeapWords implements WordStore{
+
+    /**
+     * Characters of every word, back to back
+     */
+    private final CharBuffer chars;
+
+    /**
+     * Offset of the first character of each word, offsets[size] is the end
+     */
+    private final IntBuffer offsets;
+
+    /**
+     * Open addressing table holding the id of each word, -1 for an empty slot
+     */
+    private final IntBuffer table;
+
+    /**
+     * Number of word ids
+     */
+    private final int size;
+
+    /**
+     * Constructor copies the words of an arena outside the heap
+     * @param words the words copied, with their ids
+     */
+    public OffHeapWords(WordArena words){
+        this.size = words.size();
+
+        // Copy each word after the previous one
+        int total = 0;
+        for(int id = 0; id < size; id++){
+            total += words.length(id);
+        }
+        this.chars = allocate(2L * total).asCharBuffer();
+        this.offsets = allocate(4L * (size + 1)).asIntBuffer();
+        int pos = 0;
+        for(int id = 0; id < size; id++){
+            offsets.put(id, pos);
+            for(int i = 0; i < words.length(id); i++){
+                chars.put(pos++, words.charAt(id, i));
+            }
+        }
+        offsets.put(size, pos);
+
+        // Keep the table at most half full
+        int capacity = 2;
+        while(capacity < 2 * size){
+            capacity <<= 1;
+        }
+        this.table = allocate(4L * capacity).asIntBuffer();
+        for(int slot = 0; slot < capacity; slot++){
+            table.put(slot, -1);
+        }
+
+        // Index every word, a later duplicate replaces the earlier one as in the arena
+        for(int id = 0; id < size; id++){
+            if(length(id) > 0){
+                table.put(slotOf(id), id);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size(){
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int length(int id){
+        return offsets.get(id + 1) - offsets.get(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char charAt(int id, int index){
+        return chars.get(offsets.get(id) + index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getWord(int id){
+        if(length(id) == 0){
+            return null;
+        }
+        char[] word = new char[length(id)];
+        chars.get(offsets.get(id), word);
+        return new String(word);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void appendTo(int id, StringBuilder builder){
+        int start = offsets.get(id);
+        int end = offsets.get(id + 1);
+        for(int pos = start; pos < end; pos++){
+            builder.append(chars.get(pos));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void appendPath(int[] path, String separator, StringBuilder builder){
+        for(int i = 0; i < path.length; i++){
+            if(i > 0){
+                builder.append(separator);
+            }
+            appendTo(path[i], builder);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void appendPath(PathBuffer path, String separator, StringBuilder builder){
+        for(int i = 0; i < path.length(); i++){
+            if(i > 0){
+                builder.append(separator);
+            }
+            appendTo(path.get(i), builder);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int find(CharSequence word){
+
+        // Hash the word the way the arena does
+        int h = 0;
+        if(word instanceof String){
+            h = word.hashCode();
+        }
+        else{
+            for(int i = 0; i < word.length(); i++){
+                h = 31 * h + word.charAt(i);
+            }
+        }
+
+        // Probe from the slot given by the hash until the word or an empty slot is found
+        int mask = table.capacity() - 1;
+        for(int slot = (h ^ (h >>> 16)) & mask; table.get(slot) >= 0; slot = (slot + 1) & mask){
+            int id = table.get(slot);
+            if(length(id) == word.length() && matches(id, word)){
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int find(char[] word, int start, int length){
+
+        // Hash the word the way the arena does
+        int h = 0;
+        for(int i = start; i < start + length; i++){
+            h = 31 * h + word[i];
+        }
+
+        // Probe from the slot given by the hash until the word or an empty slot is found
+        int mask = table.capacity() - 1;
+        for(int slot = (h ^ (h >>> 16)) & mask; table.get(slot) >= 0; slot = (slot + 1) & mask){
+            int id = table.get(slot);
+            if(length(id) == length && matches(id, word, start)){
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retrieve the number of bytes held outside the heap by the characters, offsets and lookup table
+     * @return bytes used by the words
+     */
+    public long footprintBytes(){
+        return 2L * chars.capacity() + 4L * offsets.capacity() + 4L * table.capacity();
+    }
+
+    /**
+     * Allocate a direct buffer in the native byte order
+     * @param bytes size of the buffer
+     * @return a new direct buffer filled with zeros
+     * @throws IllegalArgumentException if the buffer would exceed 2GB
+     */
+    static ByteBuffer allocate(long bytes){
+        if(bytes > Integer.MAX_VALUE){
+            throw new IllegalArgumentException("Buffer too large: " + bytes + " bytes");
+        }
+        return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Find the empty slot where a stored word is indexed, or the slot holding an equal word
+     * @param id id of the word
+     * @return the slot of the word in the table
+     */
+    private int slotOf(int id){
+        int h = 0;
+        for(int i = 0; i < length(id); i++){
+            h = 31 * h + charAt(id, i);
+        }
+        int mask = table.capacity() - 1;
+        int slot = (h ^ (h >>> 16)) & mask;
+        while(table.get(slot) >= 0 && !(length(table.get(slot)) == length(id) && sameWord(table.get(slot), id))){
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Check if two stored words of equal length have the same characters
+     * @param a id of the first word
+     * @param b id of the second word
+     * @return true if the two words are equal
+     */
+    private boolean sameWord(int a, int b){
+        for(int i = 0; i < length(a); i++){
+            if(charAt(a, i) != charAt(b, i)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if a word held in a char array equals a stored word of the same length
+     * @param id id of the stored word
+     * @param word array holding the word compared
+     * @param start position of the first character of the word
+     * @return true if the two words have the same characters
+     */
+    private boolean matches(int id, char[] word, int start){
+        int offset = offsets.get(id);
+        for(int i = 0; i < length(id); i++){
+            if(chars.get(offset + i) != word[start + i]){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if the specified word equals a stored word of the same length
+     * @param id id of the stored word
+     * @param word the word compared
+     * @return true if the two words have the same characters
+     */
+    private boolean matches(int id, CharSequence word){
+        int start = offsets.get(id);
+        for(int i = 0; i < word.length(); i++){
+            if(chars.get(start + i) != word.charAt(i)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
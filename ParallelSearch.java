@@ -0,0 +1,448 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Class performing one breadth-first search at a time with the threads of a
+ * fork-join pool, for single queries exploring most of a large graph. The
+ * search runs level by level. A top-down step splits the frontier between the
+ * threads, which claim the unvisited neighbors of their nodes in a shared
+ * bitset with compare-and-set. Once the frontier touches more edges than a
+ * fraction of those left to explore, a bottom-up step instead splits the
+ * unvisited nodes, each looking for one neighbor in the frontier and stopping
+ * at the first, which checks far fewer edges on the large middle levels. The
+ * search goes back to top-down steps once the frontier is small again. The
+ * components of the graph are labelled once, so bottom-up steps skip the
+ * nodes the source cannot reach and a search between two components ends
+ * at once.
+ * The scratch arrays are kept between searches, so an instance must not be
+ * shared between threads
+ * @author Vo Linh Chi Dao
+ */
+public class ParallelSearch{
+
+    /**
+     * Switch to bottom-up steps once a growing frontier touches more than this
+     * fraction of the edges left to explore, as 1 / ALPHA. Word graphs have a
+     * low degree and a long diameter, so an unvisited word rarely finds a
+     * neighbor in the frontier until the frontier is large: on LargeWordGraph
+     * bottom-up steps only check fewer edges once the frontier touches about a
+     * third of the edges left, far later than on graphs with hubs
+     */
+    public static final int ALPHA = 3;
+
+    /**
+     * Switch back to top-down steps once the frontier holds less than this
+     * fraction of the nodes of the component, as 1 / BETA
+     */
+    public static final int BETA = 100;
+
+    /**
+     * Number of nodes or frontier entries below which a step runs on the calling thread
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    /**
+     * The graph being searched
+     */
+    private final IntAdjacency graph;
+
+    /**
+     * The pool running the steps
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Number of neighbors of each node
+     */
+    private final int[] degrees;
+
+    /**
+     * Connected component of each node
+     */
+    private final int[] components;
+
+    /**
+     * Total number of neighbors of the nodes of each component
+     */
+    private final long[] componentDegrees;
+
+    /**
+     * Number of nodes of each component
+     */
+    private final int[] componentSizes;
+
+    /**
+     * Visited nodes of the current search, one bit per node
+     */
+    private final AtomicLongArray visited;
+
+    /**
+     * Nodes reached by the current step, one bit per node
+     */
+    private final AtomicLongArray next;
+
+    /**
+     * Nodes of the frontier of a bottom-up step, one bit per node
+     */
+    private final long[] frontierBits;
+
+    /**
+     * Nodes of the frontier of a top-down step
+     */
+    private final int[] frontier;
+
+    /**
+     * Node each node was reached from during the last search
+     */
+    private final int[] parent;
+
+    /**
+     * Number of edges checked by the last search
+     */
+    private final LongAdder edgesChecked;
+
+    /**
+     * Number of bottom-up steps of the last search
+     */
+    private int bottomUpSteps;
+
+    /**
+     * Number of levels of the last search
+     */
+    private int levels;
+
+    /**
+     * Constructor initializes the scratch space for searching the graph
+     * @param graph the graph being searched
+     * @param pool the pool running the steps of a search
+     */
+    public ParallelSearch(IntAdjacency graph, ForkJoinPool pool){
+        this.graph = graph;
+        this.pool = pool;
+        int numNodes = graph.getNumNodes();
+        int numWords = (numNodes + 63) >>> 6;
+        this.degrees = new int[numNodes];
+        this.visited = new AtomicLongArray(numWords);
+        this.next = new AtomicLongArray(numWords);
+        this.frontierBits = new long[numWords];
+        this.frontier = new int[numNodes];
+        this.parent = new int[numNodes];
+        this.edgesChecked = new LongAdder();
+
+        this.components = new int[numNodes];
+
+        // Label the component of each node with a BFS, counting the neighbors
+        // of each node since the steps are chosen from them
+        Arrays.fill(components, -1);
+        NeighborIterator it = graph.neighborIterator();
+        long[] sums = new long[16];
+        int[] sizes = new int[16];
+        int numComponents = 0;
+        for(int start = 0; start < numNodes; start++){
+            if(components[start] >= 0){
+                continue;
+            }
+            if(numComponents == sums.length){
+                sums = Arrays.copyOf(sums, sums.length * 2);
+                sizes = Arrays.copyOf(sizes, sizes.length * 2);
+            }
+            int head = 0;
+            int tail = 0;
+            frontier[tail++] = start;
+            components[start] = numComponents;
+            while(head < tail){
+                int node = frontier[head++];
+                it.reset(node);
+                while(it.hasNext()){
+                    int neighbor = it.nextNeighbor();
+                    degrees[node]++;
+                    if(components[neighbor] < 0){
+                        components[neighbor] = numComponents;
+                        frontier[tail++] = neighbor;
+                    }
+                }
+                sums[numComponents] += degrees[node];
+            }
+            sizes[numComponents] = tail;
+            numComponents++;
+        }
+        this.componentDegrees = Arrays.copyOf(sums, numComponents);
+        this.componentSizes = Arrays.copyOf(sizes, numComponents);
+    }
+
+    /**
+     * Breadth-first search between node from and to
+     * @param from the source node
+     * @param to the destination node
+     * @return an array representing a shortest path between the source node and
+     * the destination node. Return an empty array if one of the two nodes does
+     * not exist in the graph or there is no path between two nodes
+     */
+    public int[] BFS(int from, int to){
+        PathBuffer path = new PathBuffer();
+        BFS(from, to, path);
+        return path.toArray();
+    }
+
+    /**
+     * Breadth-first search between node from and to, writing the path into a
+     * buffer supplied by the caller
+     * @param from the source node
+     * @param to the destination node
+     * @param path the buffer receiving a shortest path between the source node
+     * and the destination node. It is left empty if one of the two nodes does
+     * not exist in the graph or there is no path between two nodes
+     * @return true if a path is found
+     */
+    public boolean BFS(int from, int to, PathBuffer path){
+
+        path.clear();
+        edgesChecked.reset();
+        bottomUpSteps = 0;
+        levels = 0;
+
+        // Check if the two nodes exist in the graph and may be linked
+        if(!contains(from) || !contains(to) || components[from] != components[to]){
+            return false;
+        }
+
+        // Start from the source node alone
+        for(int i = 0; i < visited.length(); i++){
+            visited.set(i, 0);
+        }
+        visited.set(from >>> 6, 1L << from);
+        parent[from] = -1;
+        // The frontier is kept both as a list and as a bitset
+        Arrays.fill(frontierBits, 0);
+        frontierBits[from >>> 6] = 1L << from;
+        frontier[0] = from;
+        int frontierSize = 1;
+        int previousSize = 0;
+        long frontierDegree = degrees[from];
+        long unexplored = componentDegrees[components[from]] - degrees[from];
+        boolean bottomUp = false;
+
+        // Expand one level at a time until the destination node is reached or the frontier is empty
+        while(frontierSize > 0 && !isVisited(to)){
+            levels++;
+
+            // Choose the direction of the step from the size of the frontier. The last
+            // levels touch most of the few edges left, but are too small for bottom-up
+            if(!bottomUp && frontierSize > previousSize && frontierDegree > unexplored / ALPHA){
+                bottomUp = true;
+            }
+            else if(bottomUp && frontierSize < componentSizes[components[from]] / BETA){
+                bottomUp = false;
+            }
+
+            for(int i = 0; i < next.length(); i++){
+                next.set(i, 0);
+            }
+            if(bottomUp){
+                bottomUpSteps++;
+                bottomUpStep(components[from]);
+            }
+            else{
+                topDownStep(frontierSize);
+            }
+
+            // Collect the nodes reached as the next frontier
+            previousSize = frontierSize;
+            frontierSize = 0;
+            frontierDegree = 0;
+            for(int i = 0; i < next.length(); i++){
+                long word = next.get(i);
+                frontierBits[i] = word;
+                while(word != 0){
+                    int node = (i << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    frontier[frontierSize++] = node;
+                    frontierDegree += degrees[node];
+                }
+            }
+            unexplored -= frontierDegree;
+        }
+
+        if(!isVisited(to)){
+            return false;
+        }
+
+        // Follow the parents back to the source node
+        int length = 0;
+        for(int node = to; node >= 0; node = parent[node]){
+            length++;
+        }
+        path.setLength(length);
+        for(int node = to; node >= 0; node = parent[node]){
+            path.set(--length, node);
+        }
+        return true;
+    }
+
+    /**
+     * Retrieve the number of edges checked by the last search
+     * @return number of neighbors looked at by all threads
+     */
+    public long getLastEdgesChecked(){
+        return edgesChecked.sum();
+    }
+
+    /**
+     * Retrieve the number of levels expanded by the last search
+     * @return number of steps of the last search
+     */
+    public int getLastLevels(){
+        return levels;
+    }
+
+    /**
+     * Retrieve the number of bottom-up steps of the last search
+     * @return number of levels expanded bottom-up
+     */
+    public int getLastBottomUpSteps(){
+        return bottomUpSteps;
+    }
+
+    /**
+     * Expand the frontier top-down: every node of the frontier claims its unvisited neighbors
+     * @param frontierSize number of nodes in the frontier
+     */
+    private void topDownStep(int frontierSize){
+        int chunks = chunks(frontierSize);
+        int chunkSize = (frontierSize + chunks - 1) / chunks;
+        run(chunks, chunk -> {
+            NeighborIterator it = graph.neighborIterator();
+            long checked = 0;
+            int end = Math.min(frontierSize, (chunk + 1) * chunkSize);
+            for(int i = chunk * chunkSize; i < end; i++){
+                int node = frontier[i];
+                it.reset(node);
+                while(it.hasNext()){
+                    int neighbor = it.nextNeighbor();
+                    checked++;
+                    // The thread winning the claim is the only one writing the parent
+                    if(claim(neighbor)){
+                        parent[neighbor] = node;
+                        next.getAndAccumulate(neighbor >>> 6, 1L << neighbor, (a, b) -> a | b);
+                    }
+                }
+            }
+            edgesChecked.add(checked);
+        });
+    }
+
+    /**
+     * Expand the frontier bottom-up: every unvisited node of the component looks for a neighbor
+     * in the frontier. Each thread owns whole words of the bitsets, so it updates them without
+     * compare-and-set
+     * @param component the component of the source node
+     */
+    private void bottomUpStep(int component){
+        int numWords = visited.length();
+        int chunks = chunks(graph.getNumNodes());
+        int wordsPerChunk = (numWords + chunks - 1) / chunks;
+        run(chunks, chunk -> {
+            NeighborIterator it = graph.neighborIterator();
+            long checked = 0;
+            int end = Math.min(numWords, (chunk + 1) * wordsPerChunk);
+            for(int i = chunk * wordsPerChunk; i < end; i++){
+                long seen = visited.get(i);
+                long unvisited = ~seen;
+                long reached = 0;
+                while(unvisited != 0){
+                    int node = (i << 6) + Long.numberOfTrailingZeros(unvisited);
+                    unvisited &= unvisited - 1;
+                    if(node >= graph.getNumNodes()){
+                        break;
+                    }
+                    if(components[node] != component){
+                        continue;
+                    }
+                    // Stop at the first neighbor found in the frontier
+                    it.reset(node);
+                    while(it.hasNext()){
+                        int neighbor = it.nextNeighbor();
+                        checked++;
+                        if((frontierBits[neighbor >>> 6] & (1L << neighbor)) != 0){
+                            parent[node] = neighbor;
+                            reached |= 1L << node;
+                            break;
+                        }
+                    }
+                }
+                if(reached != 0){
+                    visited.set(i, seen | reached);
+                    next.set(i, reached);
+                }
+            }
+            edgesChecked.add(checked);
+        });
+    }
+
+    /**
+     * Run the chunks of a step on the pool, or on the calling thread if there is only one
+     * @param chunks number of chunks
+     * @param step the work of one chunk
+     */
+    private void run(int chunks, IntConsumer step){
+        if(chunks == 1){
+            step.accept(0);
+        }
+        else{
+            pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(step)).join();
+        }
+    }
+
+    /**
+     * Choose the number of chunks a step is split into
+     * @param work number of nodes handled by the step
+     * @return 1 for small steps, else a few chunks per thread of the pool
+     */
+    private int chunks(int work){
+        if(work < SEQUENTIAL_THRESHOLD || pool.getParallelism() == 1){
+            return 1;
+        }
+        return Math.min(pool.getParallelism() * 4, work / (SEQUENTIAL_THRESHOLD / 4));
+    }
+
+    /**
+     * Mark a node visited unless another thread did first
+     * @param node the node
+     * @return true if this call marked the node
+     */
+    private boolean claim(int node){
+        int index = node >>> 6;
+        long bit = 1L << node;
+        long word = visited.get(index);
+        while((word & bit) == 0){
+            if(visited.compareAndSet(index, word, word | bit)){
+                return true;
+            }
+            word = visited.get(index);
+        }
+        return false;
+    }
+
+    /**
+     * Check if the current search visited a node
+     * @param node the node
+     * @return true if the node is visited
+     */
+    private boolean isVisited(int node){
+        return (visited.get(node >>> 6) & (1L << node)) != 0;
+    }
+
+    /**
+     * Check if a node id belongs to the graph
+     * @param node id of the node
+     * @return true if the id is within the range of the graph and holds a word
+     */
+    private boolean contains(int node){
+        return graph.hasNode(node);
+    }
+
+}
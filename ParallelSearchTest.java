@@ -0,0 +1,88 @@
+import org.junit.Test;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.Assert.*;
+
+/**
+ * Testing class for ParallelSearch
+ * @author Vo Linh Chi Dao
+ */
+public class ParallelSearchTest{
+
+    String file1 = "src/text4.txt";
+    String file2 = "src/LargeWordGraph";
+
+    /**
+     * Test that the parallel BFS finds paths as short as IntSearch
+     */
+    @Test
+    public void BFS(){
+
+        CompressedGraph g1 = CompressedGraph.readWordGraph(file2, NodeOrdering.BFS);
+        IntSearch s1 = new IntSearch(g1);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try{
+            ParallelSearch s2 = new ParallelSearch(g1, pool);
+            NeighborIterator it = g1.neighborIterator();
+
+            for(int from = 0; from < g1.getNumNodes(); from += 4999){
+                for(int to = 7; to < g1.getNumNodes(); to += 6007){
+                    int[] path = s2.BFS(from, to);
+                    assertEquals(s1.BFS(from, to).length,path.length);
+
+                    // Every step of the path follows an edge
+                    for(int i = 1; i < path.length; i++){
+                        boolean linked = false;
+                        it.reset(path[i - 1]);
+                        while(it.hasNext()){
+                            linked |= it.nextNeighbor() == path[i];
+                        }
+                        assertTrue(linked);
+                    }
+                }
+            }
+
+            // Nodes are numbered in breadth-first order from node 0, so the last node
+            // of its component is the farthest. Nodes of other components are not searched
+            int last = g1.getNumNodes() - 1;
+            while(s2.BFS(0, last).length == 0){
+                assertEquals(0,s1.BFS(0, last).length);
+                last -= 97;
+            }
+            while(last + 1 < g1.getNumNodes() && s2.BFS(0, last + 1).length > 0){
+                last++;
+            }
+
+            // A search exploring the whole component switches to bottom-up steps
+            s2.BFS(0, last);
+            System.out.println("Levels: " + s2.getLastLevels() + ", bottom-up: " + s2.getLastBottomUpSteps()
+                    + ", edges checked: " + s2.getLastEdgesChecked() + " of " + g1.getNumEdges());
+            assertTrue(s2.getLastBottomUpSteps() > 0);
+            assertTrue(s2.getLastEdgesChecked() < g1.getNumEdges());
+
+            // Find path between the same node, non-existing nodes
+            assertArrayEquals(new int[]{5},s2.BFS(5, 5));
+            assertEquals(0,s2.BFS(-1, 5).length);
+            assertEquals(0,s2.BFS(5, g1.getNumNodes()).length);
+        }
+        finally{
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Test a small graph, searched on the calling thread
+     */
+    @Test
+    public void small(){
+
+        CompressedGraph g1 = CompressedGraph.readWordGraph(file1);
+        IntSearch s1 = new IntSearch(g1);
+        ParallelSearch s2 = new ParallelSearch(g1, ForkJoinPool.commonPool());
+        for(int from = 0; from < g1.getNumNodes(); from += 41){
+            for(int to = 0; to < g1.getNumNodes(); to += 43){
+                assertEquals(s1.BFS(from, to).length,s2.BFS(from, to).length);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+import java.util.Arrays;
+
+/**
+ * Class holding a path as node ids in a reusable array. Searches write their
+ * result into a buffer supplied by the caller, so a caller answering many
+ * queries keeps one buffer and produces no garbage per query. The words of
+ * the path are read through WordArena.appendPath or a WordArena.Slice, without
+ * building a String per word
+ * @author Vo Linh Chi Dao
+ */
+public class PathBuffer{
+
+    /**
+     * Node ids of the path, only the first length are used
+     */
+    private int[] nodes;
+
+    /**
+     * Number of nodes on the path
+     */
+    private int length;
+
+    /**
+     * Constructor initializes an empty path
+     */
+    public PathBuffer(){
+        this(16);
+    }
+
+    /**
+     * Constructor initializes an empty path with room for the specified number of nodes
+     * @param capacity number of nodes the buffer holds before growing
+     */
+    public PathBuffer(int capacity){
+        this.nodes = new int[Math.max(1, capacity)];
+        this.length = 0;
+    }
+
+    /**
+     * Retrieve the number of nodes on the path
+     * @return number of nodes on the path, 0 if no path was found
+     */
+    public int length(){
+        return length;
+    }
+
+    /**
+     * Check if the buffer holds no path
+     * @return true if the path has no node
+     */
+    public boolean isEmpty(){
+        return length == 0;
+    }
+
+    /**
+     * Retrieve a node of the path
+     * @param index position of the node on the path
+     * @return id of the node
+     * @throws IndexOutOfBoundsException if the position is outside the path
+     */
+    public int get(int index){
+        if(index < 0 || index >= length){
+            throw new IndexOutOfBoundsException("Index " + index + " out of path of length " + length);
+        }
+        return nodes[index];
+    }
+
+    /**
+     * Empty the path, keeping its array
+     */
+    public void clear(){
+        length = 0;
+    }
+
+    /**
+     * Add a node at the end of the path
+     * @param node id of the node
+     */
+    public void add(int node){
+        if(length == nodes.length){
+            nodes = Arrays.copyOf(nodes, nodes.length * 2);
+        }
+        nodes[length++] = node;
+    }
+
+    /**
+     * Change the number of nodes on the path, growing the array if needed.
+     * Nodes added by growing the path are left unspecified until they are set
+     * @param length the new number of nodes
+     */
+    public void setLength(int length){
+        if(length > nodes.length){
+            nodes = Arrays.copyOf(nodes, Math.max(length, nodes.length * 2));
+        }
+        this.length = length;
+    }
+
+    /**
+     * Replace a node of the path
+     * @param index position of the node on the path
+     * @param node id of the new node
+     * @throws IndexOutOfBoundsException if the position is outside the path
+     */
+    public void set(int index, int node){
+        if(index < 0 || index >= length){
+            throw new IndexOutOfBoundsException("Index " + index + " out of path of length " + length);
+        }
+        nodes[index] = node;
+    }
+
+    /**
+     * Copy the path into a new array
+     * @return the node ids of the path
+     */
+    public int[] toArray(){
+        return Arrays.copyOf(nodes, length);
+    }
+
+}
@@ -0,0 +1,69 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Testing class for PathBuffer
+ * @author Vo Linh Chi Dao
+ */
+public class PathBufferTest{
+
+    /**
+     * Test add, set and growth of the buffer
+     */
+    @Test
+    public void add(){
+
+        PathBuffer p1 = new PathBuffer(1);
+
+        assertTrue(p1.isEmpty());
+        for(int i = 0; i < 100; i++){
+            p1.add(i * 2);
+        }
+        assertEquals(100,p1.length());
+        assertEquals(198,p1.get(99));
+        p1.set(0, 7);
+        assertEquals(7,p1.toArray()[0]);
+
+        // Shrinking keeps the first nodes, growing leaves room to set
+        p1.setLength(3);
+        assertArrayEquals(new int[]{7,2,4},p1.toArray());
+        p1.setLength(500);
+        p1.set(499, 1);
+        assertEquals(1,p1.get(499));
+        p1.clear();
+        assertEquals(0,p1.toArray().length);
+
+        // Positions outside the path are rejected
+        try{
+            p1.get(0);
+            fail();
+        }
+        catch(IndexOutOfBoundsException e){
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Test reading the words of a path found by the engine
+     */
+    @Test
+    public void words(){
+
+        LadderEngine engine = LadderEngine.load("src/text4.txt");
+        PathBuffer path = new PathBuffer();
+        StringBuilder builder = new StringBuilder();
+
+        // The buffer gives the same ladder as the array
+        assertTrue(engine.ladder("aah", "cat", "BFS", path));
+        assertArrayEquals(engine.ladder("aah", "cat", "BFS"),path.toArray());
+        engine.getWords().appendPath(path, " ", builder);
+        assertEquals(engine.answer("aah cat"),builder.toString());
+
+        // Answers are appended to the builder
+        builder.setLength(0);
+        engine.answer("aah zzz", path, builder);
+        assertEquals("NONE",builder.toString());
+        assertTrue(path.isEmpty());
+    }
+
+}
@@ -0,0 +1,103 @@
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class bounding a search by a deadline and a number of expanded nodes, and
+ * letting another thread cancel it. Searches check the limit once per
+ * expanded node; the clock is only read every CLOCK_INTERVAL expansions, so
+ * the check costs a few comparisons. A limit belongs to one query, since
+ * cancelling it stops every search using it
+ * @author Vo Linh Chi Dao
+ */
+public class SearchLimit{
+
+    /**
+     * Number of expansions between two readings of the clock
+     */
+    public static final int CLOCK_INTERVAL = 64;
+
+    /**
+     * Longest time in nanoseconds a deadline may be ahead, about 146 years, so it never overflows
+     */
+    public static final long MAX_TIMEOUT_NANOS = Long.MAX_VALUE / 2;
+
+    /**
+     * Limit that never stops a search and cannot be cancelled
+     */
+    public static final SearchLimit NONE = new SearchLimit(0, 0);
+
+    /**
+     * Time, as given by System.nanoTime, after which the search stops
+     */
+    private final long deadline;
+
+    /**
+     * Indicate if the search has a deadline
+     */
+    private final boolean timed;
+
+    /**
+     * Number of nodes the search may expand, Long.MAX_VALUE for no budget
+     */
+    private final long maxExpansions;
+
+    /**
+     * Indicate if the search was cancelled
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * Constructor initializes a limit starting now
+     * @param timeout time in milliseconds the search may take, 0 for no deadline.
+     * A longer timeout than MAX_TIMEOUT_NANOS is cut to it
+     * @param maxExpansions number of nodes the search may expand, 0 for no budget
+     * @throws IllegalArgumentException if the timeout or the budget is negative
+     */
+    public SearchLimit(long timeout, long maxExpansions){
+        if(timeout < 0 || maxExpansions < 0){
+            throw new IllegalArgumentException("Timeout and budget must not be negative");
+        }
+        this.timed = timeout > 0;
+        // toNanos saturates instead of overflowing, then the deadline is kept within range
+        this.deadline = System.nanoTime() + Math.min(TimeUnit.MILLISECONDS.toNanos(timeout), MAX_TIMEOUT_NANOS);
+        this.maxExpansions = maxExpansions > 0 ? maxExpansions : Long.MAX_VALUE;
+        this.cancelled = false;
+    }
+
+    /**
+     * Ask the searches using this limit to stop at their next expansion
+     * @throws UnsupportedOperationException if this is the shared NONE limit
+     */
+    public void cancel(){
+        if(this == NONE){
+            throw new UnsupportedOperationException("The shared limit cannot be cancelled");
+        }
+        cancelled = true;
+    }
+
+    /**
+     * Check if the limit was cancelled
+     * @return true if cancel was called
+     */
+    public boolean isCancelled(){
+        return cancelled;
+    }
+
+    /**
+     * Check if a search may expand one more node
+     * @param expanded number of nodes the search expanded so far, including the next one
+     * @return null if the search may go on, otherwise the reason it must stop
+     */
+    public SearchStatus check(long expanded){
+        if(cancelled){
+            return SearchStatus.CANCELLED;
+        }
+        if(expanded > maxExpansions){
+            return SearchStatus.BUDGET_EXCEEDED;
+        }
+        if(timed && expanded % CLOCK_INTERVAL == 0 && System.nanoTime() - deadline >= 0){
+            return SearchStatus.TIMED_OUT;
+        }
+        return null;
+    }
+
+}
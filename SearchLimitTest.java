@@ -0,0 +1,127 @@
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import static org.junit.Assert.*;
+
+/**
+ * Testing class for SearchLimit and the bounded searches
+ * @author Vo Linh Chi Dao
+ */
+public class SearchLimitTest{
+
+    String file1 = "src/text4.txt";
+
+    /**
+     * Test searches bounded by a budget of expanded nodes
+     */
+    @Test
+    public void budget(){
+
+        CompressedGraph g1 = CompressedGraph.readWordGraph(file1);
+        IntSearch s1 = new IntSearch(g1);
+        PathBuffer path = new PathBuffer();
+
+        // A search within its budget completes
+        assertEquals(SearchStatus.FOUND,s1.BFS(0, 120, path, new SearchLimit(0, 1000)));
+        assertEquals(4,path.length());
+        assertEquals(SearchStatus.NOT_FOUND,s1.BFS(0, 5000, path, new SearchLimit(0, 1)));
+
+        // A search out of budget gives the path to the last node expanded
+        SearchStatus status = s1.BFS(0, 120, path, new SearchLimit(0, 3));
+        assertEquals(SearchStatus.BUDGET_EXCEEDED,status);
+        assertTrue(status.isPartial());
+        assertEquals(0,path.get(0));
+        assertTrue(path.get(path.length() - 1) != 120);
+        assertEquals(SearchStatus.BUDGET_EXCEEDED,s1.DFS(0, 120, path, new SearchLimit(0, 3)));
+        assertTrue(path.length() <= 4);
+        DijkstraSearch s2 = new DijkstraSearch(g1);
+        assertEquals(SearchStatus.BUDGET_EXCEEDED,s2.search(0, 120, new LadderCost(g1.getWords()), path, new SearchLimit(0, 3)));
+        assertEquals(path.length() - 1,s2.getLastCost());
+
+        // Graph searches are bounded the same way
+        Graph<Integer,String> g2 = WordLadders.readWordGraph(file1);
+        // The path holds the three nodes expanded and the one refused
+        assertEquals(SearchStatus.BUDGET_EXCEEDED,g2.BFS(0, 120, path, new SearchLimit(0, 3)));
+        assertEquals(4,path.length());
+        assertEquals(SearchStatus.FOUND,g2.DFS(0, 120, path, new SearchLimit(0, 0)));
+
+        try{
+            new SearchLimit(-1, 0);
+            fail();
+        }
+        catch(IllegalArgumentException e){
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Test searches stopped by a deadline or a cancellation
+     */
+    @Test
+    public void deadline() throws InterruptedException{
+
+        CompressedGraph g1 = CompressedGraph.readWordGraph(file1);
+        IntSearch s1 = new IntSearch(g1);
+        PathBuffer path = new PathBuffer();
+
+        // The clock is read once every CLOCK_INTERVAL expansions
+        SearchLimit limit = new SearchLimit(1, 0);
+        Thread.sleep(5);
+        assertEquals(SearchStatus.TIMED_OUT,s1.BFS(0, 5, path, limit));
+        assertFalse(path.isEmpty());
+
+        // A timeout too long to count in nanoseconds never stops the search
+        limit = new SearchLimit(Long.MAX_VALUE, 0);
+        assertEquals(SearchStatus.FOUND,s1.BFS(0, 5, path, limit));
+        assertNull(limit.check(SearchLimit.CLOCK_INTERVAL));
+
+        // A cancelled search stops at its first expansion
+        limit = new SearchLimit(0, 0);
+        limit.cancel();
+        assertEquals(SearchStatus.CANCELLED,s1.DFS(0, 120, path, limit));
+        assertEquals(1,path.length());
+
+        // The shared limit cannot be cancelled
+        try{
+            SearchLimit.NONE.cancel();
+            fail();
+        }
+        catch(UnsupportedOperationException e){
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Test the asynchronous engine API and bounded answers
+     */
+    @Test
+    public void async() throws Exception{
+
+        LadderEngine engine = LadderEngine.load(file1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try{
+            SearchResult result = engine.ladderAsync("aah", "cat", "BFS", 1000, 0, executor).get();
+            assertEquals(SearchStatus.FOUND,result.getStatus());
+            assertArrayEquals(engine.ladder("aah", "cat", "BFS"),result.getPath());
+            assertEquals(SearchStatus.BUDGET_EXCEEDED,engine.ladderAsync("aah", "cat", "DFS", 0, 2, executor).get().getStatus());
+        }
+        finally{
+            executor.shutdown();
+        }
+
+        // Cancelling the future cancels the search before it runs
+        ArrayList<Runnable> tasks = new ArrayList<>();
+        CompletableFuture<SearchResult> future = engine.ladderAsync("aah", "cat", "BFS", 0, 0, tasks::add);
+        assertTrue(future.cancel(true));
+        tasks.get(0).run();
+        assertTrue(future.isCancelled());
+
+        // Answers of bounded searches
+        StringBuilder builder = new StringBuilder();
+        engine.answer("aah cat", new PathBuffer(), builder, new SearchLimit(0, 2));
+        assertEquals("TIMEOUT BUDGET_EXCEEDED",builder.toString());
+    }
+
+}
@@ -0,0 +1,46 @@
+/**
+ * Class holding the outcome of a bounded ladder search: its status and the
+ * ids of the words on the ladder, or on the partial ladder if the search
+ * stopped early
+ * @author Vo Linh Chi Dao
+ */
+public class SearchResult{
+
+    /**
+     * Outcome of the search
+     */
+    private final SearchStatus status;
+
+    /**
+     * Ids of the words on the ladder
+     */
+    private final int[] path;
+
+    /**
+     * Constructor initializes a result
+     * @param status outcome of the search
+     * @param path ids of the words on the ladder
+     */
+    public SearchResult(SearchStatus status, int[] path){
+        this.status = status;
+        this.path = path;
+    }
+
+    /**
+     * Retrieve the outcome of the search
+     * @return the status of the search
+     */
+    public SearchStatus getStatus(){
+        return status;
+    }
+
+    /**
+     * Retrieve the ladder found
+     * @return the ids of the words on the ladder, partial if the search stopped
+     * early, empty if no ladder exists
+     */
+    public int[] getPath(){
+        return path.clone();
+    }
+
+}
@@ -0,0 +1,41 @@
+/**
+ * Outcome of a search bounded by a SearchLimit
+ * @author Vo Linh Chi Dao
+ */
+public enum SearchStatus{
+
+    /**
+     * A path to the destination is found
+     */
+    FOUND,
+
+    /**
+     * The search is complete and the destination cannot be reached,
+     * or one of the two nodes does not exist
+     */
+    NOT_FOUND,
+
+    /**
+     * The deadline passed before the search completed
+     */
+    TIMED_OUT,
+
+    /**
+     * The search expanded as many nodes as its budget allows
+     */
+    BUDGET_EXCEEDED,
+
+    /**
+     * The search was cancelled by another thread
+     */
+    CANCELLED;
+
+    /**
+     * Check if the search stopped before it could complete
+     * @return true if the search timed out, ran out of budget or was cancelled
+     */
+    public boolean isPartial(){
+        return this != FOUND && this != NOT_FOUND;
+    }
+
+}
@@ -0,0 +1,270 @@
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Class answering word ladder queries by forwarding each one to the shard
+ * holding its first word, served by a LadderServer in another process. The
+ * router only keeps the words of each shard, never its edges. The shard
+ * answers every query itself, even when the word is in no shard or the two
+ * words are in different shards, so the answers are those of LadderEngine.
+ * Each shard connection serves one query at a time; like the searches of
+ * LadderEngine, idle connections are pooled and shared by all threads. A shard
+ * that does not answer within the answer timeout is reported as unavailable
+ * @author Vo Linh Chi Dao
+ */
+public class ShardRouter implements LadderService, Closeable{
+
+    /**
+     * Default time in milliseconds a shard may take to answer a query
+     */
+    public static final int ANSWER_TIMEOUT = 10000;
+
+    /**
+     * Words of each shard
+     */
+    private final WordStore[] shardWords;
+
+    /**
+     * Port of the server of each shard on the loopback address
+     */
+    private final int[] ports;
+
+    /**
+     * Connections to each shard that are not used by any query
+     */
+    private final ConcurrentLinkedQueue<ShardConnection>[] connections;
+
+    /**
+     * Time in milliseconds a shard may take to answer a query, 0 for no limit
+     */
+    private final int answerTimeout;
+
+    /**
+     * Indicate if the router was closed
+     */
+    private volatile boolean closed;
+
+    /**
+     * Constructor initializes a router over shards served on the loopback address
+     * with the default answer timeout
+     * @param shardWords words of each shard
+     * @param ports port of the server of each shard
+     * @throws IllegalArgumentException if the number of shards and ports does not match
+     */
+    public ShardRouter(WordStore[] shardWords, int[] ports){
+        this(shardWords, ports, ANSWER_TIMEOUT);
+    }
+
+    /**
+     * Constructor initializes a router over shards served on the loopback address
+     * @param shardWords words of each shard
+     * @param ports port of the server of each shard
+     * @param answerTimeout time in milliseconds a shard may take to answer a query, 0 for no limit
+     * @throws IllegalArgumentException if the number of shards and ports does not match
+     */
+    @SuppressWarnings("unchecked")
+    public ShardRouter(WordStore[] shardWords, int[] ports, int answerTimeout){
+
+        // If the lists of shards and ports do not have equal length, throw an exception
+        if(shardWords.length != ports.length || ports.length == 0){
+            throw new IllegalArgumentException("The length of shards and ports lists does not match");
+        }
+
+        this.shardWords = shardWords.clone();
+        this.ports = ports.clone();
+        this.connections = (ConcurrentLinkedQueue<ShardConnection>[]) new ConcurrentLinkedQueue<?>[ports.length];
+        for(int shard = 0; shard < ports.length; shard++){
+            connections[shard] = new ConcurrentLinkedQueue<>();
+        }
+        this.answerTimeout = answerTimeout;
+        this.closed = false;
+    }
+
+    /**
+     * Construct a router from the "word graph" files of the shards, keeping only their words
+     * @param filenames the "word graph" file of each shard
+     * @param ports port of the server of each shard
+     * @return a router over the shards
+     * @throws IllegalArgumentException if the number of files and ports does not match
+     */
+    public static ShardRouter readShards(String[] filenames, int[] ports){
+        WordStore[] words = new WordStore[filenames.length];
+        for(int shard = 0; shard < filenames.length; shard++){
+            words[shard] = WordArena.readWords(filenames[shard]);
+        }
+        return new ShardRouter(words, ports);
+    }
+
+    /**
+     * Construct a router forwarding every query to a single server, which makes
+     * it a client of that server shared by all threads
+     * @param port port of the server on the loopback address
+     * @return a router over the one server
+     */
+    public static ShardRouter connect(int port){
+        return new ShardRouter(new WordStore[]{WordArena.fromWords(new String[0])}, new int[]{port});
+    }
+
+    /**
+     * Find the shard a query is forwarded to
+     * @param query the query line
+     * @return the shard holding the first word of the query, 0 if no shard holds it
+     */
+    public int route(String query){
+        String[] tokens = query.trim().split("\\s+");
+        for(int shard = 0; shard < shardWords.length; shard++){
+            if(shardWords[shard].find(tokens[0]) >= 0){
+                return shard;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Forward a query line to its shard and append the answer of the shard.
+     * The shard applies its own query limits, the limit given here is ignored
+     * @param query the query line
+     * @param path unused, the ladder is searched by the shard
+     * @param builder the builder the answer is appended to
+     * @param limit unused, the shard bounds its own searches
+     */
+    @Override
+    public void answer(String query, PathBuffer path, StringBuilder builder, SearchLimit limit){
+
+        int shard = route(query);
+
+        // A pooled connection may have been closed by the shard while idle, so retry once on a new one
+        for(int attempt = 0; attempt < 2; attempt++){
+            ShardConnection connection = connections[shard].poll();
+            try{
+                if(connection == null){
+                    connection = new ShardConnection(ports[shard], answerTimeout);
+                }
+                String answer = connection.send(query);
+                if(answer != null){
+                    builder.append(answer);
+                    giveBack(shard, connection);
+                    return;
+                }
+                connection.close();
+            }
+            catch(SocketTimeoutException e){
+                // A shard too slow to answer would hold the retry as long again
+                connection.close();
+                break;
+            }
+            catch(IOException e){
+                if(connection != null){
+                    connection.close();
+                }
+            }
+        }
+        builder.append("ERROR shard ").append(shard).append(" unavailable");
+    }
+
+    /**
+     * Close the idle connections to the shards. Connections used by queries
+     * still running are closed once given back
+     */
+    @Override
+    public void close(){
+        closed = true;
+        for(int shard = 0; shard < connections.length; shard++){
+            closeIdle(shard);
+        }
+    }
+
+    /**
+     * Put a connection back in the pool of its shard, or close it if the router was closed
+     * @param shard the shard the connection is connected to
+     * @param connection the connection that answered a query
+     */
+    private void giveBack(int shard, ShardConnection connection){
+        connections[shard].add(connection);
+        // A close running meanwhile may have emptied the pool before the connection was added
+        if(closed){
+            closeIdle(shard);
+        }
+    }
+
+    /**
+     * Close the idle connections to a shard
+     * @param shard the shard whose pool is emptied
+     */
+    private void closeIdle(int shard){
+        ShardConnection connection = connections[shard].poll();
+        while(connection != null){
+            connection.close();
+            connection = connections[shard].poll();
+        }
+    }
+
+    /**
+     * Connection to the server of one shard, sending one query line at a time
+     */
+    private static class ShardConnection{
+
+        /**
+         * The socket connected to the shard
+         */
+        private final Socket socket;
+
+        /**
+         * Reader of the answer lines
+         */
+        private final BufferedReader in;
+
+        /**
+         * Stream the query lines are written to
+         */
+        private final OutputStream out;
+
+        /**
+         * Constructor connects to a shard on the loopback address
+         * @param port port of the server of the shard
+         * @param answerTimeout time in milliseconds the shard may take to answer, 0 for no limit
+         * @throws IOException if the shard cannot be reached
+         */
+        private ShardConnection(int port, int answerTimeout) throws IOException{
+            this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(answerTimeout);
+            this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            this.out = socket.getOutputStream();
+        }
+
+        /**
+         * Send a query line and wait for its answer
+         * @param query the query line
+         * @return the answer line, null if the shard closed the connection
+         * @throws SocketTimeoutException if the shard does not answer within the answer timeout
+         * @throws IOException if the connection fails
+         */
+        private String send(String query) throws IOException{
+            out.write((query + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            return in.readLine();
+        }
+
+        /**
+         * Close the connection, ignoring failures
+         */
+        private void close(){
+            try{
+                socket.close();
+            }
+            catch(IOException e){
+                // The connection is dropped either way
+            }
+        }
+    }
+
+}
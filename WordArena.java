@@ -0,0 +1,427 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Class storing the words of a word graph back to back in one char array,
+ * with an offset table giving where each word starts. Words are looked up
+ * through an open addressing table of ids, so neither the words nor the ids
+ * are stored as separate objects
+ * @author Vo Linh Chi Dao
+ */
+public class WordArena implements WordStore{
+
+    /**
+     * Characters of every word, back to back
+     */
+    private final char[] chars;
+
+    /**
+     * Offset of the first character of each word, offsets[size] is the end
+     */
+    private final int[] offsets;
+
+    /**
+     * Open addressing table holding the id of each word, -1 for an empty slot
+     */
+    private final int[] table;
+
+    /**
+     * Constructor initializes an arena from its characters and offsets
+     * @param chars characters of every word
+     * @param offsets offset of the first character of each word
+     */
+    private WordArena(char[] chars, int[] offsets){
+        this.chars = chars;
+        this.offsets = offsets;
+
+        // Keep the table at most half full
+        int capacity = 2;
+        while(capacity < 2 * size()){
+            capacity <<= 1;
+        }
+        this.table = new int[capacity];
+        Arrays.fill(table, -1);
+
+        // Index every word, a later duplicate replaces the earlier one
+        for(int id = 0; id < size(); id++){
+            if(length(id) > 0){
+                table[slotOf(chars, offsets[id], length(id))] = id;
+            }
+        }
+    }
+
+    /**
+     * Construct an arena holding the specified words
+     * @param words word of each id, null or empty if the id is not used
+     * @return an arena holding the words
+     */
+    public static WordArena fromWords(String[] words){
+
+        // Count the characters of all words
+        int total = 0;
+        for(String word : words){
+            if(word != null){
+                total += word.length();
+            }
+        }
+
+        // Copy each word after the previous one
+        char[] chars = new char[total];
+        int[] offsets = new int[words.length + 1];
+        int pos = 0;
+        for(int i = 0; i < words.length; i++){
+            offsets[i] = pos;
+            if(words[i] != null){
+                words[i].getChars(0, words[i].length(), chars, pos);
+                pos += words[i].length();
+            }
+        }
+        offsets[words.length] = pos;
+
+        return new WordArena(chars, offsets);
+    }
+
+    /**
+     * Construct an arena from the words of the specified "word graph" file,
+     * ignoring the edges listed in the file
+     * @param filename the "word graph" file
+     * @return an arena holding the word of each node id of the file
+     */
+    public static WordArena readWords(String filename){
+
+        try(BufferedReader reader = new BufferedReader(new FileReader(filename))){
+
+            // Word of each node id, grown on demand
+            String[] words = new String[1024];
+            // Largest node id seen in the file
+            int maxId = -1;
+
+            // Store the current line of the text
+            String current = reader.readLine();
+
+            // Trace through each line of the text
+            while(current != null){
+
+                // Index 0 store the node id, index 1 store the word
+                String[] line = current.trim().split(" ", 3);
+                if(line.length >= 2){
+                    int id = Integer.parseInt(line[0]);
+                    if(id >= words.length){
+                        words = Arrays.copyOf(words, Math.max(words.length * 2, id + 1));
+                    }
+                    words[id] = line[1];
+                    maxId = Math.max(maxId, id);
+                }
+
+                // Update to the next line
+                current = reader.readLine();
+            }
+
+            return fromWords(Arrays.copyOf(words, maxId + 1));
+        }
+        // Throw an error if the input file is inappropriate
+        catch(IOException e){
+            throw new RuntimeException();
+        }
+    }
+
+    /**
+     * Construct an arena holding the same words with their ids permuted
+     * @param order the old id of each new id
+     * @return an arena where the word of new id i is the word of old id order[i]
+     */
+    public WordArena permute(int[] order){
+
+        // Copy each word to its new position
+        char[] permuted = new char[chars.length];
+        int[] starts = new int[order.length + 1];
+        int pos = 0;
+        for(int i = 0; i < order.length; i++){
+            starts[i] = pos;
+            System.arraycopy(chars, offsets[order[i]], permuted, pos, length(order[i]));
+            pos += length(order[i]);
+        }
+        starts[order.length] = pos;
+
+        return new WordArena(permuted, starts);
+    }
+
+    /**
+     * Retrieve the number of word ids in the arena
+     * @return the number of word ids
+     */
+    @Override
+    public int size(){
+        return offsets.length - 1;
+    }
+
+    /**
+     * Retrieve the length of the specified word
+     * @param id id of the word
+     * @return the number of characters in the word, 0 if the id is not used
+     */
+    @Override
+    public int length(int id){
+        return offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * Retrieve a character of the specified word
+     * @param id id of the word
+     * @param index position of the character in the word
+     * @return the character at the position
+     */
+    @Override
+    public char charAt(int id, int index){
+        return chars[offsets[id] + index];
+    }
+
+    /**
+     * Copy the specified word into a new String
+     * @param id id of the word
+     * @return the word, null if the id is not used
+     */
+    @Override
+    public String getWord(int id){
+        return length(id) == 0 ? null : new String(chars, offsets[id], length(id));
+    }
+
+    /**
+     * Append the specified word to a builder without creating a String
+     * @param id id of the word
+     * @param builder the builder the word is appended to
+     */
+    @Override
+    public void appendTo(int id, StringBuilder builder){
+        builder.append(chars, offsets[id], length(id));
+    }
+
+    /**
+     * Append the words of a path to a builder, separated by the specified text
+     * @param path ids of the words on the path
+     * @param separator text placed between two words
+     * @param builder the builder the words are appended to
+     */
+    @Override
+    public void appendPath(int[] path, String separator, StringBuilder builder){
+        for(int i = 0; i < path.length; i++){
+            if(i > 0){
+                builder.append(separator);
+            }
+            appendTo(path[i], builder);
+        }
+    }
+
+    /**
+     * Append the words of a path held in a buffer to a builder, separated by the specified text
+     * @param path ids of the words on the path
+     * @param separator text placed between two words
+     * @param builder the builder the words are appended to
+     */
+    @Override
+    public void appendPath(PathBuffer path, String separator, StringBuilder builder){
+        for(int i = 0; i < path.length(); i++){
+            if(i > 0){
+                builder.append(separator);
+            }
+            appendTo(path.get(i), builder);
+        }
+    }
+
+    /**
+     * Search for the id of the specified word
+     * @param word the word looked up
+     * @return the id of the word, -1 if the word is not in the arena
+     */
+    @Override
+    public int find(CharSequence word){
+
+        // Probe from the slot given by the hash until the word or an empty slot is found
+        int mask = table.length - 1;
+        for(int slot = hash(word) & mask; table[slot] >= 0; slot = (slot + 1) & mask){
+            if(matches(table[slot], word)){
+                return table[slot];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Search for the id of a word held in a char array
+     * @param word array holding the word
+     * @param start position of the first character of the word
+     * @param length number of characters in the word
+     * @return the id of the word, -1 if the word is not in the arena
+     */
+    @Override
+    public int find(char[] word, int start, int length){
+
+        // Probe from the slot given by the hash until the word or an empty slot is found
+        int mask = table.length - 1;
+        for(int slot = hash(word, start, length) & mask; table[slot] >= 0; slot = (slot + 1) & mask){
+            int id = table[slot];
+            if(length(id) == length && Arrays.equals(chars, offsets[id], offsets[id + 1], word, start, start + length)){
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Create a reusable view of the words in the arena
+     * @return a new slice positioned on the first word
+     */
+    public Slice newSlice(){
+        return new Slice();
+    }
+
+    /**
+     * Retrieve the number of bytes used by the characters, offsets and lookup table
+     * @return bytes used by the arena
+     */
+    public long footprintBytes(){
+        return 2L * chars.length + 4L * offsets.length + 4L * table.length;
+    }
+
+    /**
+     * Find the empty slot where a word stored in the arena is indexed,
+     * or the slot holding an equal word
+     * @param source array holding the word
+     * @param start position of the first character of the word
+     * @param length number of characters in the word
+     * @return the slot of the word in the table
+     */
+    private int slotOf(char[] source, int start, int length){
+        int mask = table.length - 1;
+        int slot = hash(source, start, length) & mask;
+        while(table[slot] >= 0 && !(length(table[slot]) == length
+                && Arrays.equals(chars, offsets[table[slot]], offsets[table[slot]] + length, source, start, start + length))){
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Check if the specified word equals a word of the arena
+     * @param id id of the word in the arena
+     * @param word the word compared
+     * @return true if the two words have the same characters
+     */
+    private boolean matches(int id, CharSequence word){
+        if(length(id) != word.length()){
+            return false;
+        }
+        for(int i = 0; i < word.length(); i++){
+            if(chars[offsets[id] + i] != word.charAt(i)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hash the characters of a word, spreading the high bits into the low ones
+     * @param word the word hashed
+     * @return the hash of the word
+     */
+    private static int hash(CharSequence word){
+        int h = 0;
+        // String caches its hash, which is computed the same way
+        if(word instanceof String){
+            h = word.hashCode();
+        }
+        else{
+            for(int i = 0; i < word.length(); i++){
+                h = 31 * h + word.charAt(i);
+            }
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Hash the characters of a word held in a char array
+     * @param word array holding the word
+     * @param start position of the first character of the word
+     * @param length number of characters in the word
+     * @return the hash of the word
+     */
+    private static int hash(char[] word, int start, int length){
+        int h = 0;
+        for(int i = start; i < start + length; i++){
+            h = 31 * h + word[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Reusable view of one word of the arena, which does not copy its characters
+     */
+    public class Slice implements CharSequence{
+
+        /**
+         * Id of the word viewed
+         */
+        private int id;
+
+        /**
+         * Move the view to the specified word
+         * @param id id of the word
+         * @return this slice
+         */
+        public Slice set(int id){
+            this.id = id;
+            return this;
+        }
+
+        /**
+         *
+         * @return id of the word viewed
+         */
+        public int getId(){
+            return id;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int length(){
+            return WordArena.this.length(id);
+        }
+
+        /**
+         * {@inheritDoc}
+         * @throws IndexOutOfBoundsException if the index is outside the word
+         */
+        @Override
+        public char charAt(int index){
+            if(index < 0 || index >= length()){
+                throw new IndexOutOfBoundsException("Index " + index + " out of word of length " + length());
+            }
+            return chars[offsets[id] + index];
+        }
+
+        /**
+         * {@inheritDoc}
+         * @throws IndexOutOfBoundsException if the range is outside the word
+         */
+        @Override
+        public CharSequence subSequence(int start, int end){
+            if(start < 0 || end > length() || start > end){
+                throw new IndexOutOfBoundsException("Range " + start + ".." + end + " out of word of length " + length());
+            }
+            return new String(chars, offsets[id] + start, end - start);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString(){
+            return new String(chars, offsets[id], length());
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Testing class for WordArena
+ * @author Vo Linh Chi Dao
+ */
+public class WordArenaTest{
+
+    String[] words = {"cat","cot",null,"bat","caf\u00e9","cat"};
+
+    /**
+     * Test find method
+     */
+    @Test
+    public void find(){
+
+        WordArena a1 = WordArena.fromWords(words);
+
+        assertEquals(6,a1.size());
+        // Find existing words
+        assertEquals(1,a1.find("cot"));
+        assertEquals(4,a1.find("caf\u00e9"));
+        assertEquals(3,a1.find(new StringBuilder("bat")));
+        assertEquals(1,a1.find("xcotx".toCharArray(),1,3));
+        // A duplicated word is found at its last id
+        assertEquals(5,a1.find("cat"));
+        // Find non-existing words
+        assertEquals(-1,a1.find("dog"));
+        assertEquals(-1,a1.find(""));
+        assertEquals(-1,a1.find("ca"));
+    }
+
+    /**
+     * Test word access through slices and paths
+     */
+    @Test
+    public void slice(){
+
+        WordArena a1 = WordArena.fromWords(words);
+
+        // Unused ids have no word
+        assertNull(a1.getWord(2));
+        assertEquals(0,a1.length(2));
+        assertEquals("caf\u00e9",a1.getWord(4));
+
+        // A slice views the word without copying it
+        WordArena.Slice slice = a1.newSlice();
+        assertEquals(3,slice.set(3).length());
+        assertEquals('a',slice.charAt(1));
+        assertEquals("at",slice.subSequence(1,3).toString());
+        assertEquals(3,a1.find(slice));
+
+        // Indexes past the word do not reach the next word
+        try{
+            slice.charAt(3);
+            fail();
+        }
+        catch(IndexOutOfBoundsException e){
+            System.out.println(e.getMessage());
+        }
+        try{
+            slice.subSequence(2, 4);
+            fail();
+        }
+        catch(IndexOutOfBoundsException e){
+            System.out.println(e.getMessage());
+        }
+
+        // Write a path of words
+        StringBuilder builder = new StringBuilder();
+        a1.appendPath(new int[]{0,1,3}, " -> ", builder);
+        assertEquals("cat -> cot -> bat",builder.toString());
+        System.out.println("Arena bytes: " + a1.footprintBytes());
+    }
+
+}
@@ -1,6 +1,7 @@
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Hashtable;
@@ -12,12 +13,68 @@ import java.util.Scanner;
  */
 public class WordLadders{
 
+    /**
+     * Port the query server listens on when none is specified
+     */
+    public static final int DEFAULT_PORT = 4040;
+
     /**
      * Execute the WordLadders program
-     * @param args "word graph" representation of the game
+     * @param args "word graph" representation of the game, optionally followed by
+     *             "serve [port [maxConnections [maxLineLength [idleTimeout [queryTimeout [maxExpansions]]]]]]"
+     *             to answer queries on a local socket instead,
+     *             "partition numShards [component|length]" to split the file into the shard files
+     *             "file.0", "file.1"..., each served by its own "serve" process, or
+     *             "coordinate port shardPort..." to route queries to the shards of the file served on those ports,
+     *             "index numShards [component|length]" to write the shards into "file.parts" and its index, or
+     *             "lazy [port [maxBytes]]" to serve a "file.parts" loading its shards on demand, or
+     *             "pipe [threads [queryTimeout [maxExpansions]]]" to answer the query lines of the
+     *             standard input on the standard output without prompts
      */
     public static void main(String[] args){
-        start(args[0]);
+
+        // Split the file into shards when requested
+        if(args.length > 2 && args[1].equals("partition")){
+            partition(args[0], Integer.parseInt(args[2]), args.length > 3 && args[3].equals("length"));
+        }
+        // Write the shards into one indexed file when requested
+        else if(args.length > 2 && args[1].equals("index")){
+            index(args[0], Integer.parseInt(args[2]), args.length > 3 && args[3].equals("length"));
+        }
+        // Serve an indexed file loading its shards on demand when requested
+        else if(args.length > 1 && args[1].equals("lazy")){
+            serveLazy(args[0],
+                    args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PORT,
+                    args.length > 3 ? Long.parseLong(args[3]) : 0);
+        }
+        // Route queries to the shards when requested
+        else if(args.length > 3 && args[1].equals("coordinate")){
+            int[] ports = new int[args.length - 3];
+            for(int i = 0; i < ports.length; i++){
+                ports[i] = Integer.parseInt(args[i + 3]);
+            }
+            coordinate(args[0], Integer.parseInt(args[2]), ports);
+        }
+        // Answer the queries of the standard input when requested
+        else if(args.length > 1 && args[1].equals("pipe")){
+            pipe(args[0],
+                    args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors(),
+                    args.length > 3 ? Long.parseLong(args[3]) : 0,
+                    args.length > 4 ? Long.parseLong(args[4]) : 0);
+        }
+        // Serve queries on a local socket when requested
+        else if(args.length > 1 && args[1].equals("serve")){
+            serve(args[0],
+                    args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PORT,
+                    args.length > 3 ? Integer.parseInt(args[3]) : LadderServer.MAX_CONNECTIONS,
+                    args.length > 4 ? Integer.parseInt(args[4]) : LadderServer.MAX_LINE_LENGTH,
+                    args.length > 5 ? Integer.parseInt(args[5]) : LadderServer.IDLE_TIMEOUT,
+                    args.length > 6 ? Integer.parseInt(args[6]) : LadderServer.QUERY_TIMEOUT,
+                    args.length > 7 ? Integer.parseInt(args[7]) : LadderServer.MAX_EXPANSIONS);
+        }
+        else{
+            start(args[0]);
+        }
     }
 
     /**
@@ -83,7 +140,8 @@ public class WordLadders{
     /**
      * Create Hashtable for the nodes in the "word graph" file
      * The String data of the node will the key, while the Integer
-     * name of the node will be the data
+     * name of the node will be the data. WordTrie.readWordGraph gives the
+     * same mapping in a compact index that does not lock on lookups
      * @param filename the "word graph" file
      */
     protected static Hashtable<String,Integer> hashGraph(String filename){
@@ -133,6 +191,135 @@ public class WordLadders{
         }
     }
 
+    /**
+     * Load the "word graph" once and answer queries on a local socket
+     * until the process is stopped
+     * @param filename the "word graph" representation of the wordLadder
+     * @param port the port to listen on
+     * @param maxConnections maximum number of connections served at the same time
+     * @param maxLineLength maximum number of bytes in a query line
+     * @param idleTimeout time in milliseconds a connection may stay idle, 0 for no limit
+     * @param queryTimeout time in milliseconds a query may search, 0 for no limit
+     * @param maxExpansions number of nodes a query may expand, 0 for no budget
+     */
+    private static void serve(String filename, int port, int maxConnections, int maxLineLength, int idleTimeout,
+                              int queryTimeout, int maxExpansions){
+
+        LadderEngine engine = LadderEngine.load(filename);
+
+        try(LadderServer server = new LadderServer(engine, port, maxConnections, maxLineLength, idleTimeout, queryTimeout, maxExpansions)){
+            System.out.println("Serving word ladders on port " + server.getPort());
+            server.run();
+        }
+        catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Load the "word graph" once and answer each query line "from to [method]" of the
+     * standard input on the standard output, until the end of the input. The number
+     * of queries and the time taken are printed on the standard error
+     * @param filename the "word graph" representation of the wordLadder
+     * @param threads number of threads searching the queries, 1 to search them on the main thread
+     * @param queryTimeout time in milliseconds a query may search, 0 for no limit
+     * @param maxExpansions number of nodes a query may expand, 0 for no budget
+     */
+    private static void pipe(String filename, int threads, long queryTimeout, long maxExpansions){
+
+        LadderEngine engine = LadderEngine.load(filename);
+        LadderPipe pipe = new LadderPipe(engine, threads, queryTimeout, maxExpansions);
+
+        try{
+            long start = System.nanoTime();
+            long count = pipe.run(System.in, System.out);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.err.printf("Answered %d queries in %.1f s (%.0f queries/s)%n", count, seconds, count / Math.max(seconds, 1e-9));
+        }
+        catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Split the "word graph" into shards that never share an edge and write
+     * each shard next to the file, as "file.0", "file.1"...
+     * @param filename the "word graph" representation of the wordLadder
+     * @param numShards number of shards
+     * @param byLength true to split by word length, which requires that only
+     *                 words of the same length are linked, false to split by component
+     */
+    private static void partition(String filename, int numShards, boolean byLength){
+
+        CompressedGraph graph = CompressedGraph.readWordGraph(filename);
+        GraphPartition partition = byLength ? GraphPartition.byLength(graph, numShards) : GraphPartition.byComponent(graph, numShards);
+        String[] filenames = partition.write(filename);
+        for(int shard = 0; shard < filenames.length; shard++){
+            System.out.println(filenames[shard] + ": " + partition.shardSize(shard) + " words");
+        }
+    }
+
+    /**
+     * Split the "word graph" into shards and write them one after another into
+     * "file.parts", with the index "file.parts.index" used to load them on demand
+     * @param filename the "word graph" representation of the wordLadder
+     * @param numShards number of shards
+     * @param byLength true to split by word length, which requires that only
+     *                 words of the same length are linked, false to split by component
+     */
+    private static void index(String filename, int numShards, boolean byLength){
+
+        CompressedGraph graph = CompressedGraph.readWordGraph(filename);
+        GraphPartition partition = byLength ? GraphPartition.byLength(graph, numShards) : GraphPartition.byComponent(graph, numShards);
+        partition.writeIndexed(filename + ".parts");
+        System.out.println(filename + ".parts: " + numShards + " shards");
+    }
+
+    /**
+     * Answer queries on a local socket, reading each shard of an indexed file
+     * only when a query first needs it, until the process is stopped
+     * @param filename the file written by the "index" mode
+     * @param port the port to listen on
+     * @param maxBytes bytes the loaded shards may hold before the least recently used are dropped, 0 for no limit
+     */
+    private static void serveLazy(String filename, int port, long maxBytes){
+
+        LazyLadderEngine engine = LazyLadderEngine.open(filename, maxBytes);
+
+        try(LadderServer server = new LadderServer(engine, port)){
+            System.out.println("Serving word ladders from " + engine.getNumShards() + " shards on port " + server.getPort());
+            server.run();
+        }
+        catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Answer queries on a local socket by forwarding each one to the shard
+     * holding its first word, until the process is stopped. Only the words of
+     * the shard files are loaded
+     * @param filename the "word graph" that was split into "file.0", "file.1"...
+     * @param port the port to listen on
+     * @param shardPorts the port each shard is served on, by shard
+     */
+    private static void coordinate(String filename, int port, int[] shardPorts){
+
+        String[] filenames = new String[shardPorts.length];
+        for(int shard = 0; shard < filenames.length; shard++){
+            filenames[shard] = filename + "." + shard;
+        }
+
+        try(ShardRouter router = ShardRouter.readShards(filenames, shardPorts);
+            LadderServer server = new LadderServer(router, port)){
+            System.out.println("Routing word ladders to " + shardPorts.length + " shards on port " + server.getPort());
+            server.run();
+        }
+        catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Generate the wordLadders program and queries for the users
      * @param filename the "word graph" representation of the wordLadder,
@@ -143,8 +330,8 @@ public class WordLadders{
         // The graph representation of the input "word graph" file
         Graph<Integer, String> wordGraph = readWordGraph(filename);
 
-        // The hash table storing the nodes of the graph
-        Hashtable<String, Integer> hashtable = hashGraph(filename);
+        // The index mapping the words to the nodes of the graph
+        WordTrie index = WordTrie.readWordGraph(filename);
 
         // Query for the user input
         Scanner scanner1 = new Scanner(System.in);
@@ -170,9 +357,11 @@ public class WordLadders{
             // Check if user input is not null
             if(word1 != null && word2 != null){
 
-                // Name of the two nodes
-                Integer node1 = hashtable.get(word1);
-                Integer node2 = hashtable.get(word2);
+                // Name of the two nodes, null if the word is not in the graph
+                int id1 = index.find(word1);
+                int id2 = index.find(word2);
+                Integer node1 = id1 < 0 ? null : id1;
+                Integer node2 = id2 < 0 ? null : id2;
 
                 ArrayList<String> dataList = new ArrayList<>();
 
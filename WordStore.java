@@ -0,0 +1,74 @@
+/**
+ * Read-only words of a word graph, numbered from 0 to size() - 1,
+ * whatever memory they are stored in
+ * @author Vo Linh Chi Dao
+ */
+public interface WordStore{
+
+    /**
+     * Retrieve the number of word ids
+     * @return the number of word ids
+     */
+    int size();
+
+    /**
+     * Retrieve the length of the specified word
+     * @param id id of the word
+     * @return the number of characters in the word, 0 if the id is not used
+     */
+    int length(int id);
+
+    /**
+     * Retrieve a character of the specified word
+     * @param id id of the word
+     * @param index position of the character in the word
+     * @return the character at the position
+     */
+    char charAt(int id, int index);
+
+    /**
+     * Copy the specified word into a new String
+     * @param id id of the word
+     * @return the word, null if the id is not used
+     */
+    String getWord(int id);
+
+    /**
+     * Append the specified word to a builder without creating a String
+     * @param id id of the word
+     * @param builder the builder the word is appended to
+     */
+    void appendTo(int id, StringBuilder builder);
+
+    /**
+     * Append the words of a path to a builder, separated by the specified text
+     * @param path ids of the words on the path
+     * @param separator text placed between two words
+     * @param builder the builder the words are appended to
+     */
+    void appendPath(int[] path, String separator, StringBuilder builder);
+
+    /**
+     * Append the words of a path held in a buffer to a builder, separated by the specified text
+     * @param path ids of the words on the path
+     * @param separator text placed between two words
+     * @param builder the builder the words are appended to
+     */
+    void appendPath(PathBuffer path, String separator, StringBuilder builder);
+
+    /**
+     * Search for the id of the specified word
+     * @param word the word looked up
+     * @return the id of the word, -1 if the word is not stored
+     */
+    int find(CharSequence word);
+
+    /**
+     * Search for the id of a word held in a char array
+     * @param word array holding the word
+     * @param start position of the first character of the word
+     * @param length number of characters in the word
+     * @return the id of the word, -1 if the word is not stored
+     */
+    int find(char[] word, int start, int length);
+}
@@ -0,0 +1,445 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Class representing an immutable index from words to int ids, stored as a
+ * minimal acyclic automaton: the trie of the words with every identical
+ * subtree merged, so common suffixes as well as common prefixes are stored
+ * once. Since merged states cannot hold ids, the automaton gives the rank of
+ * a word in lexicographic order, which an array turns into its id. The words
+ * starting with a prefix have consecutive ranks, so they are enumerated
+ * without walking the automaton. Lookups only read final arrays, so any
+ * number of threads may share the index without locking
+ * @author Vo Linh Chi Dao
+ */
+public class WordTrie{
+
+    /**
+     * Number of words in the index
+     */
+    private final int size;
+
+    /**
+     * Start state of the automaton
+     */
+    private final int root;
+
+    /**
+     * Index of the first transition of each state, first[numStates] is the end
+     */
+    private final int[] first;
+
+    /**
+     * Indicate if each state ends a word
+     */
+    private final boolean[] accepting;
+
+    /**
+     * Number of words accepted from each state
+     */
+    private final int[] counts;
+
+    /**
+     * Letter of each transition, sorted within each state
+     */
+    private final char[] labels;
+
+    /**
+     * State each transition leads to
+     */
+    private final int[] targets;
+
+    /**
+     * Number of words ranked before those reached through each transition,
+     * counted from the state the transition leaves
+     */
+    private final int[] skipped;
+
+    /**
+     * Id of each word, by rank
+     */
+    private final int[] ids;
+
+    /**
+     * Constructor initializes an index from its packed automaton
+     * @param root start state of the automaton
+     * @param first index of the first transition of each state
+     * @param accepting indicate if each state ends a word
+     * @param counts number of words accepted from each state
+     * @param labels letter of each transition
+     * @param targets state each transition leads to
+     * @param skipped number of words ranked before each transition
+     * @param ids id of each word, by rank
+     */
+    private WordTrie(int root, int[] first, boolean[] accepting, int[] counts, char[] labels, int[] targets, int[] skipped, int[] ids){
+        this.size = ids.length;
+        this.root = root;
+        this.first = first;
+        this.accepting = accepting;
+        this.counts = counts;
+        this.labels = labels;
+        this.targets = targets;
+        this.skipped = skipped;
+        this.ids = ids;
+    }
+
+    /**
+     * Construct an index of the specified words
+     * @param words the words, null entries are skipped
+     * @param ids the id of each word
+     * @return an index mapping each word to its id. A word given twice maps to its last id
+     * @throws IllegalArgumentException if the number of words and ids does not match
+     */
+    public static WordTrie fromWords(String[] words, int[] ids){
+
+        // If the lists of words and ids do not have equal length, throw an exception
+        if(words.length != ids.length){
+            throw new IllegalArgumentException("The length of words and ids lists does not match");
+        }
+
+        // Sort the positions of the words, keeping the given order of equal words
+        Integer[] order = new Integer[words.length];
+        int numWords = 0;
+        for(int i = 0; i < words.length; i++){
+            if(words[i] != null){
+                order[numWords++] = i;
+            }
+        }
+        Arrays.sort(order, 0, numWords, (a, b) -> words[a].compareTo(words[b]));
+
+        // Keep the last id of each word
+        String[] sorted = new String[numWords];
+        int[] rankIds = new int[numWords];
+        int numUnique = 0;
+        for(int i = 0; i < numWords; i++){
+            String word = words[order[i]];
+            if(numUnique > 0 && sorted[numUnique - 1].equals(word)){
+                numUnique--;
+            }
+            sorted[numUnique] = word;
+            rankIds[numUnique++] = ids[order[i]];
+        }
+
+        return new Builder(Arrays.copyOf(sorted, numUnique)).build(Arrays.copyOf(rankIds, numUnique));
+    }
+
+    /**
+     * Construct an index of the words of the specified "word graph" file,
+     * mapping each word to the node id of its line
+     * @param filename the "word graph" file
+     * @return an index mapping each word of the file to its node id
+     */
+    public static WordTrie readWordGraph(String filename){
+
+        try(BufferedReader reader = new BufferedReader(new FileReader(filename))){
+
+            // Word and node id of each line, grown on demand
+            String[] words = new String[1024];
+            int[] ids = new int[1024];
+            int numWords = 0;
+
+            // Store the current line of the text
+            String current = reader.readLine();
+
+            // Trace through each line of the text
+            while(current != null){
+
+                // Index 0 store the node id, index 1 store the word
+                String[] line = current.trim().split(" ", 3);
+                if(line.length >= 2){
+                    if(numWords == words.length){
+                        words = Arrays.copyOf(words, words.length * 2);
+                        ids = Arrays.copyOf(ids, ids.length * 2);
+                    }
+                    ids[numWords] = Integer.parseInt(line[0]);
+                    words[numWords++] = line[1];
+                }
+
+                // Update to the next line
+                current = reader.readLine();
+            }
+
+            return fromWords(Arrays.copyOf(words, numWords), Arrays.copyOf(ids, numWords));
+        }
+        // Throw an error if the input file is inappropriate
+        catch(IOException e){
+            throw new RuntimeException();
+        }
+    }
+
+    /**
+     * Retrieve the number of words in the index
+     * @return number of distinct words
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Retrieve the number of states of the automaton
+     * @return number of states after merging identical subtrees
+     */
+    public int numStates(){
+        return first.length - 1;
+    }
+
+    /**
+     * Find the id of a word
+     * @param word the word
+     * @return the id of the word, -1 if the word is not in the index
+     */
+    public int find(CharSequence word){
+        int rank = rank(word);
+        return rank < 0 ? -1 : ids[rank];
+    }
+
+    /**
+     * Find the rank of a word in lexicographic order
+     * @param word the word
+     * @return the rank of the word, -1 if the word is not in the index
+     */
+    public int rank(CharSequence word){
+
+        int state = root;
+        int rank = 0;
+
+        // Follow the letters, counting the words ranked before the path
+        for(int i = 0; i < word.length(); i++){
+            int transition = transition(state, word.charAt(i));
+            if(transition < 0){
+                return -1;
+            }
+            rank += skipped[transition];
+            state = targets[transition];
+        }
+        return accepting[state] ? rank : -1;
+    }
+
+    /**
+     * Count the words starting with a prefix
+     * @param prefix the prefix
+     * @return number of words starting with the prefix, including the prefix itself
+     */
+    public int countPrefix(CharSequence prefix){
+        return (int) prefixRange(prefix);
+    }
+
+    /**
+     * Find the ids of the words starting with a prefix
+     * @param prefix the prefix
+     * @return the ids of the words starting with the prefix, in lexicographic order of the words
+     */
+    public int[] withPrefix(CharSequence prefix){
+        long range = prefixRange(prefix);
+        int start = (int) (range >>> 32);
+        return Arrays.copyOfRange(ids, start, start + (int) range);
+    }
+
+    /**
+     * Estimate the bytes taken by the index, counting array headers as 16 bytes
+     * @return estimated heap footprint of the index
+     */
+    public long footprintBytes(){
+        return 16L * 8 + 4L * first.length + accepting.length + 4L * counts.length
+                + 2L * labels.length + 4L * targets.length + 4L * skipped.length + 4L * ids.length;
+    }
+
+    /**
+     * Find the ranks of the words starting with a prefix
+     * @param prefix the prefix
+     * @return the rank of the first word in the upper 32 bits and the number of words in the lower 32 bits
+     */
+    private long prefixRange(CharSequence prefix){
+
+        int state = root;
+        int rank = 0;
+        for(int i = 0; i < prefix.length(); i++){
+            int transition = transition(state, prefix.charAt(i));
+            if(transition < 0){
+                return 0;
+            }
+            rank += skipped[transition];
+            state = targets[transition];
+        }
+        return ((long) rank << 32) | counts[state];
+    }
+
+    /**
+     * Find the transition of a state labelled with a letter
+     * @param state the state
+     * @param letter the letter
+     * @return index of the transition, -1 if the state has no transition with the letter
+     */
+    private int transition(int state, char letter){
+        int index = Arrays.binarySearch(labels, first[state], first[state + 1], letter);
+        return index < 0 ? -1 : index;
+    }
+
+    /**
+     * Class building the automaton of sorted words: the words are first added to a
+     * trie, then identical subtrees are merged bottom-up and the result is packed
+     */
+    private static class Builder{
+
+        /**
+         * The sorted distinct words
+         */
+        private final String[] words;
+
+        /**
+         * Letter leading to each trie node
+         */
+        private char[] label = new char[1024];
+
+        /**
+         * First child of each trie node, -1 for a leaf
+         */
+        private int[] firstChild = new int[1024];
+
+        /**
+         * Next sibling of each trie node, -1 for the last child
+         */
+        private int[] nextSibling = new int[1024];
+
+        /**
+         * Last child of each trie node, -1 for a leaf
+         */
+        private int[] lastChild = new int[1024];
+
+        /**
+         * Indicate if each trie node ends a word
+         */
+        private boolean[] ends = new boolean[1024];
+
+        /**
+         * Number of trie nodes
+         */
+        private int numNodes;
+
+        /**
+         * Constructor initializes a builder of the specified words
+         * @param words the sorted distinct words
+         */
+        private Builder(String[] words){
+            this.words = words;
+        }
+
+        /**
+         * Build the automaton of the words
+         * @param ids the id of each word, by rank
+         * @return the index of the words
+         */
+        private WordTrie build(int[] ids){
+
+            // Add each word to the trie, sharing the prefix of the previous word.
+            // Since the words are sorted, new children always come last
+            int[] path = new int[16];
+            path[0] = newNode('\0');
+            String previous = "";
+            for(String word : words){
+                int common = 0;
+                while(common < word.length() && common < previous.length() && word.charAt(common) == previous.charAt(common)){
+                    common++;
+                }
+                if(word.length() + 1 > path.length){
+                    path = Arrays.copyOf(path, word.length() * 2);
+                }
+                for(int i = common; i < word.length(); i++){
+                    int child = newNode(word.charAt(i));
+                    int parent = path[i];
+                    if(lastChild[parent] < 0){
+                        firstChild[parent] = child;
+                    }
+                    else{
+                        nextSibling[lastChild[parent]] = child;
+                    }
+                    lastChild[parent] = child;
+                    path[i + 1] = child;
+                }
+                ends[path[word.length()]] = true;
+                previous = word;
+            }
+
+            // Merge identical subtrees bottom-up. Children are created after their
+            // parent, so visiting the nodes backward handles the children first
+            int[] state = new int[numNodes];
+            int[] representative = new int[numNodes];
+            HashMap<String,Integer> registry = new HashMap<>();
+            StringBuilder signature = new StringBuilder();
+            int numStates = 0;
+            int numTransitions = 0;
+            for(int node = numNodes - 1; node >= 0; node--){
+
+                // A state is identified by its final flag and its labelled transitions
+                signature.setLength(0);
+                signature.append(ends[node] ? '1' : '0');
+                int degree = 0;
+                for(int child = firstChild[node]; child >= 0; child = nextSibling[child]){
+                    signature.append(label[child]).append((char) (state[child] >>> 16)).append((char) state[child]);
+                    degree++;
+                }
+                String key = signature.toString();
+                Integer known = registry.get(key);
+                if(known == null){
+                    known = numStates++;
+                    registry.put(key, known);
+                    representative[known] = node;
+                    numTransitions += degree;
+                }
+                state[node] = known;
+            }
+
+            // Pack the transitions of each state, counting the words accepted from it.
+            // States are numbered children first, so their counts are known in order
+            int[] first = new int[numStates + 1];
+            boolean[] accepting = new boolean[numStates];
+            int[] counts = new int[numStates];
+            char[] labels = new char[numTransitions];
+            int[] targets = new int[numTransitions];
+            int[] skipped = new int[numTransitions];
+            int transition = 0;
+            for(int s = 0; s < numStates; s++){
+                int node = representative[s];
+                first[s] = transition;
+                accepting[s] = ends[node];
+                int count = ends[node] ? 1 : 0;
+                for(int child = firstChild[node]; child >= 0; child = nextSibling[child]){
+                    labels[transition] = label[child];
+                    targets[transition] = state[child];
+                    skipped[transition++] = count;
+                    count += counts[state[child]];
+                }
+                counts[s] = count;
+            }
+            first[numStates] = transition;
+
+            return new WordTrie(state[0], first, accepting, counts, labels, targets, skipped, ids);
+        }
+
+        /**
+         * Add a node to the trie
+         * @param letter the letter leading to the node
+         * @return id of the new node
+         */
+        private int newNode(char letter){
+            if(numNodes == label.length){
+                int capacity = label.length * 2;
+                label = Arrays.copyOf(label, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                nextSibling = Arrays.copyOf(nextSibling, capacity);
+                lastChild = Arrays.copyOf(lastChild, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+            }
+            label[numNodes] = letter;
+            firstChild[numNodes] = -1;
+            nextSibling[numNodes] = -1;
+            lastChild[numNodes] = -1;
+            ends[numNodes] = false;
+            return numNodes++;
+        }
+    }
+
+}
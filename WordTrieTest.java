@@ -0,0 +1,89 @@
+import org.junit.Test;
+import java.util.Hashtable;
+import java.util.Map;
+import static org.junit.Assert.*;
+
+/**
+ * Testing class for WordTrie
+ * @author Vo Linh Chi Dao
+ */
+public class WordTrieTest{
+
+    String file1 = "src/text4.txt";
+    String file2 = "src/text5.txt";
+    String file3 = "src/LargeWordGraph";
+
+    String[] words = {"cat","cats","bat","bats","cat",null,"at","a",""};
+    int[] ids = {10,11,12,13,14,15,16,17,18};
+
+    /**
+     * Test find and rank methods
+     */
+    @Test
+    public void find(){
+
+        WordTrie t1 = WordTrie.fromWords(words, ids);
+
+        assertEquals(7,t1.size());
+        // Find existing words, a duplicated word maps to its last id
+        assertEquals(14,t1.find("cat"));
+        assertEquals(13,t1.find(new StringBuilder("bats")));
+        assertEquals(17,t1.find("a"));
+        assertEquals(18,t1.find(""));
+        // Ranks follow lexicographic order
+        assertEquals(0,t1.rank(""));
+        assertEquals(1,t1.rank("a"));
+        assertEquals(4,t1.rank("bats"));
+        assertEquals(6,t1.rank("cats"));
+        // Find non-existing words
+        assertEquals(-1,t1.find("ca"));
+        assertEquals(-1,t1.find("catss"));
+        assertEquals(-1,t1.find("dog"));
+        // Suffixes shared by cat and bat are merged
+        System.out.println("States of index 1: " + t1.numStates());
+        assertTrue(t1.numStates() < 10);
+
+        try{
+            WordTrie.fromWords(words, new int[2]);
+            fail();
+        }
+        catch(IllegalArgumentException e){
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Test prefix enumeration
+     */
+    @Test
+    public void withPrefix(){
+
+        WordTrie t1 = WordTrie.fromWords(words, ids);
+
+        assertArrayEquals(new int[]{14,11},t1.withPrefix("cat"));
+        assertArrayEquals(new int[]{12,13},t1.withPrefix("b"));
+        assertEquals(7,t1.countPrefix(""));
+        assertEquals(2,t1.countPrefix("a"));
+        assertEquals(0,t1.countPrefix("d"));
+        assertEquals(0,t1.withPrefix("catx").length);
+    }
+
+    /**
+     * Test that the index of a file agrees with hashGraph
+     */
+    @Test
+    public void readWordGraph(){
+
+        for(String file : new String[]{file1, file2, file3}){
+            WordTrie t1 = WordTrie.readWordGraph(file);
+            Hashtable<String,Integer> t2 = WordLadders.hashGraph(file);
+            assertEquals(t2.size(),t1.size());
+            for(Map.Entry<String,Integer> entry : t2.entrySet()){
+                assertEquals((int) entry.getValue(),t1.find(entry.getKey()));
+            }
+            System.out.println(file + ": " + t1.size() + " words, " + t1.numStates() + " states, "
+                    + t1.footprintBytes() + " bytes");
+        }
+    }
+
+}